@@ -0,0 +1,19 @@
+#!/bin/bash
+# Runs the JMH benchmarks in benchmark/ with the allocation rate reported
+# next to the throughput. Needs the jmh-core, jmh-generator-annprocess,
+# jopt-simple and commons-math3 jars, either in lib/ or listed in
+# JMH_CLASSPATH. Any arguments are passed to JMH, e.g.
+#   ./benchmark.sh SimulationBenchmark -p engine=bit-packed -p size=2048
+CLASSDIR="build/benchmark"
+
+cd "$(dirname "$0")"
+CLASSPATH="${JMH_CLASSPATH:-$(echo lib/*.jar | tr ' ' ':')}"
+mkdir -p $CLASSDIR
+javac --add-modules jdk.incubator.vector -cp "$CLASSPATH" \
+    -processor org.openjdk.jmh.generators.BenchmarkProcessor -d $CLASSDIR \
+    $(find src/ benchmark/ -name "*.java" -type f) || exit 1
+java --add-modules jdk.incubator.vector -cp "$CLASSDIR:$CLASSPATH" \
+    org.openjdk.jmh.Main -prof gc "$@"
+STATUS=$?
+rm -rf $CLASSDIR
+exit $STATUS
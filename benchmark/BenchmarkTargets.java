@@ -0,0 +1,213 @@
+import java.io.File;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Creates the boards and operations measured by the benchmarks in the
+ * <code>benchmarks</code> package.
+ * <p>
+ * JMH only accepts benchmarks in a named package, and classes in a named
+ * package cannot refer to the simulation classes, which are in the unnamed
+ * package. The benchmarks therefore call these methods once, by reflection,
+ * while setting up, and only measure the <code>java.util.function</code>
+ * objects they return.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class BenchmarkTargets
+{
+    // class fields
+    private static final int[][] ACORN =
+        {{1, 0}, {3, 1}, {0, 2}, {1, 2}, {4, 2}, {5, 2}, {6, 2}};
+    private static final int[][] DIEHARD =
+        {{6, 0}, {0, 1}, {1, 1}, {1, 2}, {5, 2}, {6, 2}, {7, 2}};
+    private static final int[][] R_PENTOMINO =
+        {{1, 0}, {2, 0}, {0, 1}, {1, 1}, {1, 2}};
+    private static final long SEED = 20150423;
+
+    /*
+     * constructor
+     */
+
+    private BenchmarkTargets()
+    {
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Creates a square board.
+     *
+     * @param pattern <code>empty</code>, <code>random-10</code> or
+     * <code>random-50</code> for a board whose cells are alive with that
+     * probability in percent, or <code>r-pentomino</code>,
+     * <code>acorn</code> or <code>diehard</code> for that methuselah in the
+     * centre of an empty board
+     * @param size the width and height of the board
+     * @return the board, as an array of rows
+     * @throws IllegalArgumentException if the pattern is not known
+     */
+    public static boolean[][] createCells(String pattern, int size)
+    {
+        boolean[][] cells = new boolean[size][size];
+
+        if (pattern.startsWith("random-"))
+        {
+            int percentage = Integer.parseInt(pattern.substring(7));
+            Random random = new Random(SEED);
+            for (int y = 0; y < size; y++)
+                for (int x = 0; x < size; x++)
+                    cells[y][x] = random.nextInt(100) < percentage;
+        }
+        else if (pattern.equals("r-pentomino"))
+        {
+            place(cells, R_PENTOMINO);
+        }
+        else if (pattern.equals("acorn"))
+        {
+            place(cells, ACORN);
+        }
+        else if (pattern.equals("diehard"))
+        {
+            place(cells, DIEHARD);
+        }
+        else if (!pattern.equals("empty"))
+        {
+            throw new IllegalArgumentException("Unknown pattern: " + pattern);
+        }
+
+        return cells;
+    }
+
+    /**
+     * Creates a simulation of a board (see
+     * <code>createCells(String, int)</code>).
+     *
+     * @param engine the name of the <code>Engine</code> to simulate with
+     * @param pattern the pattern on the board
+     * @param size the width and height of the board
+     * @return the <code>Simulation</code>
+     */
+    public static Object createSimulation(String engine, String pattern,
+        int size)
+    {
+        return Engine.forName(engine).create(createCells(pattern, size), 1,
+            Rule.CONWAY);
+    }
+
+    /**
+     * Returns an operation which loads a <code>.gol</code> file in either
+     * format with <code>FileManager.loadSimulation(File)</code>.
+     *
+     * @param file the file to load
+     * @return the operation, which returns the loaded simulation
+     */
+    public static Supplier<Object> loadSimulation(final File file)
+    {
+        return new Supplier<Object>()
+            {
+                public Object get()
+                {
+                    return FileManager.loadSimulation(file);
+                }
+            };
+    }
+
+    /**
+     * Returns an operation which simulates the next generation of a
+     * simulation.
+     *
+     * @param simulation the <code>Simulation</code> returned by
+     * <code>createSimulation(String, String, int)</code>
+     * @return the operation
+     */
+    public static Runnable nextGeneration(Object simulation)
+    {
+        final Simulation target = (Simulation)simulation;
+        return new Runnable()
+            {
+                public void run()
+                {
+                    target.simulateNextGeneration();
+                }
+            };
+    }
+
+    /**
+     * Returns an operation which saves a simulation to a <code>.gol</code>
+     * file with <code>FileManager</code>.
+     *
+     * @param file the file to save to
+     * @param simulation the <code>Simulation</code> returned by
+     * <code>createSimulation(String, String, int)</code>
+     * @param format <code>binary</code>, <code>text</code> or the name of a
+     * <code>PatternFormat</code>
+     * @return the operation, which returns whether the save succeeded
+     * @throws IllegalArgumentException if the format is not known
+     */
+    public static BooleanSupplier saveSimulation(final File file,
+        Object simulation, String format)
+    {
+        final Simulation target = (Simulation)simulation;
+        if (format.equals("binary"))
+        {
+            return new BooleanSupplier()
+                {
+                    public boolean getAsBoolean()
+                    {
+                        return FileManager.saveSimulation(file, target);
+                    }
+                };
+        }
+        else if (format.equals("text"))
+        {
+            return new BooleanSupplier()
+                {
+                    public boolean getAsBoolean()
+                    {
+                        return FileManager.saveTextSimulation(file, target);
+                    }
+                };
+        }
+
+        final PatternFormat patternFormat = PatternFormat.forName(format);
+        return new BooleanSupplier()
+            {
+                public boolean getAsBoolean()
+                {
+                    return FileManager.savePattern(file, target,
+                        patternFormat);
+                }
+            };
+    }
+
+    /**
+     * Returns an operation which checks whether a simulation is stable.
+     *
+     * @param simulation the <code>Simulation</code> returned by
+     * <code>createSimulation(String, String, int)</code>
+     * @return the operation
+     */
+    public static BooleanSupplier isSimulationStable(Object simulation)
+    {
+        final Simulation target = (Simulation)simulation;
+        return new BooleanSupplier()
+            {
+                public boolean getAsBoolean()
+                {
+                    return target.isSimulationStable();
+                }
+            };
+    }
+
+    private static void place(boolean[][] cells, int[][] pattern)
+    {
+        int centre = cells.length / 2;
+        for (int[] cell : pattern)
+            cells[centre + cell[1]][centre + cell[0]] = true;
+    }
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long <code>FileManager</code> takes to load and save
+ * files in every format across board sizes and densities.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector",
+    "-Xmx4g"})
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+public class FileBenchmark
+{
+    // instance fields
+    private File file;
+    @Param({"binary", "text", "rle", "life-1.06"})
+    private String format;
+    private Supplier<?> loadSimulation;
+    @Param({"empty", "random-10", "random-50"})
+    private String pattern;
+    private BooleanSupplier saveSimulation;
+    @Param({"64", "512", "2048", "8192"})
+    private int size;
+
+    /*
+     * methods
+     */
+
+    /**
+     * Saves the board to a temporary file, which both benchmarks use.
+     *
+     * @throws IOException if the temporary file could not be created
+     */
+    @Setup(Level.Trial)
+    public void createFile() throws IOException
+    {
+        file = File.createTempFile("benchmark", ".gol");
+        Object simulation = Targets.call("createSimulation", "scalar",
+            pattern, size);
+        loadSimulation = (Supplier<?>)Targets.call("loadSimulation", file);
+        saveSimulation = (BooleanSupplier)Targets.call("saveSimulation", file,
+            simulation, format);
+        if (!saveSimulation.getAsBoolean())
+            throw new IOException("Failed to save " + file);
+    }
+
+    /**
+     * Deletes the temporary file.
+     */
+    @TearDown(Level.Trial)
+    public void deleteFile()
+    {
+        file.delete();
+    }
+
+    /**
+     * Loads the board.
+     *
+     * @return the loaded simulation
+     */
+    @Benchmark
+    public Object loadSimulation()
+    {
+        return loadSimulation.get();
+    }
+
+    /**
+     * Saves the board.
+     *
+     * @return whether the save succeeded
+     */
+    @Benchmark
+    public boolean saveSimulation()
+    {
+        return saveSimulation.getAsBoolean();
+    }
+}
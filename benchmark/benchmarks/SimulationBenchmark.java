@@ -0,0 +1,88 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many generations per second each engine simulates, and how
+ * fast it tells whether a generation is stable, across board sizes and
+ * densities.
+ * <p>
+ * The board is recreated before every iteration, so every iteration
+ * measures the same stretch of its evolution. Counting neighbours is private
+ * to each engine and is measured as part of both benchmarks;
+ * <code>isSimulationStable</code> counts them without writing the next
+ * generation.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector",
+    "-Xmx4g"})
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+public class SimulationBenchmark
+{
+    // instance fields
+    @Param({"scalar", "parallel", "bit-packed", "hash-life", "sparse"})
+    private String engine;
+    private BooleanSupplier isSimulationStable;
+    private Runnable nextGeneration;
+    @Param({"empty", "random-10", "random-50", "r-pentomino", "acorn",
+        "diehard"})
+    private String pattern;
+    @Param({"64", "512", "2048", "8192"})
+    private int size;
+
+    /*
+     * methods
+     */
+
+    /**
+     * Creates the board to simulate.
+     */
+    @Setup(Level.Iteration)
+    public void createSimulation()
+    {
+        Object simulation = Targets.call("createSimulation", engine, pattern,
+            size);
+        nextGeneration = (Runnable)Targets.call("nextGeneration", simulation);
+        isSimulationStable = (BooleanSupplier)Targets.call(
+            "isSimulationStable", simulation);
+    }
+
+    /**
+     * Checks whether the current generation is stable.
+     *
+     * @return whether the current generation is stable
+     */
+    @Benchmark
+    public boolean isSimulationStable()
+    {
+        return isSimulationStable.getAsBoolean();
+    }
+
+    /**
+     * Simulates the next generation.
+     */
+    @Benchmark
+    public void simulateNextGeneration()
+    {
+        nextGeneration.run();
+    }
+}
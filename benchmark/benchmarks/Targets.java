@@ -0,0 +1,52 @@
+package benchmarks;
+
+import java.lang.reflect.Method;
+
+/**
+ * Calls the methods of <code>BenchmarkTargets</code>, which is in the unnamed
+ * package and so can only be reached by reflection from here.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+final class Targets
+{
+    /*
+     * constructor
+     */
+
+    private Targets()
+    {
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Calls a static method of <code>BenchmarkTargets</code>.
+     *
+     * @param name the name of the method, which must not be overloaded
+     * with the same number of parameters
+     * @param argument the arguments of the method
+     * @return the result of the method
+     * @throws IllegalStateException if the method could not be called
+     */
+    static Object call(String name, Object... argument)
+    {
+        try
+        {
+            for (Method method :
+                Class.forName("BenchmarkTargets").getMethods())
+                if (method.getName().equals(name)
+                    && method.getParameterCount() == argument.length)
+                    return method.invoke(null, argument);
+        }
+        catch (ReflectiveOperationException exception)
+        {
+            throw new IllegalStateException(name, exception);
+        }
+
+        throw new IllegalStateException("No such method: " + name);
+    }
+}
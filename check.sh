@@ -0,0 +1,17 @@
+#!/bin/bash
+# Runs the conformance checks in check/, once with the Vector API module, so
+# that the SIMD kernel is checked, and once without it, so that the
+# cell-by-cell loop is. Exits with status 1 if any check failed.
+CLASSDIR="build/check"
+
+cd "$(dirname "$0")"
+mkdir -p $CLASSDIR
+javac --add-modules jdk.incubator.vector -d $CLASSDIR \
+    $(find src/ check/ -name "*.java" -type f) || exit 1
+STATUS=0
+for CLASS in $(cd check && ls *.java | sed 's/\.java$//'); do
+    java --add-modules jdk.incubator.vector -cp $CLASSDIR $CLASS || STATUS=1
+    java -cp $CLASSDIR $CLASS || STATUS=1
+done
+rm -rf $CLASSDIR
+exit $STATUS
@@ -0,0 +1,223 @@
+import java.util.Random;
+
+/**
+ * Checks that <code>GameOfLife</code> and <code>ParallelGameOfLife</code>
+ * treat the cells outside of the grid as each <code>Boundary</code> says.
+ * <p>
+ * Every board is simulated for a number of generations next to a naive
+ * reference, which looks each neighbour up through the boundary with no halo,
+ * and the cells are compared after every generation. The boards are a
+ * blinker across the left and right edges, one across the top and bottom
+ * edges, a glider travelling through a corner and a random soup, each in
+ * Conway's Game of Life and in HighLife. Prints a line per check and exits
+ * with status 1 if any failed.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class BoundaryCheck
+{
+    // class fields
+    private static final int GENERATIONS = 200;
+    private static final int[][] GLIDER =
+        {{1, 0}, {2, 1}, {0, 2}, {1, 2}, {2, 2}};
+    private static final int PARALLELISM = 4;
+    private static final Rule[] RULES =
+        {Rule.CONWAY, new Rule("B36/S23")};
+    private static final long SEED = 20150423;
+
+    /*
+     * constructor
+     */
+
+    private BoundaryCheck()
+    {
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Runs every check.
+     *
+     * @param args ignored
+     */
+    public static void main(String[] args)
+    {
+        int failures = 0;
+        for (Boundary boundary : Boundary.values())
+        {
+            for (Rule rule : RULES)
+            {
+                failures += check("horizontal blinker", createBlinker(12, 9,
+                    true), boundary, rule);
+                failures += check("vertical blinker", createBlinker(9, 12,
+                    false), boundary, rule);
+                failures += check("glider", createGlider(16, 11), boundary,
+                    rule);
+                failures += check("random soup", createSoup(37, 23), boundary,
+                    rule);
+                failures += check("tall random soup", createSoup(16, 4096),
+                    boundary, rule);
+            }
+        }
+
+        System.out.println(failures == 0 ? "All checks passed."
+            : failures + " checks failed.");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    /*
+     * Checks both engines on a board; returns the number which failed.
+     */
+    private static int check(String name, boolean[][] cells,
+        Boundary boundary, Rule rule)
+    {
+        GameOfLife scalar = new GameOfLife(cells, 1, rule);
+        GameOfLife parallel = new ParallelGameOfLife(cells, 1, rule,
+            PARALLELISM);
+
+        int failures = 0;
+        failures += check("scalar", name, scalar, cells, boundary, rule);
+        failures += check("parallel", name, parallel, cells, boundary, rule);
+        return failures;
+    }
+
+    /*
+     * Simulates a board next to the reference and reports the first
+     * generation on which they differ; returns 1 if they did.
+     */
+    private static int check(String engine, String name,
+        GameOfLife simulation, boolean[][] cells, Boundary boundary,
+        Rule rule)
+    {
+        simulation.setBoundary(boundary);
+        boolean[][] expected = cells;
+        for (int generation = 2; generation <= GENERATIONS + 1; generation++)
+        {
+            simulation.simulateNextGeneration();
+            expected = simulateReference(expected, boundary, rule);
+            boolean[][] actual = simulation.getCells();
+            for (int y = 0; y < expected.length; y++)
+            {
+                for (int x = 0; x < expected[0].length; x++)
+                {
+                    if (actual[y][x] != expected[y][x])
+                    {
+                        System.out.println("FAIL " + boundary + " " + rule
+                            + " " + engine + " " + name + ": generation "
+                            + generation + ", cell (" + x + ", " + y + ")");
+                        return 1;
+                    }
+                }
+            }
+        }
+
+        System.out.println("PASS " + boundary + " " + rule + " " + engine
+            + " " + name);
+        return 0;
+    }
+
+    /*
+     * Returns a board with a blinker lying across two opposite edges: its
+     * middle cell is on the first column (or row), one end on the second
+     * and the other, across the edge, on the last.
+     */
+    private static boolean[][] createBlinker(int width, int height,
+        boolean isHorizontal)
+    {
+        boolean[][] cells = new boolean[height][width];
+        if (isHorizontal)
+        {
+            cells[height / 2][width - 1] = true;
+            cells[height / 2][0] = true;
+            cells[height / 2][1] = true;
+        }
+        else
+        {
+            cells[height - 1][width / 2] = true;
+            cells[0][width / 2] = true;
+            cells[1][width / 2] = true;
+        }
+
+        return cells;
+    }
+
+    /*
+     * Returns a board with a glider heading for its bottom-right corner.
+     */
+    private static boolean[][] createGlider(int width, int height)
+    {
+        boolean[][] cells = new boolean[height][width];
+        for (int[] cell : GLIDER)
+            cells[height - 5 + cell[1]][width - 5 + cell[0]] = true;
+
+        return cells;
+    }
+
+    private static boolean[][] createSoup(int width, int height)
+    {
+        boolean[][] cells = new boolean[height][width];
+        Random random = new Random(SEED);
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                cells[y][x] = random.nextInt(3) == 0;
+
+        return cells;
+    }
+
+    /*
+     * Returns the state of a cell, looking through the boundary if the
+     * coordinate is just outside of the board.
+     */
+    private static boolean isAlive(boolean[][] cells, int x, int y,
+        Boundary boundary)
+    {
+        int width = cells[0].length;
+        int height = cells.length;
+        if (boundary == Boundary.TORUS)
+        {
+            x = Math.floorMod(x, width);
+            y = Math.floorMod(y, height);
+        }
+        else if (boundary == Boundary.MIRROR)
+        {
+            x = Math.max(0, Math.min(width - 1, x));
+            y = Math.max(0, Math.min(height - 1, y));
+        }
+        else if (x < 0 || x >= width || y < 0 || y >= height)
+        {
+            return false;
+        }
+
+        return cells[y][x];
+    }
+
+    /*
+     * Computes the next generation cell by cell, with no halo.
+     */
+    private static boolean[][] simulateReference(boolean[][] cells,
+        Boundary boundary, Rule rule)
+    {
+        int width = cells[0].length;
+        int height = cells.length;
+        boolean[][] next = new boolean[height][width];
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                int neighbours = 0;
+                for (int dy = -1; dy <= 1; dy++)
+                    for (int dx = -1; dx <= 1; dx++)
+                        if ((dx != 0 || dy != 0)
+                            && isAlive(cells, x + dx, y + dy, boundary))
+                            neighbours++;
+                next[y][x] = cells[y][x] ? rule.survives(neighbours)
+                    : rule.isBorn(neighbours);
+            }
+        }
+
+        return next;
+    }
+}
@@ -0,0 +1,169 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Checks that every <code>Engine</code> saves and loads boards in every file
+ * format without changing them.
+ * <p>
+ * Each board is created by one engine, saved in the binary format, the text
+ * format and each <code>PatternFormat</code>, and loaded back into every
+ * engine, which must give the same width, height and cells, and the
+ * ruleset and generation wherever the format stores them. The boards are
+ * random soups 1, 63, 64 and 65 cells wide, so that rows end exactly on,
+ * just before and just after a word of packed cells, and 70 cells high, so
+ * that they span more than one tile of the binary format. Their corners are
+ * alive, as a Life 1.06 pattern is cut down to its bounding box. Prints a
+ * line per check and exits with status 1 if any failed.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class FormatCheck
+{
+    // class fields
+    private static final String[] FORMATS =
+        {"binary", "text", "rle", "life-1.06"};
+    private static final long GENERATION = 4321;
+    private static final int HEIGHT = 70;
+    private static final Rule RULE = new Rule("B36/S23");
+    private static final long SEED = 20150423;
+    private static final int[] WIDTHS = {1, 63, 64, 65};
+
+    /*
+     * constructor
+     */
+
+    private FormatCheck()
+    {
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Runs every check.
+     *
+     * @param args ignored
+     * @throws IOException if a temporary file could not be created
+     */
+    public static void main(String[] args) throws IOException
+    {
+        File file = File.createTempFile("FormatCheck", ".tmp");
+        file.deleteOnExit();
+        int failures = 0;
+        for (int width : WIDTHS)
+        {
+            boolean[][] cells = createSoup(width, HEIGHT);
+            for (String format : FORMATS)
+            {
+                for (Engine engine : Engine.values())
+                {
+                    Simulation simulation = engine.create(cells, GENERATION,
+                        RULE);
+                    String name = format + " " + width + "x" + HEIGHT
+                        + " from " + engine.getName();
+                    if (!save(file, simulation, format))
+                    {
+                        System.out.println("FAIL " + name + ": not saved");
+                        failures++;
+                        continue;
+                    }
+
+                    for (Engine loader : Engine.values())
+                        failures += check(name + " into " + loader.getName(),
+                            file, loader, format, cells);
+                }
+            }
+        }
+        file.delete();
+
+        System.out.println(failures == 0 ? "All checks passed."
+            : failures + " checks failed.");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    /*
+     * Loads a saved board and compares it with the cells it was created
+     * from; returns 1 if they differ.
+     */
+    private static int check(String name, File file, Engine engine,
+        String format, boolean[][] cells)
+    {
+        boolean isRuleStored = format.equals("binary")
+            || format.equals("rle");
+        boolean isGenerationStored = format.equals("binary")
+            || format.equals("text");
+
+        Simulation simulation;
+        try
+        {
+            simulation = FileManager.readSimulation(file, engine,
+                isRuleStored ? null : RULE);
+        }
+        catch (IOException exception)
+        {
+            System.out.println("FAIL " + name + ": " + exception);
+            return 1;
+        }
+
+        String failure = null;
+        if (simulation.getWidth() != cells[0].length
+            || simulation.getHeight() != cells.length)
+            failure = "size " + simulation.getWidth() + "x"
+                + simulation.getHeight();
+        else if (!simulation.getRule().equals(RULE))
+            failure = "rule " + simulation.getRule();
+        else if (isGenerationStored
+            && simulation.getCurrentGeneration() != GENERATION)
+            failure = "generation " + simulation.getCurrentGeneration();
+
+        for (int y = 0; failure == null && y < cells.length; y++)
+            for (int x = 0; failure == null && x < cells[0].length; x++)
+                if (simulation.isCellAlive(x, y) != cells[y][x])
+                    failure = "cell (" + x + ", " + y + ")";
+
+        if (failure != null)
+        {
+            System.out.println("FAIL " + name + ": " + failure);
+            return 1;
+        }
+
+        System.out.println("PASS " + name);
+        return 0;
+    }
+
+    /*
+     * Returns a random board with its four corners alive.
+     */
+    private static boolean[][] createSoup(int width, int height)
+    {
+        boolean[][] cells = new boolean[height][width];
+        Random random = new Random(SEED + width);
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                cells[y][x] = random.nextInt(3) == 0;
+        cells[0][0] = true;
+        cells[0][width - 1] = true;
+        cells[height - 1][0] = true;
+        cells[height - 1][width - 1] = true;
+
+        return cells;
+    }
+
+    /*
+     * Saves a simulation in a format; returns true if it was saved.
+     */
+    private static boolean save(File file, Simulation simulation,
+        String format)
+    {
+        if (format.equals("binary"))
+            return FileManager.saveSimulation(file, simulation);
+        else if (format.equals("text"))
+            return FileManager.saveTextSimulation(file, simulation);
+
+        return FileManager.savePattern(file, simulation,
+            PatternFormat.forName(format));
+    }
+}
@@ -0,0 +1,189 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks that <code>History</code> rebuilds every generation it recorded
+ * as it was simulated.
+ * <p>
+ * A random soup is simulated for several times
+ * <code>MAXIMUM_KEYFRAME_INTERVAL</code> generations and recorded in a
+ * <code>History</code>, skipping a generation now and then, and every
+ * generation is then seeked to and compared with a copy taken while it was
+ * simulated. The run is then stepped back to the middle of the generations
+ * recorded, and to the one just after the oldest, which is always a
+ * keyframe, changed and simulated again, so that the later generations are
+ * forgotten and recorded anew. Each run is recorded from the cells which
+ * changed and by comparing every row, with no memory budget to speak of and
+ * with one which only holds a few hundred generations of a busy soup, so
+ * that the oldest are forgotten. Prints a line per
+ * check and exits with status 1 if any failed.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class HistoryCheck
+{
+    // class fields
+    private static final int GENERATIONS = 4
+        * History.MAXIMUM_KEYFRAME_INTERVAL + 100;
+    private static final int HEIGHT = 67;
+    private static final long MEMORY_BUDGET = 1 << 18;
+    private static final long SEED = 20150423;
+    private static final int SKIPPED_INTERVAL = 333;
+    private static final int WIDTH = 97;
+
+    /*
+     * constructor
+     */
+
+    private HistoryCheck()
+    {
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Runs every check.
+     *
+     * @param args ignored
+     */
+    public static void main(String[] args)
+    {
+        int failures = 0;
+        for (boolean isTracking : new boolean[] {true, false})
+        {
+            failures += check(isTracking, Long.MAX_VALUE);
+            failures += check(isTracking, MEMORY_BUDGET);
+        }
+
+        System.out.println(failures == 0 ? "All checks passed."
+            : failures + " checks failed.");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    /*
+     * Records a run, steps it back and records it again, seeking to every
+     * generation after each; returns the number of checks which failed.
+     */
+    private static int check(boolean isTracking, long memoryBudget)
+    {
+        String name = (isTracking ? "changed cells" : "every row")
+            + (memoryBudget == Long.MAX_VALUE ? ", unlimited"
+            : ", " + memoryBudget + " bytes");
+        ChangeTrackingSimulation simulation = (ChangeTrackingSimulation)
+            Engine.BIT_PACKED.create(createSoup(WIDTH, HEIGHT), 1,
+            Rule.CONWAY);
+        simulation.setChangeTracking(isTracking);
+        History history = new History(WIDTH, HEIGHT, memoryBudget);
+        long[][] expected = new long[GENERATIONS + 1][];
+
+        expected[1] = Snapshot.copyCells(simulation);
+        history.record(simulation);
+        simulate(simulation, history, expected, GENERATIONS);
+        int failures = verify(name, history, expected);
+
+        for (int i = 0; i < 2; i++)
+        {
+            int index = (int)(i == 0 ? (history.getFirstGeneration()
+                + history.getLastGeneration()) / 2
+                : history.getFirstGeneration() + 1);
+            if (expected[index] == null)
+                index--;
+            simulation = (ChangeTrackingSimulation)Engine.BIT_PACKED.create(
+                expected[index], WIDTH, HEIGHT, index, Rule.CONWAY);
+            simulation.setChangeTracking(isTracking);
+            simulation.setCellState(WIDTH / 2, HEIGHT / 2,
+                !simulation.isCellAlive(WIDTH / 2, HEIGHT / 2));
+            Arrays.fill(expected, index, expected.length, null);
+
+            expected[index] = Snapshot.copyCells(simulation);
+            history.record(simulation);
+            simulate(simulation, history, expected,
+                Math.min(GENERATIONS, index + GENERATIONS / 4));
+            failures += verify(name + ", stepped back to " + index, history,
+                expected);
+        }
+
+        return failures;
+    }
+
+    private static boolean[][] createSoup(int width, int height)
+    {
+        boolean[][] cells = new boolean[height][width];
+        Random random = new Random(SEED);
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                cells[y][x] = random.nextInt(3) == 0;
+
+        return cells;
+    }
+
+    /*
+     * Simulates up to a generation, recording each one but those on
+     * SKIPPED_INTERVAL and keeping a copy of what was recorded.
+     */
+    private static void simulate(ChangeTrackingSimulation simulation,
+        History history, long[][] expected, long lastGeneration)
+    {
+        while (simulation.getCurrentGeneration() < lastGeneration)
+        {
+            simulation.simulateNextGeneration();
+            long generation = simulation.getCurrentGeneration();
+            if (generation % SKIPPED_INTERVAL == 0)
+                continue;
+
+            long[] cells = Snapshot.copyCells(simulation);
+            expected[(int)generation] = cells;
+            history.record(generation, cells, simulation.getChanges());
+        }
+    }
+
+    /*
+     * Seeks to every generation and reports the first one which was
+     * rebuilt wrongly, or which is recorded when it should not be or the
+     * other way around; returns 1 if there was one.
+     */
+    private static int verify(String name, History history,
+        long[][] expected)
+    {
+        long firstGeneration = history.getFirstGeneration();
+        for (int generation = 1; generation < expected.length; generation++)
+        {
+            boolean isExpected = expected[generation] != null
+                && generation >= firstGeneration;
+            String failure = null;
+            if (history.isRecorded(generation) != isExpected)
+            {
+                failure = isExpected ? "not recorded" : "recorded";
+            }
+            else if (isExpected)
+            {
+                Snapshot snapshot = history.seek(generation);
+                if (snapshot.getGeneration() != generation
+                    || !Arrays.equals(snapshot.getCells(),
+                    expected[generation]))
+                    failure = "rebuilt wrongly";
+            }
+
+            if (failure != null)
+            {
+                System.out.println("FAIL " + name + ": generation "
+                    + generation + " " + failure);
+                return 1;
+            }
+        }
+
+        if (firstGeneration == 1 && history.getMemoryBudget()
+            < history.getMemoryUsage())
+        {
+            System.out.println("FAIL " + name + ": nothing forgotten");
+            return 1;
+        }
+
+        System.out.println("PASS " + name + ", generations "
+            + firstGeneration + " to " + history.getLastGeneration());
+        return 0;
+    }
+}
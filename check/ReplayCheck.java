@@ -0,0 +1,216 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks that <code>RunReplay</code> rebuilds every generation which
+ * <code>RunRecorder</code> recorded as it was simulated.
+ * <p>
+ * A random soup is simulated for over two times
+ * <code>KEYFRAME_INTERVAL</code> generations and recorded, skipping a
+ * generation now and then, once from the cells which changed and once by
+ * comparing every row. Every generation is seeked to forwards, backwards
+ * and in a random order, across the keyframes, and compared with a copy
+ * taken while it was simulated; generations which were skipped must not be
+ * found. The log is then cut short at several lengths, as by a crash, and
+ * each cut log must still replay every generation up to its last one. The
+ * soup is 130 cells wide, so that rows end part way through a word, and
+ * starts busy enough for whole rows to be recorded. Prints a line per check
+ * and exits with status 1 if any failed.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class ReplayCheck
+{
+    // class fields
+    private static final int[] CUT_DIVISORS = {1, 4, 2};
+    private static final int GENERATIONS = 2 * RunRecorder.KEYFRAME_INTERVAL
+        + 100;
+    private static final int HEIGHT = 90;
+    private static final int RANDOM_SEEKS = 500;
+    private static final Rule RULE = new Rule("B36/S23");
+    private static final long SEED = 20150423;
+    private static final int SKIPPED_INTERVAL = 700;
+    private static final int WIDTH = 130;
+
+    /*
+     * constructor
+     */
+
+    private ReplayCheck()
+    {
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Runs every check.
+     *
+     * @param args ignored
+     * @throws IOException if a temporary file could not be written
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int failures = 0;
+        for (boolean isTracking : new boolean[] {true, false})
+            failures += check(isTracking);
+
+        System.out.println(failures == 0 ? "All checks passed."
+            : failures + " checks failed.");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    /*
+     * Records a run, then replays the log and copies of it cut short;
+     * returns the number of checks which failed.
+     */
+    private static int check(boolean isTracking) throws IOException
+    {
+        String name = isTracking ? "changed cells" : "every row";
+        ChangeTrackingSimulation simulation = (ChangeTrackingSimulation)
+            Engine.BIT_PACKED.create(createSoup(WIDTH, HEIGHT), 1, RULE);
+        simulation.setChangeTracking(isTracking);
+        long[][] expected = new long[GENERATIONS + 1][];
+        File file = File.createTempFile("ReplayCheck", ".golr");
+        file.deleteOnExit();
+
+        expected[1] = Snapshot.copyCells(simulation);
+        RunRecorder recorder = new RunRecorder(file, simulation);
+        try
+        {
+            while (simulation.getCurrentGeneration() < GENERATIONS)
+            {
+                simulation.simulateNextGeneration();
+                long generation = simulation.getCurrentGeneration();
+                if (generation % SKIPPED_INTERVAL == 0)
+                    continue;
+
+                expected[(int)generation] = Snapshot.copyCells(simulation);
+                recorder.record(simulation, simulation.getChanges());
+            }
+        }
+        finally
+        {
+            recorder.close();
+        }
+
+        int failures = verify(name, file, expected, GENERATIONS);
+
+        // Cuts off the last byte for a divisor of 1, which loses the footer,
+        // so the records must be scanned; the other divisors most likely
+        // cut through a record.
+        byte[] log = Files.readAllBytes(file.toPath());
+        File cutFile = File.createTempFile("ReplayCheck", ".golr");
+        cutFile.deleteOnExit();
+        for (int divisor : CUT_DIVISORS)
+        {
+            int length = divisor == 1 ? log.length - 1 : log.length / divisor;
+            Files.write(cutFile.toPath(), Arrays.copyOf(log, length));
+            failures += verify(name + ", cut to " + length + " bytes",
+                cutFile, expected, divisor == 1 ? GENERATIONS : -1);
+        }
+        file.delete();
+        cutFile.delete();
+
+        return failures;
+    }
+
+    /*
+     * Returns a failure message if a snapshot is not the expected cells of
+     * a generation, which are null if it should not be found.
+     */
+    private static String compare(Snapshot snapshot, long generation,
+        long[] cells)
+    {
+        if (snapshot == null)
+            return cells == null ? null : "not found";
+        else if (cells == null)
+            return "found";
+        else if (snapshot.getGeneration() != generation
+            || !Arrays.equals(snapshot.getCells(), cells))
+            return "rebuilt wrongly";
+
+        return null;
+    }
+
+    private static boolean[][] createSoup(int width, int height)
+    {
+        boolean[][] cells = new boolean[height][width];
+        Random random = new Random(SEED);
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                cells[y][x] = random.nextInt(3) == 0;
+
+        return cells;
+    }
+
+    /*
+     * Replays a log, seeking to every generation forwards, then backwards,
+     * then at random, and reports the first which was rebuilt wrongly or
+     * found when it should not be or the other way around; returns 1 if
+     * there was one. lastGeneration is the generation the log must end on,
+     * or -1 if it is not known.
+     */
+    private static int verify(String name, File file, long[][] expected,
+        long lastGeneration)
+    {
+        String failure = null;
+        long last = -1;
+        try
+        {
+            RunReplay replay = new RunReplay(file);
+            try
+            {
+                last = replay.getLastGeneration();
+                if (replay.getWidth() != WIDTH
+                    || replay.getHeight() != HEIGHT)
+                    failure = "size " + replay.getWidth() + "x"
+                        + replay.getHeight();
+                else if (!replay.getRule().equals(RULE))
+                    failure = "rule " + replay.getRule();
+                else if (replay.getFirstGeneration() != 1)
+                    failure = "first generation "
+                        + replay.getFirstGeneration();
+                else if (lastGeneration != -1 && last != lastGeneration)
+                    failure = "last generation " + last;
+
+                int seeks = 2 * expected.length + RANDOM_SEEKS;
+                Random random = new Random(SEED);
+                for (int i = 0; failure == null && i < seeks; i++)
+                {
+                    int generation = i < expected.length ? i
+                        : i < 2 * expected.length
+                        ? 2 * expected.length - 1 - i
+                        : 1 + random.nextInt(expected.length - 1);
+                    failure = compare(replay.seek(generation), generation,
+                        generation <= last ? expected[generation] : null);
+                    if (failure != null)
+                        failure = "generation " + generation + " "
+                            + failure;
+                }
+            }
+            finally
+            {
+                replay.close();
+            }
+        }
+        catch (IOException exception)
+        {
+            failure = exception.toString();
+        }
+
+        if (failure != null)
+        {
+            System.out.println("FAIL " + name + ": " + failure);
+            return 1;
+        }
+
+        System.out.println("PASS " + name + ", generations 1 to " + last);
+        return 0;
+    }
+}
@@ -0,0 +1,721 @@
+import java.util.Arrays;
+
+/**
+ * A simulation of Conway's Game of Life which packs 64 cells into every
+ * <code>long</code> and computes a whole word of the next generation at once
+ * using bit-parallel adder logic. Other Life-like rulesets are supported
+ * through a slower, general path.
+ * <p>
+ * Every row is stored as <code>(width + 63) / 64</code> words, bit
+ * <code>x % 64</code> of word <code>x / 64</code> representing the cell at
+ * column <code>x</code>. An empty row is kept above and below the grid so
+ * that the first and last rows need no special treatment; cells outside of
+ * the grid are dead, exactly like <code>GameOfLife</code>.
+ * <p>
+ * The grid is also divided into tiles one word wide and 64 rows high, each
+ * remembering whether it changed in the last generation. Only tiles which
+ * changed, or which border a tile that changed, are recomputed; every other
+ * tile already holds the same cells in both buffers and is skipped, so the
+ * cost of a generation follows the activity on the grid.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class BitPackedGameOfLife implements ChangeTrackingSimulation
+{
+    // class fields
+    private static final int BITS_PER_WORD = 64;
+    private static final int LOG_BITS_PER_WORD = 6;
+    private static final int LOG_TILE_HEIGHT = 6;
+    private static final int TILE_HEIGHT = 1 << LOG_TILE_HEIGHT;
+
+    // instance fields
+    private int birthMask;
+    private long[] cells;
+    private boolean[] changedTiles;
+    private ChangeSet changes;
+    private long currentGeneration;
+    private CycleDetector cycleDetector;
+    private long hash;
+    private int height;
+    private boolean isConway;
+    private long lastWordMask;
+    private long[] nextCells;
+    private boolean[] nextChangedTiles;
+    private Rule rule;
+    private int survivalMask;
+    private int tileRows;
+    private int tileStride;
+    private int width;
+    private int wordsPerRow;
+
+    /*
+     * constructors
+     */
+
+    /**
+     * Creates a <code>BitPackedGameOfLife</code> of the specified size with
+     * every cell dead.
+     *
+     * @param width the width of the grid; must be greater than 0
+     * @param height the height of the grid; must be greater than 0
+     */
+    public BitPackedGameOfLife(int width, int height)
+    {
+        this(width, height, Rule.CONWAY);
+    }
+
+    /**
+     * Creates a <code>BitPackedGameOfLife</code> of the specified size with
+     * every cell dead, with the specified ruleset.
+     *
+     * @param width the width of the grid; must be greater than 0
+     * @param height the height of the grid; must be greater than 0
+     * @param rule the ruleset to simulate with
+     */
+    public BitPackedGameOfLife(int width, int height, Rule rule)
+    {
+        if (width <= 0 || height <= 0)
+        {
+            width = GameOfLife.DEFAULT_CELL_CONFIGURATION[0].length;
+            height = GameOfLife.DEFAULT_CELL_CONFIGURATION.length;
+        }
+
+        currentGeneration = 1;
+        setRule(rule);
+        allocate(width, height);
+        initializeCycleDetection();
+    }
+
+    /**
+     * Creates a <code>BitPackedGameOfLife</code> with specified cell
+     * configuration.
+     *
+     * @param cells the configuration of the cells in the first generation;
+     * must be an array of rows (i.e. the second level array represents a row)
+     * every row must be the same size as each other (i.e. the configuration
+     * must be a rectangle). <code>true</code> represents an alive cell,
+     * <code>false</code> represents a dead cell
+     */
+    public BitPackedGameOfLife(boolean[][] cells)
+    {
+        this(cells, 1);
+    }
+
+    /**
+     * Creates a <code>BitPackedGameOfLife</code> with specified cell
+     * configuration.
+     *
+     * @param cells the configuration of the cells in the first generation;
+     * must be an array of rows (i.e. the second level array represents a row)
+     * every row must be the same size as each other (i.e. the configuration
+     * must be a rectangle). <code>true</code> represents an alive cell,
+     * <code>false</code> represents a dead cell
+     * @param currentGeneration the generation which this
+     * <code>BitPackedGameOfLife</code> is currently on; must be greater than 0
+     */
+    public BitPackedGameOfLife(boolean[][] cells, long currentGeneration)
+    {
+        this(cells, currentGeneration, Rule.CONWAY);
+    }
+
+    /**
+     * Creates a <code>BitPackedGameOfLife</code> with specified cell
+     * configuration and ruleset.
+     *
+     * @param cells the configuration of the cells in the first generation;
+     * see <code>GameOfLife(boolean[][], long)</code>
+     * @param currentGeneration the generation which this
+     * <code>BitPackedGameOfLife</code> is currently on; must be greater than 0
+     * @param rule the ruleset to simulate with
+     */
+    public BitPackedGameOfLife(boolean[][] cells, long currentGeneration,
+        Rule rule)
+    {
+        for (int y = 1; y < cells.length; y++)
+        {
+            if (cells[y].length != cells[0].length)
+            {
+                cells = GameOfLife.DEFAULT_CELL_CONFIGURATION;
+                break;
+            }
+        }
+
+        allocate(cells[0].length, cells.length);
+        setRule(rule);
+        this.currentGeneration = currentGeneration > 0 ? currentGeneration : 1;
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                if (cells[y][x])
+                    this.cells[wordIndex(x, y)] |= 1L << x;
+        initializeCycleDetection();
+    }
+
+    /**
+     * Creates a <code>BitPackedGameOfLife</code> from cells which are already
+     * packed 64 to a <code>long</code>, row by row, in the layout of
+     * <code>Snapshot</code>; the rows are copied straight into the grid.
+     *
+     * @param cells the configuration of the cells in the first generation,
+     * <code>(width + 63) / 64</code> words per row
+     * @param width the width of the grid; must be greater than 0
+     * @param height the height of the grid; must be greater than 0
+     * @param currentGeneration the generation which this
+     * <code>BitPackedGameOfLife</code> is currently on; must be greater than 0
+     * @param rule the ruleset to simulate with
+     */
+    public BitPackedGameOfLife(long[] cells, int width, int height,
+        long currentGeneration, Rule rule)
+    {
+        allocate(width, height);
+        setRule(rule);
+        this.currentGeneration = currentGeneration > 0 ? currentGeneration : 1;
+        System.arraycopy(cells, 0, this.cells, wordsPerRow,
+            wordsPerRow * height);
+        for (int y = 0; y < height; y++)
+            this.cells[wordIndex(width - 1, y)] &= lastWordMask;
+        initializeCycleDetection();
+    }
+
+    /*
+     * accessors
+     */
+
+    /*
+     * Returns a copy of the cells packed as by Snapshot, i.e. without the
+     * empty rows above and below the grid.
+     */
+    long[] copyPackedCells()
+    {
+        return Arrays.copyOfRange(cells, wordsPerRow,
+            wordsPerRow * (height + 1));
+    }
+
+    /*
+     * Copies the words of one row into row.
+     */
+    void copyPackedRow(int y, long[] row)
+    {
+        System.arraycopy(cells, wordIndex(0, y), row, 0, wordsPerRow);
+    }
+
+    /**
+     * Returns a copy of the current cell configuration.
+     *
+     * @return the current cell configuration, as an array of rows
+     */
+    public boolean[][] getCells()
+    {
+        boolean[][] copy = new boolean[height][width];
+
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                copy[y][x] = isCellAlive(x, y);
+
+        return copy;
+    }
+
+    /**
+     * Returns the cells which changed during the last generation simulated.
+     * The same <code>ChangeSet</code> is refilled by every generation, so it
+     * must be read before the next one. Cells changed with
+     * <code>setCellState</code> are not included.
+     *
+     * @return the cells which changed during the last generation;
+     * <code>null</code> if changes are not being tracked
+     */
+    public ChangeSet getChanges()
+    {
+        return changes;
+    }
+
+    /**
+     * Returns the generation which this <code>BitPackedGameOfLife</code> is
+     * currently on.
+     *
+     * @return the generation which this <code>BitPackedGameOfLife</code> is
+     * currently on
+     */
+    public long getCurrentGeneration()
+    {
+        return currentGeneration;
+    }
+
+    /**
+     * Returns the <code>CycleDetector</code> which follows this
+     * <code>BitPackedGameOfLife</code>, from which it can be told whether the
+     * simulation is stable, oscillating or still evolving.
+     *
+     * @return the <code>CycleDetector</code> which follows this
+     * <code>BitPackedGameOfLife</code>
+     */
+    public CycleDetector getCycleDetector()
+    {
+        return cycleDetector;
+    }
+
+    /**
+     * Returns the height of the grid.
+     *
+     * @return the height of the grid
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Returns the ruleset this <code>BitPackedGameOfLife</code> simulates
+     * with.
+     *
+     * @return the ruleset this <code>BitPackedGameOfLife</code> simulates
+     * with
+     */
+    public Rule getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Returns the hash of the current cell configuration. It is updated as
+     * words change, so it costs nothing to read.
+     *
+     * @return the hash of the current cell configuration
+     */
+    public long getStateHash()
+    {
+        return hash;
+    }
+
+    /**
+     * Returns the width of the grid.
+     *
+     * @return the width of the grid
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Returns whether a cell is alive or not at the specified coordinate.
+     *
+     * @param x the x-coordinate of the cell that is being checked
+     * @param y the y-coordinate of the cell that is being checked
+     * @return <code>true</code> if the cell is alive, <code>false</code> if
+     * the cell is dead or the coordinate is out of bounds
+     */
+    public boolean isCellAlive(int x, int y)
+    {
+        if (isCoordinateInBounds(x, y))
+            return (cells[wordIndex(x, y)] & (1L << x)) != 0;
+        else
+            return false;
+    }
+
+    /**
+     * Returns a string representation of this
+     * <code>BitPackedGameOfLife</code>.
+     *
+     * @return a string representation of this <code>BitPackedGameOfLife</code>
+     */
+    public String toString()
+    {
+        return
+            getClass().getName()
+            + "["
+            + "currentGeneration: " + currentGeneration
+            + ", height: " + height
+            + ", rule: " + rule
+            + ", width: " + width
+            + ", wordsPerRow: " + wordsPerRow
+            + "]";
+    }
+
+    /*
+     * mutators
+     */
+
+    /**
+     * Sets whether the cells which change during each generation are
+     * recorded (see <code>getChanges()</code>). A whole word of changes is
+     * recorded at once, and only for words which changed.
+     *
+     * @param isTracking <code>true</code> to record changes
+     */
+    public void setChangeTracking(boolean isTracking)
+    {
+        if (!isTracking)
+            changes = null;
+        else if (changes == null)
+            changes = new ChangeSet(width, height);
+    }
+
+    /**
+     * Sets a cell at the specified coordinate to the specified state.
+     *
+     * @param x the x-coordinate of the cell whose state is being set
+     * @param y the y-coordinate of the cell whose state is being set
+     * @param state <code>true</code> for alive, <code>false</code> for dead
+     * @return <code>true</code> if the coordinate is within bounds,
+     * <code>false</code> otherwise
+     */
+    public boolean setCellState(int x, int y, boolean state)
+    {
+        if (isCoordinateInBounds(x, y))
+        {
+            int index = wordIndex(x, y);
+            long word = cells[index];
+            if (state)
+                cells[index] |= 1L << x;
+            else
+                cells[index] &= ~(1L << x);
+            if (cells[index] != word)
+            {
+                hash ^= getWordHash(index, word)
+                    ^ getWordHash(index, cells[index]);
+                cycleDetector.reset();
+                cycleDetector.record(currentGeneration, hash);
+            }
+            changedTiles[tileIndex(x >>> LOG_BITS_PER_WORD,
+                y >>> LOG_TILE_HEIGHT)] = true;
+            return true;
+        }
+        else
+        {
+            return false;
+        }
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Returns whether the current generation is stable (i.e.
+     * the next generation will be exactly the same) or not. Only the tiles
+     * next to one which changed are computed, so a stable simulation is
+     * confirmed from its cells at the cost of one check per tile.
+     *
+     * @return <code>true</code> if the current generation is stable,
+     * <code>false</code> if the current generation is not stable
+     */
+    public boolean isSimulationStable()
+    {
+        for (int tileY = 0; tileY < tileRows; tileY++)
+        {
+            for (int i = 0; i < wordsPerRow; i++)
+            {
+                if (!isTileActive(i, tileY))
+                    continue;
+
+                int endY = Math.min(height, (tileY + 1) << LOG_TILE_HEIGHT);
+                for (int y = tileY << LOG_TILE_HEIGHT; y < endY; y++)
+                {
+                    int row = (y + 1) * wordsPerRow;
+                    if (getNextWord(row, i) != cells[row + i])
+                        return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Advances the simulation to the specified generation. Once the
+     * <code>CycleDetector</code> has confirmed a cycle, only the remainder of
+     * the distance modulo the period is simulated.
+     *
+     * @param generation the generation to advance to
+     * @throws IllegalArgumentException if the generation is before the
+     * current generation
+     */
+    public void jumpToGeneration(long generation)
+    {
+        if (generation < currentGeneration)
+            throw new IllegalArgumentException("generation: " + generation);
+
+        while (currentGeneration < generation)
+        {
+            long period = cycleDetector.getPeriod();
+            if (period != 0)
+            {
+                long skipped = (generation - currentGeneration) / period
+                    * period;
+                currentGeneration += skipped;
+                cycleDetector.skip(skipped);
+                simulateGenerations(generation - currentGeneration);
+                return;
+            }
+
+            simulateNextGeneration();
+        }
+    }
+
+    /**
+     * Simulates the specified number of generations by applying the ruleset
+     * repeatedly. No memory is allocated between generations.
+     *
+     * @param generations the number of generations to simulate; nothing is
+     * simulated if it is not greater than 0
+     */
+    public void simulateGenerations(long generations)
+    {
+        for (long i = 0; i < generations; i++)
+            simulateNextGeneration();
+    }
+
+    /**
+     * Simulates the next generation by applying the ruleset.
+     */
+    public void simulateNextGeneration()
+    {
+        StepEvent event = FlightEvents.beginStep();
+        if (changes != null)
+            changes.clear();
+
+        for (int tileY = 0; tileY < tileRows; tileY++)
+        {
+            for (int i = 0; i < wordsPerRow; i++)
+            {
+                boolean hasChanged = false;
+
+                if (isTileActive(i, tileY))
+                {
+                    int endY = Math.min(height,
+                        (tileY + 1) << LOG_TILE_HEIGHT);
+                    for (int y = tileY << LOG_TILE_HEIGHT; y < endY; y++)
+                    {
+                        int row = (y + 1) * wordsPerRow;
+                        long word = cells[row + i];
+                        long nextWord = getNextWord(row, i);
+                        if (nextWord != word)
+                        {
+                            hasChanged = true;
+                            hash ^= getWordHash(row + i, word)
+                                ^ getWordHash(row + i, nextWord);
+                            if (changes != null)
+                                changes.addWord(i, y, word ^ nextWord);
+                        }
+                        nextCells[row + i] = nextWord;
+                    }
+                }
+
+                nextChangedTiles[tileIndex(i, tileY)] = hasChanged;
+            }
+        }
+
+        long[] previousCells = cells;
+        cells = nextCells;
+        nextCells = previousCells;
+        boolean[] previousChangedTiles = changedTiles;
+        changedTiles = nextChangedTiles;
+        nextChangedTiles = previousChangedTiles;
+        currentGeneration++;
+        cycleDetector.record(currentGeneration, hash);
+        if (event != null && event.shouldCommit())
+        {
+            event.generation = currentGeneration;
+            event.width = width;
+            event.height = height;
+            event.changedCells = changes != null ? changes.size() : -1;
+            event.commit();
+        }
+    }
+
+    private long getNextWord(int row, int i)
+    {
+        int up = row - wordsPerRow;
+        int down = row + wordsPerRow;
+        boolean hasPrevious = i > 0;
+        boolean hasNext = i < wordsPerRow - 1;
+
+        long upWord = cells[up + i];
+        long upPrevious = hasPrevious ? cells[up + i - 1] : 0;
+        long upNext = hasNext ? cells[up + i + 1] : 0;
+        long word = cells[row + i];
+        long previous = hasPrevious ? cells[row + i - 1] : 0;
+        long next = hasNext ? cells[row + i + 1] : 0;
+        long downWord = cells[down + i];
+        long downPrevious = hasPrevious ? cells[down + i - 1] : 0;
+        long downNext = hasNext ? cells[down + i + 1] : 0;
+
+        long upLeft = (upWord << 1) | (upPrevious >>> 63);
+        long upRight = (upWord >>> 1) | (upNext << 63);
+        long left = (word << 1) | (previous >>> 63);
+        long right = (word >>> 1) | (next << 63);
+        long downLeft = (downWord << 1) | (downPrevious >>> 63);
+        long downRight = (downWord >>> 1) | (downNext << 63);
+
+        long nextWord = isConway
+            ? getNextWord(upLeft, upWord, upRight, left, word, right,
+                downLeft, downWord, downRight)
+            : getNextWord(upLeft, upWord, upRight, left, word, right,
+                downLeft, downWord, downRight, birthMask, survivalMask);
+
+        return hasNext ? nextWord : nextWord & lastWordMask;
+    }
+
+    /*
+     * Adds the eight neighbour words bit by bit and applies the ruleset. The
+     * three cells above are summed by a full adder, as are the three below,
+     * and the two to the sides by a half adder; the three weight-one sums are
+     * then folded into one more full adder. A cell has two or three
+     * neighbours exactly when one of the four resulting weight-two carries is
+     * set, and the weight-one bit then separates two from three.
+     */
+    private static long getNextWord(long upLeft, long up, long upRight,
+        long left, long alive, long right,
+        long downLeft, long down, long downRight)
+    {
+        long upSum = upLeft ^ up ^ upRight;
+        long upCarry = (upLeft & up) | (upRight & (upLeft ^ up));
+        long downSum = downLeft ^ down ^ downRight;
+        long downCarry = (downLeft & down) | (downRight & (downLeft ^ down));
+        long sideSum = left ^ right;
+        long sideCarry = left & right;
+
+        long ones = upSum ^ downSum ^ sideSum;
+        long onesCarry = (upSum & downSum) | (sideSum & (upSum ^ downSum));
+
+        long anyOf2 = upCarry | downCarry;
+        long bothOf2 = upCarry & downCarry;
+        long anyOfOther2 = sideCarry | onesCarry;
+        long bothOfOther2 = sideCarry & onesCarry;
+        long exactlyOneTwo =
+            (anyOf2 ^ anyOfOther2) & ~bothOf2 & ~bothOfOther2;
+
+        return exactlyOneTwo & (ones | alive);
+    }
+
+    private void allocate(int width, int height)
+    {
+        this.width = width;
+        this.height = height;
+        wordsPerRow = (width + BITS_PER_WORD - 1) >>> LOG_BITS_PER_WORD;
+        lastWordMask = (width & (BITS_PER_WORD - 1)) == 0
+            ? -1L
+            : (1L << (width & (BITS_PER_WORD - 1))) - 1;
+        cells = new long[(height + 2) * wordsPerRow];
+        nextCells = new long[(height + 2) * wordsPerRow];
+
+        tileRows = (height + TILE_HEIGHT - 1) >>> LOG_TILE_HEIGHT;
+        tileStride = wordsPerRow + 2;
+        changedTiles = new boolean[(tileRows + 2) * tileStride];
+        nextChangedTiles = new boolean[(tileRows + 2) * tileStride];
+        for (int tileY = 0; tileY < tileRows; tileY++)
+            for (int i = 0; i < wordsPerRow; i++)
+                changedTiles[tileIndex(i, tileY)] = true;
+    }
+
+    private static long getWordHash(int index, long word)
+    {
+        return CycleDetector.mix(word ^ CycleDetector.mix(index));
+    }
+
+    private void initializeCycleDetection()
+    {
+        hash = 0;
+        for (int i = 0; i < cells.length; i++)
+            hash ^= getWordHash(i, cells[i]);
+
+        cycleDetector = new CycleDetector();
+        cycleDetector.record(currentGeneration, hash);
+    }
+
+    /*
+     * Adds the eight neighbour words into a four-bit count per cell and
+     * applies any ruleset, one neighbour count at a time.
+     */
+    private static long getNextWord(long upLeft, long up, long upRight,
+        long left, long alive, long right,
+        long downLeft, long down, long downRight,
+        int birthMask, int survivalMask)
+    {
+        long upSum = upLeft ^ up ^ upRight;
+        long upCarry = (upLeft & up) | (upRight & (upLeft ^ up));
+        long downSum = downLeft ^ down ^ downRight;
+        long downCarry = (downLeft & down) | (downRight & (downLeft ^ down));
+        long sideSum = left ^ right;
+        long sideCarry = left & right;
+
+        long ones = upSum ^ downSum ^ sideSum;
+        long onesCarry = (upSum & downSum) | (sideSum & (upSum ^ downSum));
+
+        long upDownSum = upCarry ^ downCarry;
+        long upDownCarry = upCarry & downCarry;
+        long otherSum = sideCarry ^ onesCarry;
+        long otherCarry = sideCarry & onesCarry;
+        long twos = upDownSum ^ otherSum;
+        long twosCarry = upDownSum & otherSum;
+        long fours = upDownCarry ^ otherCarry ^ twosCarry;
+        long eights = upDownCarry & otherCarry;
+
+        long nextWord = 0;
+        for (int neighbours = 0; neighbours <= 8; neighbours++)
+        {
+            int outcomes = ((birthMask >>> neighbours) & 1)
+                | (((survivalMask >>> neighbours) & 1) << 1);
+            if (outcomes == 0)
+                continue;
+
+            long matches =
+                ((neighbours & 1) != 0 ? ones : ~ones)
+                & ((neighbours & 2) != 0 ? twos : ~twos)
+                & ((neighbours & 4) != 0 ? fours : ~fours)
+                & ((neighbours & 8) != 0 ? eights : ~eights);
+            if (outcomes == 1)
+                matches &= ~alive;
+            else if (outcomes == 2)
+                matches &= alive;
+            nextWord |= matches;
+        }
+
+        return nextWord;
+    }
+
+    private boolean isCoordinateInBounds(int x, int y)
+    {
+        if (x < 0 || x >= width || y < 0 || y >= height)
+            return false;
+
+        return true;
+    }
+
+    /*
+     * Returns whether the tile or any of the eight tiles around it changed in
+     * the last generation. The border of the tile flags is never set.
+     */
+    private boolean isTileActive(int tileX, int tileY)
+    {
+        int above = tileIndex(tileX, tileY) - tileStride;
+        int tile = above + tileStride;
+        int below = tile + tileStride;
+
+        return
+            changedTiles[above - 1] | changedTiles[above]
+            | changedTiles[above + 1] | changedTiles[tile - 1]
+            | changedTiles[tile] | changedTiles[tile + 1]
+            | changedTiles[below - 1] | changedTiles[below]
+            | changedTiles[below + 1];
+    }
+
+    private void setRule(Rule rule)
+    {
+        this.rule = rule;
+        isConway = rule.equals(Rule.CONWAY);
+        birthMask = rule.getBirthMask();
+        survivalMask = rule.getSurvivalMask();
+    }
+
+    private int tileIndex(int tileX, int tileY)
+    {
+        return (tileY + 1) * tileStride + tileX + 1;
+    }
+
+    private int wordIndex(int x, int y)
+    {
+        return (y + 1) * wordsPerRow + (x >>> LOG_BITS_PER_WORD);
+    }
+}
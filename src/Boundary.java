@@ -0,0 +1,26 @@
+/**
+ * What a <code>GameOfLife</code> treats the cells just outside of its grid
+ * as.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public enum Boundary
+{
+    /**
+     * Every cell outside of the grid is dead.
+     */
+    DEAD,
+
+    /**
+     * The grid wraps around, so the cell left of the first column is in the
+     * last column and the cell above the first row is in the last row.
+     */
+    TORUS,
+
+    /**
+     * The grid is reflected at its edges, so the cell just outside of an
+     * edge is the same as the cell just inside of it.
+     */
+    MIRROR
+}
@@ -0,0 +1,246 @@
+/**
+ * The set of cells of a grid which changed, e.g. during one generation,
+ * kept as one bit per cell with a flag per row.
+ * <p>
+ * Rows are packed 64 cells to a <code>long</code> in the same layout as
+ * <code>Snapshot</code> and <code>BitPackedGameOfLife</code>, and the flag of
+ * a row is set when any of its cells is added. Clearing and iterating only
+ * visit the flagged rows, so their cost grows with the number of changed
+ * rows rather than with the size of the grid. Different rows may be added to
+ * by different threads at the same time.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class ChangeSet
+{
+    // instance fields
+    private long[] cells;
+    private int height;
+    private boolean[] isRowChanged;
+    private int width;
+    private int wordsPerRow;
+
+    /*
+     * constructor
+     */
+
+    /**
+     * Creates an empty <code>ChangeSet</code> for a grid of the specified
+     * size.
+     *
+     * @param width the width of the grid
+     * @param height the height of the grid
+     */
+    public ChangeSet(int width, int height)
+    {
+        this.width = width;
+        this.height = height;
+        wordsPerRow = (width + Long.SIZE - 1) >>> 6;
+        cells = new long[wordsPerRow * height];
+        isRowChanged = new boolean[height];
+    }
+
+    /*
+     * accessors
+     */
+
+    /*
+     * Copies the words of one row into row, packed as by Snapshot.
+     */
+    void copyRow(int y, long[] row)
+    {
+        System.arraycopy(cells, y * wordsPerRow, row, 0, wordsPerRow);
+    }
+
+    /**
+     * Returns the height of the grid.
+     *
+     * @return the height of the grid
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Returns the width of the grid.
+     *
+     * @return the width of the grid
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Returns the changed cells as indices <code>y * width + x</code>, in
+     * order.
+     *
+     * @return the indices of the changed cells
+     */
+    public int[] getIndices()
+    {
+        int[] indices = new int[size()];
+        int i = 0;
+        for (int y = nextChangedRow(0); y != -1; y = nextChangedRow(y + 1))
+            for (int x = nextChangedCell(0, y); x != -1;
+                x = nextChangedCell(x + 1, y))
+                indices[i++] = y * width + x;
+
+        return indices;
+    }
+
+    /**
+     * Returns whether a cell has changed.
+     *
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return <code>true</code> if the cell is in this
+     * <code>ChangeSet</code>
+     */
+    public boolean isChanged(int x, int y)
+    {
+        return (cells[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Returns the x-coordinate of the first changed cell in a row at or
+     * after the specified x-coordinate.
+     *
+     * @param x the x-coordinate to start looking at
+     * @param y the row to look in
+     * @return the x-coordinate of the changed cell; -1 if there is none
+     */
+    public int nextChangedCell(int x, int y)
+    {
+        if (x >= width || !isRowChanged[y])
+            return -1;
+
+        int i = x >>> 6;
+        int row = y * wordsPerRow;
+        long word = cells[row + i] & (-1L << x);
+        while (word == 0)
+        {
+            if (++i == wordsPerRow)
+                return -1;
+            word = cells[row + i];
+        }
+
+        return (i << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Returns the first row at or after the specified row which has a
+     * changed cell.
+     *
+     * @param y the row to start looking at
+     * @return the row; -1 if there is none
+     */
+    public int nextChangedRow(int y)
+    {
+        for (; y < height; y++)
+            if (isRowChanged[y])
+                return y;
+
+        return -1;
+    }
+
+    /**
+     * Returns the number of changed cells.
+     *
+     * @return the number of changed cells
+     */
+    public int size()
+    {
+        int size = 0;
+        for (int y = 0; y < height; y++)
+            if (isRowChanged[y])
+                for (int i = y * wordsPerRow; i < (y + 1) * wordsPerRow; i++)
+                    size += Long.bitCount(cells[i]);
+
+        return size;
+    }
+
+    /*
+     * mutators
+     */
+
+    /**
+     * Adds a cell.
+     *
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     */
+    public void add(int x, int y)
+    {
+        cells[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+        isRowChanged[y] = true;
+    }
+
+    /**
+     * Adds every cell of another <code>ChangeSet</code> of the same size.
+     *
+     * @param changes the cells to add
+     */
+    public void addAll(ChangeSet changes)
+    {
+        for (int y = changes.nextChangedRow(0); y != -1;
+            y = changes.nextChangedRow(y + 1))
+        {
+            for (int i = y * wordsPerRow; i < (y + 1) * wordsPerRow; i++)
+                cells[i] |= changes.cells[i];
+            isRowChanged[y] = true;
+        }
+    }
+
+    /**
+     * Adds the cells whose bits are set in a word of 64 cells.
+     *
+     * @param wordX the index of the word within its row, i.e. the
+     * x-coordinate of its first cell divided by 64
+     * @param y the row of the word
+     * @param word the cells to add, with the first cell in the lowest bit
+     */
+    public void addWord(int wordX, int y, long word)
+    {
+        if (word == 0)
+            return;
+
+        cells[y * wordsPerRow + wordX] |= word;
+        isRowChanged[y] = true;
+    }
+
+    /**
+     * Removes every cell.
+     */
+    public void clear()
+    {
+        for (int y = 0; y < height; y++)
+        {
+            if (isRowChanged[y])
+            {
+                for (int i = y * wordsPerRow; i < (y + 1) * wordsPerRow; i++)
+                    cells[i] = 0;
+                isRowChanged[y] = false;
+            }
+        }
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Flips the cells of a grid which are in this <code>ChangeSet</code>.
+     * The grid must be packed like a <code>ChangeSet</code> of its size.
+     *
+     * @param grid the grid to flip the cells of
+     */
+    public void applyTo(long[] grid)
+    {
+        for (int y = nextChangedRow(0); y != -1; y = nextChangedRow(y + 1))
+            for (int i = y * wordsPerRow; i < (y + 1) * wordsPerRow; i++)
+                grid[i] ^= cells[i];
+    }
+}
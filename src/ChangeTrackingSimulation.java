@@ -0,0 +1,29 @@
+/**
+ * A <code>Simulation</code> which can record which cells changed while it
+ * computed a generation, at little cost beyond computing it, so that
+ * renderers and recorders can process only the cells which changed.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public interface ChangeTrackingSimulation extends Simulation
+{
+    /**
+     * Returns the cells which changed during the last generation simulated.
+     * The same <code>ChangeSet</code> is refilled by every generation, so it
+     * must be read before the next one. Cells changed with
+     * <code>setCellState</code> are not included.
+     *
+     * @return the cells which changed during the last generation;
+     * <code>null</code> if changes are not being tracked
+     */
+    ChangeSet getChanges();
+
+    /**
+     * Sets whether the cells which change during each generation are
+     * recorded.
+     *
+     * @param isTracking <code>true</code> to record changes
+     */
+    void setChangeTracking(boolean isTracking);
+}
@@ -0,0 +1,339 @@
+import java.util.Arrays;
+
+/**
+ * Detects when a simulation has become stable or started oscillating, from
+ * the hash of each generation.
+ * <p>
+ * The hashes of the most recent generations are kept in a ring buffer with an
+ * index from hash to generation. When the hash of a new generation was seen
+ * <i>p</i> generations ago, <i>p</i> becomes the candidate period; it is
+ * confirmed once every hash for a whole period has matched the one
+ * <i>p</i> generations before it. Only periods shorter than the history can
+ * be detected. Two different generations may have the same hash, so a
+ * confirmed cycle is only very probably one (a 64-bit hash makes a false
+ * match about as likely as 1 in 2<sup>64</sup> per generation); a caller
+ * which must be certain compares the cells.
+ * <p>
+ * Generations are numbered internally in one sequence which never goes
+ * back, and a reset only moves the start of the generations which count,
+ * so resetting, e.g. after every cell edited, costs nothing however long
+ * the history is.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class CycleDetector
+{
+    // class fields
+    /**
+     * The default number of generations remembered.
+     */
+    public static final int DEFAULT_HISTORY_SIZE = 4096;
+
+    // instance fields
+    private long candidatePeriod;
+    private long firstRecordedGeneration;
+    private long[] generations;
+    private long[] hashes;
+    private int historySize;
+    private long[] indexGenerations;
+    private long[] indexHashes;
+    private int indexSize;
+    private long lastGeneration;
+    private long lastRecordedGeneration;
+    private long matchingGenerations;
+    private long offset;
+
+    /*
+     * constructors
+     */
+
+    /**
+     * Creates a <code>CycleDetector</code> which remembers the default number
+     * of generations (see <code>DEFAULT_HISTORY_SIZE</code> constant).
+     */
+    public CycleDetector()
+    {
+        this(DEFAULT_HISTORY_SIZE);
+    }
+
+    /**
+     * Creates a <code>CycleDetector</code> which remembers the specified
+     * number of generations.
+     *
+     * @param historySize the number of generations remembered; must be
+     * greater than 1
+     */
+    public CycleDetector(int historySize)
+    {
+        this.historySize = Math.max(2, historySize);
+        hashes = new long[this.historySize];
+        generations = new long[this.historySize];
+        indexHashes = new long[Integer.highestOneBit(this.historySize) << 2];
+        indexGenerations = new long[indexHashes.length];
+        Arrays.fill(generations, -1);
+        Arrays.fill(indexGenerations, -1);
+        lastRecordedGeneration = -1;
+        reset();
+    }
+
+    /*
+     * accessors
+     */
+
+    /**
+     * Returns the generation at which the confirmed cycle starts, i.e. the
+     * first generation which is repeated forever.
+     *
+     * @return the generation at which the confirmed cycle starts; -1 if no
+     * cycle has been confirmed
+     */
+    public long getCycleStartGeneration()
+    {
+        if (getStatus() == Status.EVOLVING)
+            return -1;
+
+        return lastGeneration - matchingGenerations + 1 - candidatePeriod;
+    }
+
+    /**
+     * Returns the period of the confirmed cycle.
+     *
+     * @return the period of the confirmed cycle; 0 if no cycle has been
+     * confirmed
+     */
+    public long getPeriod()
+    {
+        return getStatus() == Status.EVOLVING ? 0 : candidatePeriod;
+    }
+
+    /**
+     * Returns whether the simulation is stable, oscillating or still
+     * evolving.
+     *
+     * @return the status of the simulation
+     */
+    public Status getStatus()
+    {
+        if (candidatePeriod == 0 || matchingGenerations < candidatePeriod)
+            return Status.EVOLVING;
+        else if (candidatePeriod == 1)
+            return Status.STABLE;
+        else
+            return Status.OSCILLATING;
+    }
+
+    /**
+     * Returns a string representation of this <code>CycleDetector</code>.
+     *
+     * @return a string representation of this <code>CycleDetector</code>
+     */
+    public String toString()
+    {
+        return
+            getClass().getName()
+            + "["
+            + "status: " + getStatus()
+            + ", period: " + getPeriod()
+            + ", cycleStartGeneration: " + getCycleStartGeneration()
+            + "]";
+    }
+
+    /*
+     * mutators
+     */
+
+    /**
+     * Records the hash of a generation. Generations must be recorded in
+     * order, one at a time.
+     *
+     * @param generation the generation whose hash is recorded
+     * @param hash the hash of the generation
+     */
+    public void record(long generation, long hash)
+    {
+        if (lastGeneration != -1 && generation != lastGeneration + 1)
+            reset();
+        if (lastGeneration == -1)
+        {
+            firstRecordedGeneration = lastRecordedGeneration + 1;
+            offset = generation - firstRecordedGeneration;
+        }
+
+        long recordedGeneration = generation - offset;
+
+        if (candidatePeriod != 0)
+        {
+            if (isHashOf(recordedGeneration - candidatePeriod, hash))
+            {
+                matchingGenerations++;
+            }
+            else
+            {
+                candidatePeriod = 0;
+                matchingGenerations = 0;
+            }
+        }
+
+        if (candidatePeriod == 0)
+        {
+            long previousGeneration = findGeneration(hash);
+            if (previousGeneration != -1)
+            {
+                candidatePeriod = recordedGeneration - previousGeneration;
+                matchingGenerations = 1;
+            }
+        }
+
+        int slot = (int)(recordedGeneration % historySize);
+        hashes[slot] = hash;
+        generations[slot] = recordedGeneration;
+        lastGeneration = generation;
+        lastRecordedGeneration = recordedGeneration;
+        index(recordedGeneration, hash);
+    }
+
+    /**
+     * Forgets every recorded generation, e.g. after cells have been edited.
+     * The generations are not erased but only left out of what counts, so a
+     * reset takes constant time.
+     */
+    public void reset()
+    {
+        lastGeneration = -1;
+        candidatePeriod = 0;
+        matchingGenerations = 0;
+    }
+
+    /**
+     * Moves the last recorded generation forward without recording the
+     * generations in between, which is only valid when a cycle is confirmed
+     * and the number of generations is a multiple of its period.
+     *
+     * @param generations the number of generations skipped
+     * @throws IllegalStateException if no cycle has been confirmed or the
+     * number of generations is not a multiple of its period
+     */
+    public void skip(long generations)
+    {
+        if (getStatus() == Status.EVOLVING
+            || generations % candidatePeriod != 0)
+            throw new IllegalStateException("generations: " + generations);
+
+        offset += generations;
+        lastGeneration += generations;
+        matchingGenerations += generations;
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Scrambles a value so that similar values have unrelated hashes.
+     *
+     * @param value the value to scramble
+     * @return the scrambled value
+     */
+    public static long mix(long value)
+    {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private long findGeneration(long hash)
+    {
+        int mask = indexHashes.length - 1;
+        for (int i = (int)mix(hash) & mask; indexGenerations[i] != -1;
+            i = (i + 1) & mask)
+        {
+            if (indexHashes[i] == hash)
+            {
+                long generation = indexGenerations[i];
+                return isHashOf(generation, hash) ? generation : -1;
+            }
+        }
+
+        return -1;
+    }
+
+    private boolean isHashOf(long generation, long hash)
+    {
+        if (generation < firstRecordedGeneration)
+            return false;
+
+        int slot = (int)(generation % historySize);
+        return generations[slot] == generation && hashes[slot] == hash;
+    }
+
+    /*
+     * Points the index entry for the hash at the generation. Entries of
+     * generations which have left the ring buffer, or were recorded before
+     * the last reset, are only dropped when the index is rebuilt, which
+     * happens whenever it becomes half full.
+     */
+    private void index(long generation, long hash)
+    {
+        int mask = indexHashes.length - 1;
+        int i = (int)mix(hash) & mask;
+        while (indexGenerations[i] != -1 && indexHashes[i] != hash)
+            i = (i + 1) & mask;
+
+        if (indexGenerations[i] == -1)
+            indexSize++;
+        indexHashes[i] = hash;
+        indexGenerations[i] = generation;
+
+        if (indexSize > indexHashes.length >>> 1)
+        {
+            Arrays.fill(indexGenerations, -1);
+            indexSize = 0;
+            for (int slot = 0; slot < historySize; slot++)
+                if (generations[slot] >= firstRecordedGeneration)
+                    reindex(generations[slot], hashes[slot]);
+        }
+    }
+
+    private void reindex(long generation, long hash)
+    {
+        int mask = indexHashes.length - 1;
+        int i = (int)mix(hash) & mask;
+        while (indexGenerations[i] != -1 && indexHashes[i] != hash)
+            i = (i + 1) & mask;
+
+        if (indexGenerations[i] == -1)
+            indexSize++;
+        if (indexGenerations[i] < generation)
+        {
+            indexHashes[i] = hash;
+            indexGenerations[i] = generation;
+        }
+    }
+
+    /*
+     * inner enum
+     */
+
+    /**
+     * The state of a simulation as seen by a <code>CycleDetector</code>.
+     */
+    public enum Status
+    {
+        /**
+         * No cycle has been confirmed yet.
+         */
+        EVOLVING,
+
+        /**
+         * The generations repeat with a period greater than 1.
+         */
+        OSCILLATING,
+
+        /**
+         * Every generation is the same as the one before it.
+         */
+        STABLE
+    }
+}
@@ -0,0 +1,248 @@
+/**
+ * The implementations of <code>Simulation</code> which can be created from a
+ * cell configuration, so that callers can choose one by name.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public enum Engine
+{
+    /**
+     * <code>GameOfLife</code>: one byte per cell, computed cell by cell or
+     * with the Vector API.
+     */
+    SCALAR
+    {
+        public Simulation create(boolean[][] cells, long currentGeneration,
+            Rule rule)
+        {
+            return new GameOfLife(cells, currentGeneration, rule);
+        }
+
+        public Simulation create(int width, int height, Rule rule)
+        {
+            return new GameOfLife(width, height, rule);
+        }
+
+        public Simulation create(long[] cells, int width, int height,
+            long currentGeneration, Rule rule)
+        {
+            return new GameOfLife(cells, width, height, currentGeneration,
+                rule);
+        }
+    },
+
+    /**
+     * <code>ParallelGameOfLife</code>: like <code>SCALAR</code>, with the
+     * rows divided between as many threads as there are processors.
+     */
+    PARALLEL
+    {
+        public Simulation create(boolean[][] cells, long currentGeneration,
+            Rule rule)
+        {
+            return new ParallelGameOfLife(cells, currentGeneration, rule,
+                Runtime.getRuntime().availableProcessors());
+        }
+
+        public Simulation create(int width, int height, Rule rule)
+        {
+            return new ParallelGameOfLife(width, height, rule,
+                Runtime.getRuntime().availableProcessors());
+        }
+
+        public Simulation create(long[] cells, int width, int height,
+            long currentGeneration, Rule rule)
+        {
+            return new ParallelGameOfLife(cells, width, height,
+                currentGeneration, rule,
+                Runtime.getRuntime().availableProcessors());
+        }
+    },
+
+    /**
+     * <code>BitPackedGameOfLife</code>: 64 cells per word, computed a word at
+     * a time.
+     */
+    BIT_PACKED
+    {
+        public Simulation create(boolean[][] cells, long currentGeneration,
+            Rule rule)
+        {
+            return new BitPackedGameOfLife(cells, currentGeneration, rule);
+        }
+
+        public Simulation create(int width, int height, Rule rule)
+        {
+            return new BitPackedGameOfLife(width, height, rule);
+        }
+
+        public Simulation create(long[] cells, int width, int height,
+            long currentGeneration, Rule rule)
+        {
+            return new BitPackedGameOfLife(cells, width, height,
+                currentGeneration, rule);
+        }
+    },
+
+    /**
+     * <code>HashLifeGameOfLife</code>: an unbounded memoized quadtree.
+     */
+    HASH_LIFE
+    {
+        public Simulation create(boolean[][] cells, long currentGeneration,
+            Rule rule)
+        {
+            return new HashLifeGameOfLife(cells, currentGeneration, rule,
+                HashLifeGameOfLife.DEFAULT_MAXIMUM_NODES);
+        }
+
+        public Simulation create(int width, int height, Rule rule)
+        {
+            return new HashLifeGameOfLife(width, height, rule,
+                HashLifeGameOfLife.DEFAULT_MAXIMUM_NODES);
+        }
+
+        public Simulation create(long[] cells, int width, int height,
+            long currentGeneration, Rule rule)
+        {
+            return new HashLifeGameOfLife(cells, width, height,
+                currentGeneration, rule,
+                HashLifeGameOfLife.DEFAULT_MAXIMUM_NODES);
+        }
+    },
+
+    /**
+     * <code>SparseGameOfLife</code>: an unbounded set of alive cells.
+     */
+    SPARSE
+    {
+        public Simulation create(boolean[][] cells, long currentGeneration,
+            Rule rule)
+        {
+            return new SparseGameOfLife(cells, currentGeneration, rule);
+        }
+
+        public Simulation create(int width, int height, Rule rule)
+        {
+            return new SparseGameOfLife(width, height, rule);
+        }
+
+        public Simulation create(long[] cells, int width, int height,
+            long currentGeneration, Rule rule)
+        {
+            return new SparseGameOfLife(cells, width, height,
+                currentGeneration, rule);
+        }
+    };
+
+    /*
+     * accessors
+     */
+
+    /**
+     * Returns the name of this <code>Engine</code> in lower case with words
+     * separated by hyphens (e.g. <code>bit-packed</code>).
+     *
+     * @return the name of this <code>Engine</code>
+     */
+    public String getName()
+    {
+        return name().toLowerCase().replace('_', '-');
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Creates a <code>Simulation</code> of this kind.
+     *
+     * @param cells the configuration of the cells in the first generation;
+     * see <code>GameOfLife(boolean[][], long)</code>
+     * @param currentGeneration the generation which the
+     * <code>Simulation</code> is currently on; must be greater than 0
+     * @param rule the ruleset to simulate with
+     * @return the created <code>Simulation</code>
+     * @throws IllegalArgumentException if this <code>Engine</code> does not
+     * support the ruleset
+     */
+    public abstract Simulation create(boolean[][] cells,
+        long currentGeneration, Rule rule);
+
+    /**
+     * Creates a <code>Simulation</code> of this kind with every cell dead, to
+     * be filled in with <code>setCellState</code>. Every kind builds its
+     * empty grid directly, with no configuration to copy:
+     * <code>SPARSE</code> and <code>HASH_LIFE</code> allocate nothing for
+     * the dead cells, <code>BIT_PACKED</code> a bit per cell and the others
+     * a byte per cell.
+     *
+     * @param width the width of the grid; must be greater than 0
+     * @param height the height of the grid; must be greater than 0
+     * @param rule the ruleset to simulate with
+     * @return the created <code>Simulation</code>
+     * @throws IllegalArgumentException if this <code>Engine</code> does not
+     * support the ruleset
+     */
+    public abstract Simulation create(int width, int height, Rule rule);
+
+    /**
+     * Creates a <code>Simulation</code> of this kind from cells packed 64 to
+     * a <code>long</code>, row by row, in the layout of
+     * <code>Snapshot</code>, without unpacking them into a configuration
+     * first: <code>BIT_PACKED</code> copies the rows straight into its grid,
+     * <code>SCALAR</code> and <code>PARALLEL</code> unpack each word into
+     * theirs, <code>SPARSE</code> visits only the alive cells and
+     * <code>HASH_LIFE</code> builds its quadtree from the words, skipping
+     * empty blocks.
+     *
+     * @param cells the configuration of the cells in the first generation,
+     * <code>(width + 63) / 64</code> words per row
+     * @param width the width of the grid; must be greater than 0
+     * @param height the height of the grid; must be greater than 0
+     * @param currentGeneration the generation which the
+     * <code>Simulation</code> is currently on; must be greater than 0
+     * @param rule the ruleset to simulate with
+     * @return the created <code>Simulation</code>
+     * @throws IllegalArgumentException if this <code>Engine</code> does not
+     * support the ruleset
+     */
+    public abstract Simulation create(long[] cells, int width, int height,
+        long currentGeneration, Rule rule);
+
+    /**
+     * Creates a <code>Simulation</code> of this kind from a
+     * <code>Snapshot</code>, on the generation it is a copy of, e.g. to go
+     * back to a generation rebuilt by a <code>History</code>.
+     *
+     * @param snapshot the configuration of the cells in the first generation
+     * @param rule the ruleset to simulate with
+     * @return the created <code>Simulation</code>
+     * @throws IllegalArgumentException if this <code>Engine</code> does not
+     * support the ruleset
+     */
+    public Simulation create(Snapshot snapshot, Rule rule)
+    {
+        return create(snapshot.getCells(), snapshot.getWidth(),
+            snapshot.getHeight(), snapshot.getGeneration(), rule);
+    }
+
+    /**
+     * Returns the <code>Engine</code> with the specified name, as returned by
+     * <code>getName()</code>. The name is case-insensitive.
+     *
+     * @param name the name of the <code>Engine</code>
+     * @return the <code>Engine</code> with the specified name
+     * @throws IllegalArgumentException if there is no <code>Engine</code>
+     * with the specified name
+     */
+    public static Engine forName(String name)
+    {
+        for (Engine engine : values())
+            if (engine.getName().equalsIgnoreCase(name))
+                return engine;
+
+        throw new IllegalArgumentException("Unknown engine: " + name);
+    }
+}
@@ -0,0 +1,56 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for the loading or saving of a simulation by
+ * <code>FileManager</code>, so a recording shows how long the disk held a
+ * run up. Begun through <code>FlightEvents</code>, and its fields are only
+ * filled in once <code>shouldCommit</code> says it will be recorded.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+@Name("GameOfLife.File")
+@Label("Simulation File")
+@Category({"Game of Life"})
+@Description("The loading or saving of a simulation")
+public class FileEvent extends Event
+{
+    // instance fields
+    /**
+     * The number of bytes read or written; the size of the file.
+     */
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    public long bytes;
+    /**
+     * The generation loaded or saved; -1 if loading failed.
+     */
+    @Label("Generation")
+    public long generation;
+    /**
+     * The height of the board; 0 if loading failed.
+     */
+    @Label("Height")
+    public int height;
+    /**
+     * <code>true</code> if the simulation was saved, <code>false</code> if
+     * it was loaded.
+     */
+    @Label("Is Write")
+    public boolean isWrite;
+    /**
+     * The path of the file.
+     */
+    @Label("Path")
+    public String path;
+    /**
+     * The width of the board; 0 if loading failed.
+     */
+    @Label("Width")
+    public int width;
+}
@@ -0,0 +1,61 @@
+import java.io.IOException;
+
+/**
+ * Thrown when a file being loaded is not valid in its format, with the line
+ * and column at which the problem was found.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class FileFormatException extends IOException
+{
+    // class fields
+    private static final long serialVersionUID = 1L;
+
+    // instance fields
+    private long column;
+    private long line;
+
+    /*
+     * constructor
+     */
+
+    /**
+     * Creates a <code>FileFormatException</code>.
+     *
+     * @param message the problem which was found
+     * @param line the line of the problem, counted from 1
+     * @param column the column of the problem within its line, counted
+     * from 1
+     */
+    public FileFormatException(String message, long line, long column)
+    {
+        super("Line " + line + ", column " + column + ": " + message);
+        this.line = line;
+        this.column = column;
+    }
+
+    /*
+     * accessors
+     */
+
+    /**
+     * Returns the column of the problem within its line, counted from 1.
+     *
+     * @return the column of the problem
+     */
+    public long getColumn()
+    {
+        return column;
+    }
+
+    /**
+     * Returns the line of the problem, counted from 1.
+     *
+     * @return the line of the problem
+     */
+    public long getLine()
+    {
+        return line;
+    }
+}
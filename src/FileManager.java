@@ -0,0 +1,873 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Loads and saves simulations in the two <code>.gol</code> formats, telling
+ * them apart by their first bytes.
+ * <p>
+ * The binary format, which is saved by default, starts with a header of
+ * little-endian fields: the magic number <code>GOLB</code>, the format
+ * version, the current generation, the width, the height, flags, and the
+ * length of the ruleset in <code>B/S</code> notation followed by the ruleset
+ * itself, padded to a multiple of 8 bytes. The cells follow, packed 64 to a
+ * <code>long</code> as in <code>Snapshot</code> and grouped into tiles one
+ * word wide and 64 rows high. If the <code>COMPRESSED_TILES</code> flag is
+ * set, a bitmap with a bit per tile comes first, and only the tiles whose
+ * bit is set, i.e. which have an alive cell, are stored. Loading maps the
+ * file into memory and copies the words straight into the cells. Saving
+ * writes a temporary file and renames it over the old one, so a file is
+ * never left half written.
+ * <p>
+ * The older text format, which can still be loaded and saved, has the
+ * current generation, the width and the height on a line each, then one
+ * line per row with a character per cell. Loading maps the rows into
+ * memory in chunks which are parsed in parallel, and a file which is not
+ * valid is reported with the line and column of the problem.
+ * <p>
+ * Patterns in the formats of <code>PatternFormat</code> can be loaded and
+ * saved too; they start on generation 1.
+ * <p>
+ * Uses no AWT or Swing classes, so that it can be used by
+ * <code>GameOfLifeCLI</code> without loading them.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class FileManager
+{
+    // class fields
+    /**
+     * The file extension of simulation files.
+     */
+    public static final String FILE_FORMAT = "gol";
+    private static final char ALIVE_CELL = 'A';
+    private static final long ALIVE_CELLS = ALIVE_CELL * 0x0101010101010101L;
+    private static final int BINARY_FORMAT_VERSION = 1;
+    private static final int BINARY_HEADER_SIZE = 32;
+    private static final int BINARY_MAGIC_NUMBER = 0x424C4F47;
+    private static final int COMPRESSED_TILES = 1;
+    private static final char DEAD_CELL = 'D';
+    private static final long DEAD_CELL_BITS =
+        (DEAD_CELL ^ ALIVE_CELL) * 0x0101010101010101L;
+    private static final int FORMAT_DETECTION_LENGTH = 16;
+    private static final long GATHER_LOWEST_BITS = 0x0102040810204080L;
+    private static final int LOG_TILE_HEIGHT = 6;
+    private static final long LOWEST_BITS = 0x0101010101010101L;
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+    private static final int TEXT_CHUNK_SIZE = 1 << 24;
+    private static final int TEXT_HEADER_LINES = 3;
+    private static final int TEXT_HEADER_MAXIMUM_LENGTH = 64;
+    private static final int TILE_HEIGHT = 1 << LOG_TILE_HEIGHT;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /*
+     * constructor
+     */
+
+    private FileManager()
+    {
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Loads a <code>File</code> as a <code>GameOfLife</code>, with the
+     * ruleset saved in it.
+     *
+     * @param file the <code>File</code> to load
+     * @return the loaded <code>GameOfLife</code>; <code>null</code>
+     * if loading failed
+     */
+    public static GameOfLife loadSimulation(File file)
+    {
+        return (GameOfLife)loadSimulation(file, Engine.SCALAR, null);
+    }
+
+    /**
+     * Loads a <code>File</code> in any format as a <code>Simulation</code>
+     * created by the specified <code>Engine</code>.
+     *
+     * @param file the <code>File</code> to load
+     * @param engine the <code>Engine</code> which creates the
+     * <code>Simulation</code>
+     * @param rule the ruleset to simulate with; <code>null</code> for the
+     * ruleset saved in the file, or Conway's if there is none
+     * @return the loaded <code>Simulation</code>; <code>null</code>
+     * if the file could not be read or is not a simulation file
+     * @throws IllegalArgumentException if the <code>Engine</code> does not
+     * support the ruleset
+     */
+    public static Simulation loadSimulation(File file, Engine engine,
+        Rule rule)
+    {
+        try
+        {
+            return readSimulation(file, engine, rule);
+        }
+        catch (IOException exception)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Loads a <code>File</code> in any format as a <code>Simulation</code>
+     * created by the specified <code>Engine</code>, like
+     * <code>loadSimulation(File, Engine, Rule)</code>, but tells why it
+     * could not be loaded.
+     *
+     * @param file the <code>File</code> to load
+     * @param engine the <code>Engine</code> which creates the
+     * <code>Simulation</code>
+     * @param rule the ruleset to simulate with; <code>null</code> for the
+     * ruleset saved in the file, or Conway's if there is none
+     * @return the loaded <code>Simulation</code>
+     * @throws FileFormatException if the file is in the text format and is
+     * not valid, with the line and column of the problem
+     * @throws IOException if the file could not be read or is not a valid
+     * simulation file
+     * @throws IllegalArgumentException if the <code>Engine</code> does not
+     * support the ruleset
+     */
+    public static Simulation readSimulation(File file, Engine engine,
+        Rule rule) throws IOException
+    {
+        FileEvent event = FlightEvents.beginFile();
+        Simulation simulation = null;
+        FileChannel channel = FileChannel.open(file.toPath(),
+            StandardOpenOption.READ);
+        try
+        {
+            simulation = readAnyFormat(file, channel, engine, rule);
+            return simulation;
+        }
+        finally
+        {
+            channel.close();
+            if (event != null && event.shouldCommit())
+            {
+                event.path = file.getPath();
+                event.bytes = file.length();
+                event.generation = simulation != null
+                    ? simulation.getCurrentGeneration() : -1;
+                event.width = simulation != null ? simulation.getWidth() : 0;
+                event.height = simulation != null
+                    ? simulation.getHeight() : 0;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Saves a <code>Simulation</code> as a <code>File</code> in a pattern
+     * format. Only the cells within its width and height are saved, and not
+     * its generation.
+     *
+     * @param file the <code>File</code> to save as
+     * @param simulation the <code>Simulation</code> to save
+     * @param format the <code>PatternFormat</code> to save in
+     * @return <code>true</code> if the operation succeeded,
+     * <code>false</code> otherwise
+     */
+    public static boolean savePattern(File file, Simulation simulation,
+        PatternFormat format)
+    {
+        try
+        {
+            Writer writer = new BufferedWriter(new FileWriter(file));
+            try
+            {
+                format.write(writer, simulation);
+            }
+            finally
+            {
+                writer.close();
+            }
+        }
+        catch (IOException exception)
+        {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Saves a <code>Simulation</code> as a <code>File</code> in the binary
+     * format, as <code>writeSimulation</code> does. Only the cells within its
+     * width and height are saved.
+     *
+     * @param file the <code>File</code> to save as
+     * @param simulation the <code>Simulation</code> to save
+     * @return <code>true</code> if the operation succeeded,
+     * <code>false</code> otherwise
+     */
+    public static boolean saveSimulation(File file, Simulation simulation)
+    {
+        try
+        {
+            writeSimulation(file, new Snapshot(simulation),
+                simulation.getRule(), null);
+        }
+        catch (IOException exception)
+        {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Saves a <code>Simulation</code> as a <code>File</code> in the text
+     * format. Only the cells within its width and height are saved, and not
+     * its ruleset.
+     *
+     * @param file the <code>File</code> to save as
+     * @param simulation the <code>Simulation</code> to save
+     * @return <code>true</code> if the operation succeeded,
+     * <code>false</code> otherwise
+     */
+    public static boolean saveTextSimulation(File file, Simulation simulation)
+    {
+        try
+        {
+            if (!file.exists())
+                file.createNewFile();
+
+            BufferedWriter writer = new BufferedWriter(
+                new FileWriter(file));
+            try
+            {
+                writer.write(Long.toString(
+                    simulation.getCurrentGeneration()));
+                writer.newLine();
+                writer.write(Integer.toString(simulation.getWidth()));
+                writer.newLine();
+                writer.write(Integer.toString(simulation.getHeight()));
+                writer.newLine();
+
+                for (int y = 0; y < simulation.getHeight(); y++)
+                {
+                    for (int x = 0; x < simulation.getWidth(); x++)
+                    {
+                        if (simulation.isCellAlive(x, y))
+                            writer.write(ALIVE_CELL);
+                        else
+                            writer.write(DEAD_CELL);
+                    }
+                    writer.newLine();
+                }
+            }
+            finally
+            {
+                writer.close();
+            }
+        }
+        catch (Exception exception)
+        {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Saves a <code>Snapshot</code> as a <code>File</code> in the binary
+     * format. The file is written under a temporary name in the same
+     * directory, forced to the disk, then renamed to the <code>File</code>,
+     * atomically where the file system allows it, so that the
+     * <code>File</code> holds either its previous contents or the whole
+     * snapshot, even if saving fails or the program exits part way.
+     *
+     * @param file the <code>File</code> to save as
+     * @param snapshot the <code>Snapshot</code> to save
+     * @param rule the ruleset of the simulation
+     * @param progress told the fraction of the cells written so far, from 0
+     * to 1, on the calling thread; <code>null</code> if progress is not
+     * needed
+     * @throws IOException if the file could not be written
+     */
+    public static void writeSimulation(File file, Snapshot snapshot,
+        Rule rule, DoubleConsumer progress) throws IOException
+    {
+        FileEvent event = FlightEvents.beginFile();
+        int width = snapshot.getWidth();
+        int height = snapshot.getHeight();
+        int wordsPerRow = (width + Long.SIZE - 1) >>> 6;
+        int tileRows = (height + TILE_HEIGHT - 1) >>> LOG_TILE_HEIGHT;
+        long[] cells = snapshot.getCells();
+
+        long[] storedTiles = new long[(wordsPerRow * tileRows + Long.SIZE - 1)
+            >>> 6];
+        for (int tileY = 0, tile = 0; tileY < tileRows; tileY++)
+            for (int tileX = 0; tileX < wordsPerRow; tileX++, tile++)
+                if (!isTileEmpty(cells, wordsPerRow, height, tileX, tileY))
+                    storedTiles[tile >>> 6] |= 1L << tile;
+
+        Path path = file.toPath().toAbsolutePath();
+        Path temporaryPath = path.resolveSibling("." + path.getFileName()
+            + TEMPORARY_FILE_SUFFIX);
+        boolean isRenamed = false;
+        try
+        {
+            FileChannel channel = FileChannel.open(temporaryPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            try
+            {
+                byte[] rulestring = rule.toString()
+                    .getBytes(StandardCharsets.US_ASCII);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(
+                    WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(BINARY_MAGIC_NUMBER);
+                buffer.putInt(BINARY_FORMAT_VERSION);
+                buffer.putLong(snapshot.getGeneration());
+                buffer.putInt(width);
+                buffer.putInt(height);
+                buffer.putInt(COMPRESSED_TILES);
+                buffer.putInt(rulestring.length);
+                buffer.put(rulestring);
+                buffer.position(BINARY_HEADER_SIZE
+                    + getPaddedLength(rulestring.length));
+
+                for (long word : storedTiles)
+                    writeLong(channel, buffer, word);
+
+                for (int tileY = 0, tile = 0; tileY < tileRows; tileY++)
+                {
+                    int lastY = Math.min(height, (tileY + 1) * TILE_HEIGHT);
+                    for (int tileX = 0; tileX < wordsPerRow; tileX++, tile++)
+                        if ((storedTiles[tile >>> 6] & (1L << tile)) != 0)
+                            for (int y = tileY * TILE_HEIGHT; y < lastY; y++)
+                                writeLong(channel, buffer,
+                                    cells[y * wordsPerRow + tileX]);
+                    if (progress != null)
+                        progress.accept((double)(tileY + 1) / tileRows);
+                }
+
+                buffer.flip();
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+                channel.force(false);
+            }
+            finally
+            {
+                channel.close();
+            }
+
+            try
+            {
+                Files.move(temporaryPath, path,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException exception)
+            {
+                Files.move(temporaryPath, path,
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+            isRenamed = true;
+        }
+        finally
+        {
+            if (!isRenamed)
+                Files.deleteIfExists(temporaryPath);
+        }
+
+        if (event != null && event.shouldCommit())
+        {
+            event.path = file.getPath();
+            event.bytes = file.length();
+            event.isWrite = true;
+            event.generation = snapshot.getGeneration();
+            event.width = width;
+            event.height = height;
+            event.commit();
+        }
+    }
+
+    /*
+     * Describes a byte of a text file for an error message.
+     */
+    private static String getCharacterName(byte c)
+    {
+        if (c == '\n')
+            return "the end of the line";
+        else if (c == '\r')
+            return "a carriage return";
+        else if (c >= ' ' && c < 0x7F)
+            return "'" + (char)c + "'";
+
+        return "the byte 0x" + Integer.toHexString(c & 0xFF);
+    }
+
+    /*
+     * Returns the length of the ruleset rounded up to a multiple of 8 bytes,
+     * so that the cells after it are aligned.
+     */
+    private static int getPaddedLength(int length)
+    {
+        return (length + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    private static boolean isTileEmpty(long[] cells, int wordsPerRow,
+        int height, int tileX, int tileY)
+    {
+        int lastY = Math.min(height, (tileY + 1) * TILE_HEIGHT);
+        for (int y = tileY * TILE_HEIGHT; y < lastY; y++)
+            if (cells[y * wordsPerRow + tileX] != 0)
+                return false;
+
+        return true;
+    }
+
+    /*
+     * Parses a line of the header of the text format which holds a number,
+     * leaving the buffer after its line terminator.
+     */
+    private static long parseHeaderLine(ByteBuffer header, int line,
+        long minimum, long maximum) throws FileFormatException
+    {
+        int start = header.position();
+        long number = 0;
+        while (true)
+        {
+            int column = header.position() - start + 1;
+            if (!header.hasRemaining())
+                throw new FileFormatException("Unexpected end of file", line,
+                    column);
+
+            byte c = header.get();
+            if (c >= '0' && c <= '9')
+            {
+                if (number > (maximum - (c - '0')) / 10)
+                    throw new FileFormatException("Number larger than "
+                        + maximum, line, 1);
+                number = number * 10 + c - '0';
+            }
+            else if (column > 1 && (c == '\n' || c == '\r'
+                && header.hasRemaining() && header.get() == '\n'))
+            {
+                if (number < minimum)
+                    throw new FileFormatException("Number smaller than "
+                        + minimum, line, 1);
+                return number;
+            }
+            else
+            {
+                throw new FileFormatException((column == 1
+                    ? "Expected a number but found "
+                    : "Expected a digit but found ") + getCharacterName(c),
+                    line, column);
+            }
+        }
+    }
+
+    /*
+     * Reads a file in whichever format its first bytes show it is in.
+     */
+    private static Simulation readAnyFormat(File file, FileChannel channel,
+        Engine engine, Rule rule) throws IOException
+    {
+        ByteBuffer start = readStart(channel, FORMAT_DETECTION_LENGTH);
+        if (start.remaining() >= Integer.BYTES
+            && start.getInt(0) == BINARY_MAGIC_NUMBER)
+            return readBinarySimulation(channel, engine, rule);
+
+        byte[] bytes = new byte[start.remaining()];
+        start.get(bytes);
+        PatternFormat patternFormat = PatternFormat.forStart(
+            new String(bytes, StandardCharsets.US_ASCII));
+        if (patternFormat != null)
+            return readPattern(file, patternFormat, engine, rule);
+
+        return readTextSimulation(channel, engine,
+            rule != null ? rule : Rule.CONWAY);
+    }
+
+    /*
+     * Reads the binary format from the whole file mapped into memory.
+     */
+    private static Simulation readBinarySimulation(FileChannel channel,
+        Engine engine, Rule rule) throws IOException
+    {
+        if (channel.size() > Integer.MAX_VALUE)
+            throw new IOException("File too large");
+
+        long generation;
+        int width;
+        int height;
+        long[] cells;
+        try
+        {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.getInt();
+            if (buffer.getInt() != BINARY_FORMAT_VERSION)
+                throw new IOException("Unsupported format version");
+            generation = buffer.getLong();
+            width = buffer.getInt();
+            height = buffer.getInt();
+            int flags = buffer.getInt();
+            int ruleLength = buffer.getInt();
+            if (width <= 0 || height <= 0 || ruleLength < 0)
+                throw new IOException("Invalid header");
+
+            int cellsPosition = BINARY_HEADER_SIZE
+                + getPaddedLength(ruleLength);
+            if (cellsPosition > buffer.limit())
+                throw new BufferUnderflowException();
+
+            byte[] rulestring = new byte[ruleLength];
+            buffer.get(rulestring);
+            if (rule == null)
+            {
+                try
+                {
+                    rule = new Rule(new String(rulestring,
+                        StandardCharsets.US_ASCII));
+                }
+                catch (IllegalArgumentException exception)
+                {
+                    throw new IOException(exception.getMessage());
+                }
+            }
+
+            buffer.position(cellsPosition);
+            cells = readCells(buffer.slice().order(ByteOrder.LITTLE_ENDIAN)
+                .asLongBuffer(), width, height,
+                (flags & COMPRESSED_TILES) != 0);
+        }
+        catch (BufferUnderflowException exception)
+        {
+            throw new IOException("Unexpected end of file");
+        }
+
+        return engine.create(cells, width, height, generation, rule);
+    }
+
+    /*
+     * Reads the tiles of a binary file into cells packed as by Snapshot.
+     * Without the COMPRESSED_TILES flag, every tile is stored. The file is
+     * checked to hold every stored word before the cells are allocated, so
+     * a header claiming a huge board cannot exhaust the heap.
+     */
+    private static long[] readCells(LongBuffer words, int width, int height,
+        boolean isCompressed) throws IOException
+    {
+        int wordsPerRow = (width + Long.SIZE - 1) >>> 6;
+        int tileRows = (height + TILE_HEIGHT - 1) >>> LOG_TILE_HEIGHT;
+        if ((long)wordsPerRow * height > Integer.MAX_VALUE)
+            throw new IOException("Board too large");
+
+        long[] storedTiles = null;
+        long storedWords = (long)wordsPerRow * height;
+        if (isCompressed)
+        {
+            int tileCount = wordsPerRow * tileRows;
+            int bitmapLength = (int)((tileCount + Long.SIZE - 1L) >>> 6);
+            if (words.remaining() < bitmapLength)
+                throw new BufferUnderflowException();
+            storedTiles = new long[bitmapLength];
+            words.get(storedTiles);
+
+            // Bits past the last tile are ignored.
+            storedWords = 0;
+            for (int i = 0; i < bitmapLength; i++)
+                storedWords += Long.bitCount(i < bitmapLength - 1
+                    ? storedTiles[i]
+                    : storedTiles[i] & (-1L >>> -tileCount));
+            storedWords *= TILE_HEIGHT;
+            int lastTileHeight = height - (tileRows - 1) * TILE_HEIGHT;
+            for (int tile = (tileRows - 1) * wordsPerRow; tile < tileCount;
+                tile++)
+                if ((storedTiles[tile >>> 6] & (1L << tile)) != 0)
+                    storedWords -= TILE_HEIGHT - lastTileHeight;
+        }
+        if (words.remaining() < storedWords)
+            throw new BufferUnderflowException();
+
+        long[] cells = new long[wordsPerRow * height];
+        for (int tileY = 0, tile = 0; tileY < tileRows; tileY++)
+        {
+            int lastY = Math.min(height, (tileY + 1) * TILE_HEIGHT);
+            for (int tileX = 0; tileX < wordsPerRow; tileX++, tile++)
+                if (storedTiles == null
+                    || (storedTiles[tile >>> 6] & (1L << tile)) != 0)
+                    for (int y = tileY * TILE_HEIGHT; y < lastY; y++)
+                        cells[y * wordsPerRow + tileX] = words.get();
+        }
+
+        return cells;
+    }
+
+    private static Simulation readPattern(File file, PatternFormat format,
+        Engine engine, Rule rule) throws IOException
+    {
+        Reader reader = new FileReader(file);
+        try
+        {
+            return format.read(reader, engine, rule);
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    /*
+     * Reads up to the specified number of bytes from the start of a file.
+     */
+    private static ByteBuffer readStart(FileChannel channel, int length)
+        throws IOException
+    {
+        ByteBuffer start = ByteBuffer.allocate((int)Math.min(length,
+            channel.size()));
+        while (start.hasRemaining())
+            if (channel.read(start, start.position()) == -1)
+                break;
+
+        start.flip();
+        return start.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /*
+     * Reads the text format. Every row is as long as the width plus the line
+     * terminator of the header, so the rows are split into chunks without
+     * being scanned, and the chunks are mapped into memory and parsed in
+     * parallel straight into cells packed as by Snapshot.
+     */
+    private static Simulation readTextSimulation(FileChannel channel,
+        Engine engine, Rule rule) throws IOException
+    {
+        ByteBuffer header = readStart(channel, TEXT_HEADER_MAXIMUM_LENGTH);
+        long generation = parseHeaderLine(header, 1, 0, Long.MAX_VALUE);
+        int width = (int)parseHeaderLine(header, 2, 1, Integer.MAX_VALUE);
+        int height = (int)parseHeaderLine(header, 3, 1, Integer.MAX_VALUE);
+        int terminatorLength = header.get(header.position() - 2) == '\r'
+            ? 2 : 1;
+
+        int wordsPerRow = (width + Long.SIZE - 1) >>> 6;
+        long rowLength = (long)width + terminatorLength;
+        if ((long)wordsPerRow * height > Integer.MAX_VALUE
+            || rowLength > Integer.MAX_VALUE)
+            throw new IOException("Board too large");
+
+        // The last row need not end with a line terminator.
+        long rowsSize = channel.size() - header.position();
+        int rowCount = (int)Math.min(height,
+            (rowsSize + terminatorLength) / rowLength);
+        long[] cells = new long[wordsPerRow * height];
+
+        RowsTask task = new RowsTask(channel, header.position(),
+            (int)rowLength, width, cells, 0, rowCount);
+        ForkJoinPool.commonPool().invoke(task);
+        if (task.error != null)
+            throw task.error;
+
+        if (rowCount < height)
+        {
+            long remainder = rowsSize - rowCount * rowLength;
+            if (remainder < 0)
+                throw new FileFormatException("Unexpected end of file",
+                    TEXT_HEADER_LINES + rowCount, width + 1);
+            throw new FileFormatException("Unexpected end of file",
+                TEXT_HEADER_LINES + rowCount + 1, remainder + 1);
+        }
+
+        return engine.create(cells, width, height, generation, rule);
+    }
+
+    /*
+     * Puts a word in the buffer, writing the buffer out first if it is full.
+     */
+    private static void writeLong(FileChannel channel, ByteBuffer buffer,
+        long word) throws IOException
+    {
+        if (buffer.remaining() < Long.BYTES)
+        {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+
+        buffer.putLong(word);
+    }
+
+    /*
+     * inner classes
+     */
+
+    /*
+     * Parses rows of the text format, splitting them in halves until each
+     * part spans at most TEXT_CHUNK_SIZE bytes, which is then mapped into
+     * memory and parsed. The rows of the parts are disjoint, so each part
+     * writes its own words of the cells. The first error found is kept, and
+     * an error in a row above wins over one below.
+     */
+    private static class RowsTask extends RecursiveAction
+    {
+        // class fields
+        private static final long serialVersionUID = 1L;
+
+        // instance fields
+        private long[] cells;
+        private FileChannel channel;
+        private int endY;
+        private IOException error;
+        private long firstRowPosition;
+        private int rowLength;
+        private int startY;
+        private int width;
+
+        /*
+         * constructor
+         */
+
+        /**
+         * Creates a <code>RowsTask</code> for the specified rows.
+         *
+         * @param channel the file
+         * @param firstRowPosition the position of the first row in the file
+         * @param rowLength the length of a row with its line terminator
+         * @param width the number of cells in a row
+         * @param cells the cells to parse into, packed as by
+         * <code>Snapshot</code>
+         * @param startY the first row to parse
+         * @param endY the row after the last row to parse
+         */
+        public RowsTask(FileChannel channel, long firstRowPosition,
+            int rowLength, int width, long[] cells, int startY, int endY)
+        {
+            this.channel = channel;
+            this.firstRowPosition = firstRowPosition;
+            this.rowLength = rowLength;
+            this.width = width;
+            this.cells = cells;
+            this.startY = startY;
+            this.endY = endY;
+        }
+
+        /*
+         * methods
+         */
+
+        protected void compute()
+        {
+            if (endY - startY <= 1
+                || (long)(endY - startY) * rowLength <= TEXT_CHUNK_SIZE)
+            {
+                try
+                {
+                    parseRows();
+                }
+                catch (IOException exception)
+                {
+                    error = exception;
+                }
+            }
+            else
+            {
+                int middleY = (startY + endY) >>> 1;
+                RowsTask top = new RowsTask(channel, firstRowPosition,
+                    rowLength, width, cells, startY, middleY);
+                RowsTask bottom = new RowsTask(channel, firstRowPosition,
+                    rowLength, width, cells, middleY, endY);
+                invokeAll(top, bottom);
+                error = top.error != null ? top.error : bottom.error;
+            }
+        }
+
+        private FileFormatException createError(String message, int y,
+            int x)
+        {
+            return new FileFormatException(message, TEXT_HEADER_LINES + y + 1,
+                x + 1L);
+        }
+
+        /*
+         * Parses the cells of a row 8 at a time. XORing 8 cells with
+         * ALIVE_CELLS leaves 0 in the byte of each alive cell and
+         * DEAD_CELL ^ ALIVE_CELL, i.e. 0b101, in the byte of each dead one,
+         * so the lowest bit of each byte is set for a dead cell. Any other
+         * byte makes the remaining cells be parsed one at a time, which finds
+         * the error.
+         */
+        private void parseRow(ByteBuffer rows, int start, int y)
+            throws FileFormatException
+        {
+            int row = y * ((width + Long.SIZE - 1) >>> 6);
+            int x = 0;
+            for (; x + Long.BYTES <= width; x += Long.BYTES)
+            {
+                long bytes = rows.getLong(start + x) ^ ALIVE_CELLS;
+                if ((bytes & ~DEAD_CELL_BITS) != 0
+                    || ((bytes ^ (bytes >>> 2)) & LOWEST_BITS) != 0)
+                    break;
+
+                long alive = ~bytes & LOWEST_BITS;
+                cells[row + (x >>> 6)] |= (alive * GATHER_LOWEST_BITS >>> 56)
+                    << x;
+            }
+            for (; x < width; x++)
+            {
+                byte c = rows.get(start + x);
+                if (c == ALIVE_CELL)
+                    cells[row + (x >>> 6)] |= 1L << x;
+                else if (c == '\n' || c == '\r')
+                    throw createError("Row has " + x + " cells but the width"
+                        + " is " + width, y, x);
+                else if (c != DEAD_CELL)
+                    throw createError("Expected '" + ALIVE_CELL + "' or '"
+                        + DEAD_CELL + "' but found " + getCharacterName(c), y,
+                        x);
+            }
+
+            int end = start + width;
+            if (end == rows.limit())
+                return;
+
+            byte c = rows.get(end);
+            if (c == ALIVE_CELL || c == DEAD_CELL)
+                throw createError("Row is longer than the width of " + width,
+                    y, width);
+            else if (rowLength - width == 1 ? c != '\n' : (c != '\r'
+                || end + 1 == rows.limit() || rows.get(end + 1) != '\n'))
+                throw createError("Expected the end of the line but found "
+                    + getCharacterName(c), y, width);
+        }
+
+        private void parseRows() throws IOException
+        {
+            long position = firstRowPosition + (long)startY * rowLength;
+            long length = Math.min((long)(endY - startY) * rowLength,
+                channel.size() - position);
+            ByteBuffer rows = channel.map(FileChannel.MapMode.READ_ONLY,
+                position, length).order(ByteOrder.LITTLE_ENDIAN);
+            for (int y = startY, start = 0; y < endY; y++, start += rowLength)
+                parseRow(rows, start, y);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Begins the Java Flight Recorder events of the simulator, but only while
+ * they can be recorded.
+ * <p>
+ * Loading an event class loads the JVM's flight recorder support, around a
+ * hundred classes, and every event is an allocation. Until a recording has
+ * been started, each method here only checks that the flight recorder is
+ * still uninitialized and returns <code>null</code>, without touching the
+ * event classes; afterwards, the <code>EventType</code> of each event is
+ * looked up once and its <code>isEnabled</code> checked before an event is
+ * created. Callers fill in and commit an event only if it is not
+ * <code>null</code> and <code>shouldCommit</code> says it will be recorded.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public final class FlightEvents
+{
+    /*
+     * constructor
+     */
+
+    private FlightEvents()
+    {
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Begins a <code>FileEvent</code> if one can be recorded.
+     *
+     * @return the begun <code>FileEvent</code>; <code>null</code> if no
+     * recording wants it
+     */
+    public static FileEvent beginFile()
+    {
+        if (!FlightRecorder.isInitialized() || !EventTypes.FILE.isEnabled())
+            return null;
+
+        FileEvent event = new FileEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Begins a <code>RenderEvent</code> if one can be recorded.
+     *
+     * @return the begun <code>RenderEvent</code>; <code>null</code> if no
+     * recording wants it
+     */
+    public static RenderEvent beginRender()
+    {
+        if (!FlightRecorder.isInitialized()
+            || !EventTypes.RENDER.isEnabled())
+            return null;
+
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Begins a <code>StepEvent</code> if one can be recorded.
+     *
+     * @return the begun <code>StepEvent</code>; <code>null</code> if no
+     * recording wants it
+     */
+    public static StepEvent beginStep()
+    {
+        if (!FlightRecorder.isInitialized() || !EventTypes.STEP.isEnabled())
+            return null;
+
+        StepEvent event = new StepEvent();
+        event.begin();
+        return event;
+    }
+
+    /*
+     * inner classes
+     */
+
+    /*
+     * Holds the type of each event, so the event classes are only loaded,
+     * and registered with the flight recorder, once it has been initialized.
+     */
+    private static final class EventTypes
+    {
+        // class fields
+        static final EventType FILE = EventType.getEventType(FileEvent.class);
+        static final EventType RENDER =
+            EventType.getEventType(RenderEvent.class);
+        static final EventType STEP = EventType.getEventType(StepEvent.class);
+    }
+}
@@ -1,10 +1,25 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
 /**
  * A simulation of Conway's Game of Life.
+ * <p>
+ * The grid is stored row by row in a single array with a one cell border
+ * (the "halo") around it. The halo is filled in once per generation according
+ * to the <code>Boundary</code>, so counting the neighbours of any cell needs
+ * no bounds checks.
+ * <p>
+ * When the <code>jdk.incubator.vector</code> module is available (i.e. the
+ * JVM was started with <code>--add-modules jdk.incubator.vector</code>), the
+ * rows are computed a whole vector of cells at a time by
+ * <code>VectorKernel</code>; otherwise cell by cell.
  *
  * @author Shazz Amin
  * @version 1.0 2015-04-23
  */
-public class GameOfLife
+public class GameOfLife implements ChangeTrackingSimulation
 {
     // class fields
     /**
@@ -17,14 +32,25 @@ public class GameOfLife
             {false, false, false},
             {false, false, false}
         };
-    private static final int CELLS_NEEDED_TO_COME_ALIVE = 3;
-    private static final int CELLS_NEEDED_TO_STAY_ALIVE_1 = 2;
-    private static final int CELLS_NEEDED_TO_STAY_ALIVE_2 = 3;
+    private static final VarHandle CELL_BYTES =
+        MethodHandles.byteArrayViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+    private static final long GATHER_LOWEST_BITS = 0x0102040810204080L;
+    private static final boolean IS_VECTOR_KERNEL_AVAILABLE =
+        ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
 
     // instance fields
-    private int currentGeneration;
-    private boolean[][] cells;
+    private Boundary boundary;
+    private long currentGeneration;
+    private byte[] cells;
+    private ChangeSet changes;
+    private CycleDetector cycleDetector;
+    private long hash;
     private int height;
+    private byte[] nextCells;
+    private byte[] nextStates;
+    private Rule rule;
+    private int stride;
     private int width;
 
     /*
@@ -37,10 +63,7 @@ public class GameOfLife
      */
     public GameOfLife()
     {
-        currentGeneration = 1;
-        cells = DEFAULT_CELL_CONFIGURATION;
-        height = DEFAULT_CELL_CONFIGURATION.length;
-        width = DEFAULT_CELL_CONFIGURATION[0].length;
+        this(DEFAULT_CELL_CONFIGURATION);
     }
 
     /**
@@ -54,19 +77,7 @@ public class GameOfLife
      */
     public GameOfLife(boolean[][] cells)
     {
-        for (int y = 1; y < cells.length; y++)
-        {
-            if (cells[y].length != cells[0].length)
-            {
-                cells = DEFAULT_CELL_CONFIGURATION;
-                break;
-            }
-        }
-
-        currentGeneration = 1;
-        this.cells = cells;
-        height = cells.length;
-        width = cells[0].length;
+        this(cells, 1);
     }
 
     /**
@@ -80,7 +91,25 @@ public class GameOfLife
      * @param currentGeneration the generation which this
      * <code>GameOfLife</code> is currently on; must be greater than 0
      */
-    public GameOfLife(boolean[][] cells, int currentGeneration)
+    public GameOfLife(boolean[][] cells, long currentGeneration)
+    {
+        this(cells, currentGeneration, Rule.CONWAY);
+    }
+
+    /**
+     * Creates a <code>GameOfLife</code> with specified cell configuration
+     * and ruleset.
+     *
+     * @param cells the configuration of the cells in the first generation;
+     * must be an array of rows (i.e. the second level array represents a row)
+     * every row must be the same size as each other (i.e. the configuration
+     * must be a rectangle). <code>true</code> represents an alive cell,
+     * <code>false</code> represents a dead cell
+     * @param currentGeneration the generation which this
+     * <code>GameOfLife</code> is currently on; must be greater than 0
+     * @param rule the ruleset to simulate with
+     */
+    public GameOfLife(boolean[][] cells, long currentGeneration, Rule rule)
     {
         for (int y = 1; y < cells.length; y++)
         {
@@ -91,35 +120,144 @@ public class GameOfLife
             }
         }
 
-        this.currentGeneration = currentGeneration > 0 ? currentGeneration : 1;
-        this.cells = cells;
-        height = cells.length;
-        width = cells[0].length;
+        initialize(cells[0].length, cells.length, currentGeneration, rule);
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                this.cells[getIndex(x, y)] = (byte)(cells[y][x] ? 1 : 0);
+        initializeCycleDetection(computeHash());
+    }
+
+    /**
+     * Creates a <code>GameOfLife</code> from cells which are packed 64 to a
+     * <code>long</code>, row by row, in the layout of <code>Snapshot</code>.
+     * The words are unpacked straight into the grid, skipping those with no
+     * alive cells.
+     *
+     * @param cells the configuration of the cells in the first generation,
+     * <code>(width + 63) / 64</code> words per row
+     * @param width the width of the grid; must be greater than 0
+     * @param height the height of the grid; must be greater than 0
+     * @param currentGeneration the generation which this
+     * <code>GameOfLife</code> is currently on; must be greater than 0
+     * @param rule the ruleset to simulate with
+     */
+    public GameOfLife(long[] cells, int width, int height,
+        long currentGeneration, Rule rule)
+    {
+        initialize(width, height, currentGeneration, rule);
+        initializeCycleDetection(unpackCells(cells));
+    }
+
+    /**
+     * Creates a <code>GameOfLife</code> of the specified size with every
+     * cell dead, on generation 1, e.g. to be filled in with
+     * <code>setCellState</code>.
+     *
+     * @param width the width of the grid; must be greater than 0
+     * @param height the height of the grid; must be greater than 0
+     * @param rule the ruleset to simulate with
+     */
+    public GameOfLife(int width, int height, Rule rule)
+    {
+        if (width <= 0 || height <= 0)
+        {
+            width = DEFAULT_CELL_CONFIGURATION[0].length;
+            height = DEFAULT_CELL_CONFIGURATION.length;
+        }
+
+        initialize(width, height, 1, rule);
+        initializeCycleDetection(0);
     }
 
     /*
      * accessors
      */
 
+    /*
+     * Returns a copy of the cells packed as by Snapshot, read straight from
+     * the grid rather than through isCellAlive.
+     */
+    long[] copyPackedCells()
+    {
+        int wordsPerRow = (width + Long.SIZE - 1) >>> 6;
+        long[] packed = new long[wordsPerRow * height];
+        for (int y = 0; y < height; y++)
+            packRow(y, packed, y * wordsPerRow);
+
+        return packed;
+    }
+
+    /*
+     * Copies one row into row, packed as by Snapshot.
+     */
+    void copyPackedRow(int y, long[] row)
+    {
+        Arrays.fill(row, 0, (width + Long.SIZE - 1) >>> 6, 0);
+        packRow(y, row, 0);
+    }
+
+    /**
+     * Returns what the cells outside of the grid are treated as.
+     *
+     * @return what the cells outside of the grid are treated as
+     */
+    public Boundary getBoundary()
+    {
+        return boundary;
+    }
+
     /**
      * Returns the generation which this <code>GameOfLife</code> is currently
      * on.
      *
      * @return the generation which this <code>GameOfLife</code> is currently on
      */
-    public int getCurrentGeneration()
+    public long getCurrentGeneration()
     {
         return currentGeneration;
     }
 
     /**
-     * Returns the current cell configuration.
+     * Returns a copy of the current cell configuration.
      *
-     * @return the current cell configuration
+     * @return the current cell configuration, as an array of rows
      */
     public boolean[][] getCells()
     {
-        return cells;
+        boolean[][] copy = new boolean[height][width];
+
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                copy[y][x] = cells[getIndex(x, y)] != 0;
+
+        return copy;
+    }
+
+    /**
+     * Returns the cells which changed during the last generation simulated.
+     * The same <code>ChangeSet</code> is refilled by every generation, so it
+     * must be read before the next one. Cells changed with
+     * <code>setCellState</code> are not included.
+     *
+     * @return the cells which changed during the last generation;
+     * <code>null</code> if changes are not being tracked
+     */
+    public ChangeSet getChanges()
+    {
+        return changes;
+    }
+
+    /**
+     * Returns the <code>CycleDetector</code> which follows this
+     * <code>GameOfLife</code>, from which it can be told whether the
+     * simulation is stable, oscillating or still evolving.
+     *
+     * @return the <code>CycleDetector</code> which follows this
+     * <code>GameOfLife</code>
+     */
+    public CycleDetector getCycleDetector()
+    {
+        return cycleDetector;
     }
 
     /**
@@ -132,6 +270,27 @@ public class GameOfLife
         return height;
     }
 
+    /**
+     * Returns the ruleset this <code>GameOfLife</code> simulates with.
+     *
+     * @return the ruleset this <code>GameOfLife</code> simulates with
+     */
+    public Rule getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Returns the hash of the current cell configuration. It is updated as
+     * cells change, so it costs nothing to read.
+     *
+     * @return the hash of the current cell configuration
+     */
+    public long getStateHash()
+    {
+        return hash;
+    }
+
     /**
      * Returns the width of the grid.
      *
@@ -153,7 +312,7 @@ public class GameOfLife
     public boolean isCellAlive(int x, int y)
     {
         if (isCoordinateInBounds(x, y))
-            return cells[y][x];
+            return cells[getIndex(x, y)] != 0;
         else
             return false;
     }
@@ -168,17 +327,53 @@ public class GameOfLife
         return
             getClass().getName()
             + "["
-            + "currentGeneration: " + currentGeneration
-            + ", cells: " + cells
+            + "boundary: " + boundary
+            + ", currentGeneration: " + currentGeneration
             + ", height: " + height
+            + ", rule: " + rule
             + ", width: " + width
             + "]";
     }
 
     /*
-     * mutator
+     * mutators
      */
 
+    /**
+     * Sets what the cells outside of the grid are treated as.
+     *
+     * @param boundary what the cells outside of the grid are treated as
+     */
+    public void setBoundary(Boundary boundary)
+    {
+        if (boundary == this.boundary)
+            return;
+
+        this.boundary = boundary;
+        if (boundary == Boundary.DEAD)
+        {
+            clearHalo(cells);
+            clearHalo(nextCells);
+        }
+        cycleDetector.reset();
+        cycleDetector.record(currentGeneration, hash);
+    }
+
+    /**
+     * Sets whether the cells which change during each generation are
+     * recorded (see <code>getChanges()</code>). Recording costs nothing for
+     * the cells which do not change.
+     *
+     * @param isTracking <code>true</code> to record changes
+     */
+    public void setChangeTracking(boolean isTracking)
+    {
+        if (!isTracking)
+            changes = null;
+        else if (changes == null)
+            changes = new ChangeSet(width, height);
+    }
+
     /**
      * Sets a cell at the specified coordinate to the specified state.
      *
@@ -191,7 +386,14 @@ public class GameOfLife
     {
         if (isCoordinateInBounds(x, y))
         {
-            cells[y][x] = state;
+            int index = getIndex(x, y);
+            if ((cells[index] != 0) != state)
+            {
+                cells[index] = (byte)(state ? 1 : 0);
+                hash ^= getCellHash(index);
+                cycleDetector.reset();
+                cycleDetector.record(currentGeneration, hash);
+            }
             return true;
         }
         else
@@ -206,20 +408,27 @@ public class GameOfLife
 
     /**
      * Returns whether the current generation is stable (i.e.
-     * the next generation will be exactly the same) or not.
+     * the next generation will be exactly the same) or not. When the
+     * <code>CycleDetector</code> reports the simulation as stable, the cells
+     * are compared with the previous generation, which is still in the other
+     * buffer, so a collision of hashes is never taken for stability.
      *
      * @return <code>true</code> if the current generation is stable,
      * <code>false</code> if the current generation is not stable
      */
     public boolean isSimulationStable()
     {
-        boolean[][] nextGeneration = getNextGeneration();
+        if (cycleDetector.getStatus() == CycleDetector.Status.STABLE
+            && isSameAsPreviousGeneration())
+            return true;
 
+        refreshHalo();
         for (int y = 0; y < height; y++)
         {
-            for (int x = 0; x < width; x++)
+            int index = getIndex(0, y);
+            for (int x = 0; x < width; x++, index++)
             {
-                if (cells[y][x] != nextGeneration[y][x])
+                if (cells[index] != getNextState(index))
                     return false;
             }
         }
@@ -227,63 +436,198 @@ public class GameOfLife
         return true;
     }
 
+    /**
+     * Advances the simulation to the specified generation. Once the
+     * <code>CycleDetector</code> has confirmed a cycle, only the remainder of
+     * the distance modulo the period is simulated, so the cost no longer
+     * depends on how far away the generation is.
+     *
+     * @param generation the generation to advance to
+     * @throws IllegalArgumentException if the generation is before the
+     * current generation
+     */
+    public void jumpToGeneration(long generation)
+    {
+        if (generation < currentGeneration)
+            throw new IllegalArgumentException("generation: " + generation);
+
+        while (currentGeneration < generation)
+        {
+            long period = cycleDetector.getPeriod();
+            if (period != 0)
+            {
+                long skipped = (generation - currentGeneration) / period
+                    * period;
+                currentGeneration += skipped;
+                cycleDetector.skip(skipped);
+                simulateGenerations(generation - currentGeneration);
+                return;
+            }
+
+            simulateNextGeneration();
+        }
+    }
+
+    /**
+     * Simulates the specified number of generations by applying the ruleset
+     * repeatedly. No memory is allocated between generations.
+     *
+     * @param generations the number of generations to simulate; nothing is
+     * simulated if it is not greater than 0
+     */
+    public void simulateGenerations(long generations)
+    {
+        for (long i = 0; i < generations; i++)
+            simulateNextGeneration();
+    }
+
     /**
      * Simulates the next generation by applying the ruleset.
      */
     public void simulateNextGeneration()
     {
-        cells = getNextGeneration();
+        StepEvent event = FlightEvents.beginStep();
+        refreshHalo();
+        if (changes != null)
+            changes.clear();
+        hash ^= computeNextGeneration();
+
+        byte[] previousCells = cells;
+        cells = nextCells;
+        nextCells = previousCells;
         currentGeneration++;
+        cycleDetector.record(currentGeneration, hash);
+        if (event != null && event.shouldCommit())
+        {
+            event.generation = currentGeneration;
+            event.width = width;
+            event.height = height;
+            event.changedCells = changes != null ? changes.size() : -1;
+            event.commit();
+        }
     }
 
-    private int countAliveNeighbours(int x, int y)
+    /*
+     * Fills the next generation buffer and returns the change in the hash.
+     * Overridden by subclasses which divide the rows between several
+     * threads.
+     */
+    long computeNextGeneration()
     {
-        int aliveNeighbours = 0;
-
-        for (int yOffset = -1; yOffset <= 1; yOffset++)
-            for (int xOffset = -1; xOffset <= 1; xOffset++)
-                if
-                (
-                    !(xOffset == 0 && yOffset == 0) &&
-                    isCoordinateInBounds(x + xOffset, y + yOffset) &&
-                    cells[y + yOffset][x + xOffset]
-                )
-                    aliveNeighbours++;
-
-        return aliveNeighbours;
+        return computeRows(0, height);
     }
 
-    private boolean[][] getNextGeneration()
+    /*
+     * Fills rows startY (inclusive) to endY (exclusive) of the next
+     * generation buffer and returns the change in the hash caused by those
+     * rows. Only reads the current generation, so disjoint row ranges may be
+     * computed concurrently; the hash is a XOR over cells, so the changes of
+     * separate ranges combine in any order, and the change set keeps a flag
+     * per row.
+     */
+    long computeRows(int startY, int endY)
     {
-        boolean[][] nextGeneration = new boolean[height][width];
+        if (IS_VECTOR_KERNEL_AVAILABLE)
+            return VectorKernel.computeRows(cells, nextCells, width, stride,
+                startY, endY, rule, nextStates, changes);
 
-        for (int y = 0; y < height; y++)
+        long hashChange = 0;
+
+        for (int y = startY; y < endY; y++)
         {
-            for (int x = 0; x < width; x++)
+            int index = getIndex(0, y);
+            for (int x = 0; x < width; x++, index++)
             {
-                int aliveNeighbours = countAliveNeighbours(x, y);
-                if (cells[y][x])
+                byte nextState = getNextState(index);
+                if (nextState != cells[index])
                 {
-                    if
-                    (
-                        aliveNeighbours == CELLS_NEEDED_TO_STAY_ALIVE_1 ||
-                        aliveNeighbours == CELLS_NEEDED_TO_STAY_ALIVE_2
-                    )
-                        nextGeneration[y][x] = true;
-                    else
-                        nextGeneration[y][x] = false;
-                }
-                else
-                {
-                    if (aliveNeighbours == CELLS_NEEDED_TO_COME_ALIVE)
-                        nextGeneration[y][x] = true;
-                    else
-                        nextGeneration[y][x] = false;
+                    hashChange ^= getCellHash(index);
+                    if (changes != null)
+                        changes.add(x, y);
                 }
+                nextCells[index] = nextState;
             }
         }
 
-        return nextGeneration;
+        return hashChange;
+    }
+
+    private void clearHalo(byte[] grid)
+    {
+        for (int x = 0; x < stride; x++)
+        {
+            grid[x] = 0;
+            grid[(height + 1) * stride + x] = 0;
+        }
+        for (int y = 0; y < height; y++)
+        {
+            grid[getIndex(-1, y)] = 0;
+            grid[getIndex(width, y)] = 0;
+        }
+    }
+
+    private long computeHash()
+    {
+        long hash = 0;
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                if (cells[getIndex(x, y)] != 0)
+                    hash ^= getCellHash(getIndex(x, y));
+
+        return hash;
+    }
+
+    private int countAliveNeighbours(int index)
+    {
+        return
+            cells[index - stride - 1] + cells[index - stride]
+            + cells[index - stride + 1] + cells[index - 1]
+            + cells[index + 1] + cells[index + stride - 1]
+            + cells[index + stride] + cells[index + stride + 1];
+    }
+
+    private static long getCellHash(int index)
+    {
+        return CycleDetector.mix(index);
+    }
+
+    private int getIndex(int x, int y)
+    {
+        return (y + 1) * stride + x + 1;
+    }
+
+    private byte getNextState(int index)
+    {
+        return nextStates[(countAliveNeighbours(index) << 1) | cells[index]];
+    }
+
+    /*
+     * Allocates an empty grid and sets up everything but the cycle
+     * detection, which must follow once the cells are filled in.
+     */
+    private void initialize(int width, int height, long currentGeneration,
+        Rule rule)
+    {
+        this.currentGeneration = currentGeneration > 0 ? currentGeneration : 1;
+        this.height = height;
+        this.width = width;
+        stride = width + 2;
+        cells = new byte[(height + 2) * stride];
+        nextCells = new byte[(height + 2) * stride];
+
+        boundary = Boundary.DEAD;
+        this.rule = rule;
+        boolean[] ruleNextStates = rule.getNextStates();
+        nextStates = new byte[ruleNextStates.length];
+        for (int i = 0; i < ruleNextStates.length; i++)
+            nextStates[i] = (byte)(ruleNextStates[i] ? 1 : 0);
+    }
+
+    private void initializeCycleDetection(long hash)
+    {
+        this.hash = hash;
+        cycleDetector = new CycleDetector();
+        cycleDetector.record(currentGeneration, hash);
     }
 
     private boolean isCoordinateInBounds(int x, int y)
@@ -293,4 +637,98 @@ public class GameOfLife
 
         return true;
     }
+
+    /*
+     * Compares the cells with the previous generation, which the next
+     * generation buffer holds until the next generation is simulated. Only
+     * valid when the last change to the cells was a generation simulated,
+     * as is the case whenever the CycleDetector has confirmed a cycle.
+     */
+    private boolean isSameAsPreviousGeneration()
+    {
+        for (int y = 0; y < height; y++)
+        {
+            int index = getIndex(0, y);
+            if (!Arrays.equals(cells, index, index + width, nextCells, index,
+                index + width))
+                return false;
+        }
+
+        return true;
+    }
+
+    /*
+     * ORs the cells of a row into packed words starting at offset, which
+     * must be clear. Eight cells at a time are read as one long, and as every
+     * byte is 0 or 1, multiplying gathers their lowest bits into its top
+     * byte.
+     */
+    private void packRow(int y, long[] packed, int offset)
+    {
+        int index = getIndex(0, y);
+        int x = 0;
+        for (; x + Long.BYTES <= width; x += Long.BYTES)
+            packed[offset + (x >>> 6)] |= ((long)CELL_BYTES.get(cells,
+                index + x) * GATHER_LOWEST_BITS >>> 56) << x;
+        for (; x < width; x++)
+            packed[offset + (x >>> 6)] |= (long)cells[index + x] << x;
+    }
+
+    /*
+     * Fills in the halo around the current generation: the columns first,
+     * then whole rows including their halo cells, so that the corners come
+     * out right too. A dead halo is never written, so there is nothing to do.
+     */
+    private void refreshHalo()
+    {
+        if (boundary == Boundary.DEAD)
+            return;
+
+        boolean isTorus = boundary == Boundary.TORUS;
+        for (int y = 0; y < height; y++)
+        {
+            int row = getIndex(0, y);
+            cells[row - 1] = cells[isTorus ? row + width - 1 : row];
+            cells[row + width] = cells[isTorus ? row : row + width - 1];
+        }
+
+        int firstRow = stride;
+        int lastRow = height * stride;
+        System.arraycopy(cells, isTorus ? lastRow : firstRow, cells, 0,
+            stride);
+        System.arraycopy(cells, isTorus ? firstRow : lastRow, cells,
+            (height + 1) * stride, stride);
+    }
+
+    /*
+     * Sets the cells of the grid from cells packed as by Snapshot, visiting
+     * only the set bits of each word, and returns their hash. Bits beyond
+     * the width are ignored.
+     */
+    private long unpackCells(long[] packed)
+    {
+        int wordsPerRow = (width + Long.SIZE - 1) >>> 6;
+        long lastWordMask = -1L >>> (-width & (Long.SIZE - 1));
+        long hash = 0;
+        for (int y = 0; y < height; y++)
+        {
+            int row = getIndex(0, y);
+            for (int i = 0; i < wordsPerRow; i++)
+            {
+                long word = packed[y * wordsPerRow + i];
+                if (i == wordsPerRow - 1)
+                    word &= lastWordMask;
+                while (word != 0)
+                {
+                    int index = row + (i << 6)
+                        + Long.numberOfTrailingZeros(word);
+                    cells[index] = 1;
+                    hash ^= getCellHash(index);
+                    word &= word - 1;
+                }
+            }
+        }
+
+        return hash;
+    }
 }
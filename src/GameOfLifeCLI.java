@@ -0,0 +1,434 @@
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A command-line interface which runs a simulation without a window, for
+ * batch jobs on headless machines.
+ * <p>
+ * Loads a <code>.gol</code> file, simulates a number of generations (or
+ * until the simulation settles) with any <code>Engine</code>, optionally
+ * saves the result and prints how long the generations took. The run can be
+ * recorded to a log with <code>--record</code>, and any generation of a log
+ * can be rebuilt with <code>--replay</code> instead of simulating it again.
+ * While it runs, its <code>SimulationMetrics</code> can be read through
+ * JMX if <code>--jmx</code> is given.
+ * Only refers to classes which do not use AWT or Swing, and only loads the
+ * JVM's management support when asked to, so startup stays fast.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class GameOfLifeCLI
+{
+    // class fields
+    private static final String BINARY_FORMAT = "binary";
+    private static final long MINIMUM_TIMED_DURATION = 10000L;
+    private static final double NANOSECONDS_PER_SECOND = 1e9;
+    private static final String TEXT_FORMAT = "text";
+    private static final String USAGE =
+        "Usage: java -cp GameOfLifeSimulator.jar GameOfLifeCLI [options]"
+        + " input\n"
+        + "The input may be a .gol file in either format, an RLE file or a"
+        + " Life 1.06\n"
+        + "file, or with --replay a run log.\n"
+        + "Options:\n"
+        + "  -g, --generations N  generations to simulate (default 1);"
+        + " with\n"
+        + "                       --until-stable, the most to simulate;"
+        + " with\n"
+        + "                       --replay, the generations after the first"
+        + " to\n"
+        + "                       rebuild (default the last recorded)\n"
+        + "  -s, --until-stable   stop once the simulation is stable or"
+        + " oscillating\n"
+        + "  -e, --engine NAME    scalar, parallel, bit-packed, hash-life or"
+        + " sparse\n"
+        + "                       (default scalar)\n"
+        + "  -r, --rule RULE      ruleset in B/S notation (default the"
+        + " file's,\n"
+        + "                       or B3/S23 if it has none)\n"
+        + "  -o, --output FILE    file to save the last generation to\n"
+        + "  -f, --format FORMAT  binary, text, rle or life-1.06 (default"
+        + " binary)\n"
+        + "      --record FILE    record every generation to a run log\n"
+        + "      --replay         rebuild a generation of the input run log"
+        + " instead of\n"
+        + "                       simulating\n"
+        + "      --jmx            export the metrics of the run over JMX\n"
+        + "  -h, --help           print this message";
+
+    /*
+     * main method
+     */
+
+    /**
+     * Runs a simulation as described by the command-line arguments. Exits
+     * with status 1 if the arguments are invalid or a file could not be
+     * loaded or saved.
+     *
+     * @param argument the command-line arguments; see <code>--help</code>
+     */
+    public static void main(String[] argument)
+    {
+        Engine engine = Engine.SCALAR;
+        long generations = -1;
+        File inputFile = null;
+        boolean isUntilStable = false;
+        String format = BINARY_FORMAT;
+        boolean isJmx = Boolean.getBoolean(SimulationMetrics.JMX_PROPERTY);
+        boolean isReplay = false;
+        File outputFile = null;
+        File recordFile = null;
+        Rule rule = null;
+
+        try
+        {
+            for (int i = 0; i < argument.length; i++)
+            {
+                String option = argument[i];
+                if (option.equals("-h") || option.equals("--help"))
+                {
+                    System.out.println(USAGE);
+                    return;
+                }
+                else if (option.equals("-s")
+                    || option.equals("--until-stable"))
+                {
+                    isUntilStable = true;
+                }
+                else if (option.equals("-g")
+                    || option.equals("--generations"))
+                {
+                    generations = Long.parseLong(getValue(argument, ++i));
+                    if (generations < 0)
+                        throw new IllegalArgumentException(
+                            "Invalid number of generations: " + generations);
+                }
+                else if (option.equals("-e") || option.equals("--engine"))
+                {
+                    engine = Engine.forName(getValue(argument, ++i));
+                }
+                else if (option.equals("-r") || option.equals("--rule"))
+                {
+                    rule = new Rule(getValue(argument, ++i));
+                }
+                else if (option.equals("-o") || option.equals("--output"))
+                {
+                    outputFile = new File(getValue(argument, ++i));
+                }
+                else if (option.equals("-f") || option.equals("--format"))
+                {
+                    format = getValue(argument, ++i);
+                    if (!format.equals(BINARY_FORMAT)
+                        && !format.equals(TEXT_FORMAT))
+                        PatternFormat.forName(format);
+                }
+                else if (option.equals("--record"))
+                {
+                    recordFile = new File(getValue(argument, ++i));
+                }
+                else if (option.equals("--replay"))
+                {
+                    isReplay = true;
+                }
+                else if (option.equals("--jmx"))
+                {
+                    isJmx = true;
+                }
+                else if (option.startsWith("-") || inputFile != null)
+                {
+                    throw new IllegalArgumentException("Unexpected argument: "
+                        + option);
+                }
+                else
+                {
+                    inputFile = new File(option);
+                }
+            }
+
+            if (inputFile == null)
+                throw new IllegalArgumentException("No input file given");
+            if (isReplay && (isUntilStable || recordFile != null))
+                throw new IllegalArgumentException("--replay cannot be used"
+                    + " with --until-stable or --record");
+        }
+        catch (IllegalArgumentException exception)
+        {
+            exit(exception.getMessage() + "\n" + USAGE);
+        }
+
+        if (isReplay)
+        {
+            replay(inputFile, generations, engine, rule, outputFile, format);
+            return;
+        }
+        else if (generations == -1)
+        {
+            generations = isUntilStable ? Long.MAX_VALUE : 1;
+        }
+
+        Simulation simulation = null;
+        try
+        {
+            simulation = FileManager.readSimulation(inputFile, engine, rule);
+        }
+        catch (IOException exception)
+        {
+            exit("Failed to open " + inputFile + ": "
+                + exception.getMessage());
+        }
+        catch (IllegalArgumentException exception)
+        {
+            exit(engine.getName() + ": " + exception.getMessage());
+        }
+
+        SimulationMetrics metrics = new SimulationMetrics();
+        if (isJmx)
+        {
+            MetricsExporter.measureAllocations(metrics);
+            if (!MetricsExporter.export(metrics))
+                System.err.println("Failed to export the metrics over JMX.");
+        }
+        RunRecorder recorder = null;
+        long firstGeneration = simulation.getCurrentGeneration();
+        long startTime = System.nanoTime();
+        String result = null;
+        try
+        {
+            if (recordFile != null)
+            {
+                if (simulation instanceof ChangeTrackingSimulation)
+                    ((ChangeTrackingSimulation)simulation)
+                        .setChangeTracking(true);
+                recorder = new RunRecorder(recordFile, simulation);
+            }
+
+            if (simulation instanceof HashLifeGameOfLife && !isUntilStable
+                && recorder == null)
+            {
+                // Hash life jumps many generations at once, so the jump is
+                // timed as a whole.
+                long stepStart = System.nanoTime();
+                simulation.simulateGenerations(generations);
+                metrics.recordSteps(simulation, generations, stepStart,
+                    System.nanoTime());
+                result = "Simulated";
+            }
+            else
+            {
+                result = simulate(simulation, generations, isUntilStable,
+                    recorder, metrics);
+            }
+
+            if (recorder != null)
+                recorder.close();
+        }
+        catch (IOException exception)
+        {
+            exit("Failed to record to " + recordFile + ": "
+                + exception.getMessage());
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+
+        long simulated = simulation.getCurrentGeneration() - firstGeneration;
+        double seconds = elapsedTime / NANOSECONDS_PER_SECOND;
+        double cells = (double)simulation.getWidth() * simulation.getHeight()
+            * simulated;
+        System.out.println(result + " at generation "
+            + simulation.getCurrentGeneration() + " after " + simulated
+            + " generations (" + engine.getName() + ", "
+            + simulation.getRule() + ")");
+        System.out.printf("%.3f s, %.1f generations/s, %.4g cells/s%n",
+            seconds, simulated / seconds, cells / seconds);
+
+        if (outputFile != null && !save(outputFile, simulation, format))
+            exit("Failed to save " + outputFile + ".");
+    }
+
+    /*
+     * methods
+     */
+
+    private static void exit(String message)
+    {
+        System.err.println(message);
+        System.exit(1);
+    }
+
+    /*
+     * Returns the CycleDetector of the simulation, or null if its engine does
+     * not keep one.
+     */
+    private static CycleDetector getCycleDetector(Simulation simulation)
+    {
+        if (simulation instanceof GameOfLife)
+            return ((GameOfLife)simulation).getCycleDetector();
+        else if (simulation instanceof BitPackedGameOfLife)
+            return ((BitPackedGameOfLife)simulation).getCycleDetector();
+        else
+            return null;
+    }
+
+    /*
+     * Returns a word describing the simulation if it is stable, or also
+     * oscillating when its engine keeps a CycleDetector, which is far
+     * cheaper than calling isSimulationStable() every generation; null
+     * otherwise.
+     */
+    private static String getStability(Simulation simulation,
+        CycleDetector cycleDetector)
+    {
+        if (cycleDetector != null)
+        {
+            CycleDetector.Status status = cycleDetector.getStatus();
+            if (status == CycleDetector.Status.STABLE)
+                return "Stable";
+            else if (status == CycleDetector.Status.OSCILLATING)
+                return "Oscillating with period " + cycleDetector.getPeriod();
+        }
+        else if (simulation.isSimulationStable())
+        {
+            return "Stable";
+        }
+
+        return null;
+    }
+
+    private static String getValue(String[] argument, int i)
+    {
+        if (i >= argument.length)
+            throw new IllegalArgumentException("Missing value for "
+                + argument[i - 1]);
+
+        return argument[i];
+    }
+
+    /*
+     * Records the generation just simulated, from the cells which changed
+     * when the simulation tracks them.
+     */
+    private static void record(Simulation simulation, RunRecorder recorder)
+        throws IOException
+    {
+        if (simulation instanceof ChangeTrackingSimulation)
+            recorder.record(simulation,
+                ((ChangeTrackingSimulation)simulation).getChanges());
+        else
+            recorder.record(simulation, null);
+    }
+
+    /*
+     * Rebuilds the generation of a run log which is a number of generations
+     * after its first one, or its last one if the number is -1, and saves it
+     * like a simulated generation.
+     */
+    private static void replay(File file, long generations, Engine engine,
+        Rule rule, File outputFile, String format)
+    {
+        Snapshot snapshot = null;
+        try
+        {
+            RunReplay replay = new RunReplay(file);
+            long generation = generations == -1 ? replay.getLastGeneration()
+                : replay.getFirstGeneration() + generations;
+
+            long startTime = System.nanoTime();
+            snapshot = replay.seek(generation);
+            long elapsedTime = System.nanoTime() - startTime;
+            replay.close();
+            if (snapshot == null)
+                exit("Generation " + generation + " is not recorded in "
+                    + file + " (generations " + replay.getFirstGeneration()
+                    + " to " + replay.getLastGeneration() + ")");
+
+            if (rule == null)
+                rule = replay.getRule();
+            System.out.println("Replayed generation " + generation + " of "
+                + replay.getFirstGeneration() + " to "
+                + replay.getLastGeneration() + " (" + replay.getWidth() + "x"
+                + replay.getHeight() + ", " + replay.getRule() + ")");
+            System.out.printf("%.3f s%n",
+                elapsedTime / NANOSECONDS_PER_SECOND);
+        }
+        catch (IOException exception)
+        {
+            exit("Failed to replay " + file + ": " + exception.getMessage());
+        }
+
+        if (outputFile == null)
+            return;
+
+        Simulation simulation = null;
+        try
+        {
+            simulation = engine.create(snapshot, rule);
+        }
+        catch (IllegalArgumentException exception)
+        {
+            exit(engine.getName() + ": " + exception.getMessage());
+        }
+        if (!save(outputFile, simulation, format))
+            exit("Failed to save " + outputFile + ".");
+    }
+
+    /*
+     * Saves the simulation in the format named by --format.
+     */
+    private static boolean save(File file, Simulation simulation,
+        String format)
+    {
+        if (format.equals(BINARY_FORMAT))
+            return FileManager.saveSimulation(file, simulation);
+        else if (format.equals(TEXT_FORMAT))
+            return FileManager.saveTextSimulation(file, simulation);
+        else
+            return FileManager.savePattern(file, simulation,
+                PatternFormat.forName(format));
+    }
+
+    /*
+     * Simulates generations one by one, recording each if a recorder is
+     * given and, if isUntilStable, stopping once the simulation is stable.
+     * Generations are timed in batches which take at least
+     * MINIMUM_TIMED_DURATION, so that reading the clock does not slow small
+     * boards down. Returns a word describing why it stopped.
+     */
+    private static String simulate(Simulation simulation,
+        long maximumGenerations, boolean isUntilStable, RunRecorder recorder,
+        SimulationMetrics metrics) throws IOException
+    {
+        CycleDetector cycleDetector = getCycleDetector(simulation);
+        long batchSize = 1;
+        long generations = 0;
+        while (generations < maximumGenerations)
+        {
+            long count = Math.min(batchSize, maximumGenerations
+                - generations);
+            long stepStart = System.nanoTime();
+            for (long i = 0; i < count; i++)
+            {
+                if (isUntilStable)
+                {
+                    String stability = getStability(simulation,
+                        cycleDetector);
+                    if (stability != null)
+                        return stability;
+                }
+
+                simulation.simulateNextGeneration();
+                if (recorder != null)
+                    record(simulation, recorder);
+            }
+            long stepEnd = System.nanoTime();
+            metrics.recordSteps(simulation, count, stepStart, stepEnd);
+            generations += count;
+
+            if (stepEnd - stepStart < MINIMUM_TIMED_DURATION)
+                batchSize *= 2;
+            else if (stepEnd - stepStart > 2 * MINIMUM_TIMED_DURATION)
+                batchSize = Math.max(1, batchSize / 2);
+        }
+
+        return isUntilStable ? "Not stable" : "Simulated";
+    }
+}
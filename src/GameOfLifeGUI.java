@@ -4,25 +4,38 @@ import java.awt.Container;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.event.MouseListener;
+import java.awt.event.MouseWheelEvent;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
 import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.GridLayout;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.Toolkit;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import javax.swing.BorderFactory;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.DoubleConsumer;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.ImageIcon;
+import javax.swing.JCheckBox;
+import javax.swing.JComponent;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -31,10 +44,13 @@ import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JSpinner;
 import javax.swing.JTextField;
 import javax.swing.KeyStroke;
 import javax.swing.SpinnerNumberModel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 /**
  * A graphical user interface for <code>GameOfLife</code>.
@@ -47,32 +63,63 @@ public class GameOfLifeGUI
 {
     // class fields
     private static final Color ALIVE_CELL = Color.GREEN;
+    private static final int AUTOSAVE_DELAY = 60000;
+    private static final String AUTOSAVE_NAME = "untitled";
+    private static final String AUTOSAVE_SUFFIX = ".autosave";
+    private static final double BYTES_PER_MEGABYTE = 1 << 20;
     private static final Color DEAD_CELL = Color.GRAY;
-    private static final int DEFAULT_SIMULATION_DELAY = 500;
-    private static final String FILE_FORMAT = "gol";
-    private static final int HOW_TO_USE_DIALOG_HEIGHT = 9;
+    private static final int DEFAULT_SIMULATION_RATE = 2;
+    private static final JFileChooser FILE_CHOOSER =
+        new JFileChooser(System.getProperty("user.dir"));
+    private static final FileNameExtensionFilter FILE_FILTER =
+        new FileNameExtensionFilter("Game of Life Simulation File (." +
+            FileManager.FILE_FORMAT + ")", FileManager.FILE_FORMAT);
+    private static final int GRID_LINE_MINIMUM_CELL_SIZE = 4;
+    private static final long HISTORY_MEMORY_BUDGET = 64L << 20;
+    private static final int HOW_TO_USE_DIALOG_HEIGHT = 12;
     private static final Image ICON = (new ImageIcon(GameOfLifeGUI.class.getResource("icon.png"))).getImage();
-    private static final int INFO_BAR_HEIGHT = 3;
+    private static final int INFO_BAR_HEIGHT = 5;
     private static final int INFO_BAR_WIDTH = 1;
+    private static final int MAXIMUM_CELL_SIZE = 64;
+    private static final double MINIMUM_TILE_SHADE = 0.3;
     private static final int MOUSED_OVER_CELL_ALPHA = 100;
-    private static final int SIMULATION_CHECK_DELAY = 5;
-    private static final int SIMULATION_DELAY_MAXIMUM = 5000;
-    private static final int SIMULATION_DELAY_MINIMUM = 100;
-    private static final int SIMULATION_DELAY_STEP = 100;
-    private static final int SPEED_DIALOG_HEIGHT = 3;
+    private static final double NANOSECONDS_PER_MILLISECOND = 1e6;
+    private static final FileNameExtensionFilter OPEN_FILE_FILTER =
+        new FileNameExtensionFilter("Game of Life Simulation or Pattern File" +
+            " (." + FileManager.FILE_FORMAT + ", ." +
+            PatternFormat.RLE.getExtension() + ", ." +
+            PatternFormat.LIFE_1_06.getExtension() + ")",
+            FileManager.FILE_FORMAT, PatternFormat.RLE.getExtension(),
+            PatternFormat.LIFE_1_06.getExtension());
+    private static final int RENDER_DELAY = 16;
+    private static final int SIMULATION_RATE_MAXIMUM = 10000;
+    private static final int SIMULATION_RATE_MINIMUM = 1;
+    private static final int SIMULATION_RATE_STEP = 1;
+    private static final int SPEED_DIALOG_HEIGHT = 4;
+    private static final int TILE_SHADE_COUNT = 64;
     private static final double VERSION = 1.0;
+    private static final double ZOOM_FACTOR = 1.25;
 
     // instance fields
-    private CellPanel[][] cellPanels;
+    private Timer autosaveTimer;
+    private CellCanvas canvas;
     private File currentFile;
     private JFrame frame;
     private JLabel generationLabel;
-    private JPanel grid;
     private boolean hasChanged;
     private JLabel heightLabel;
-    private boolean isSimulating;
+    private History history;
+    private Future<String> lastSave;
+    private SimulationMetrics metrics;
+    private JLabel metricsLabel;
+    private int pendingSaveCount;
     private GameOfLife simulation;
-    private int simulationDelay;
+    private int simulationRate;
+    private SimulationWorker simulationWorker;
+    private Timer renderTimer;
+    private ExecutorService saveExecutor;
+    private JProgressBar saveProgressBar;
+    private JLabel speedLabel;
     private JLabel statusLabel;
     private JLabel widthLabel;
 
@@ -86,15 +133,78 @@ public class GameOfLifeGUI
     public GameOfLifeGUI()
     {
         hasChanged = false;
-        isSimulating = false;
-        simulationDelay = DEFAULT_SIMULATION_DELAY;
+        simulationRate = DEFAULT_SIMULATION_RATE;
+        metrics = new SimulationMetrics();
+        MetricsExporter.measureAllocations(metrics);
+        if (Boolean.getBoolean(SimulationMetrics.JMX_PROPERTY))
+            MetricsExporter.export(metrics);
+        renderTimer = new Timer(RENDER_DELAY,
+            new ActionListener()
+            {
+                public void actionPerformed(ActionEvent event)
+                {
+                    showLatestSnapshot();
+                    updateSpeedLabel();
+                    updateMetricsLabel();
+                }
+            }
+        );
+        saveExecutor = Executors.newSingleThreadExecutor(
+            new ThreadFactory()
+            {
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "Save");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }
+        );
+        autosaveTimer = new Timer(AUTOSAVE_DELAY,
+            new ActionListener()
+            {
+                public void actionPerformed(ActionEvent event)
+                {
+                    autosave();
+                }
+            }
+        );
         makeFrame();
+        updateSpeedLabel();
+        autosaveTimer.start();
     }
 
     /*
      * methods
      */
 
+    /*
+     * Saves the simulation next to its file, or in the working directory if
+     * it has none, if it has changed and no other save is under way.
+     */
+    private void autosave()
+    {
+        if (simulation == null || !hasChanged || pendingSaveCount > 0)
+            return;
+
+        File file;
+        if (currentFile == null)
+        {
+            file = new File(System.getProperty("user.dir"), AUTOSAVE_NAME +
+                AUTOSAVE_SUFFIX + "." + FileManager.FILE_FORMAT);
+        }
+        else
+        {
+            String name = currentFile.getName();
+            file = new File(currentFile.getAbsoluteFile().getParentFile(),
+                name.substring(0, name.length() -
+                FileManager.FILE_FORMAT.length() - 1) + AUTOSAVE_SUFFIX +
+                "." + FileManager.FILE_FORMAT);
+        }
+
+        saveInBackground(file, true);
+    }
+
     private void createNew()
     {
         stopSimulation();
@@ -120,6 +230,9 @@ public class GameOfLifeGUI
         }
 
         simulation = new GameOfLife(cells);
+        simulationWorker = new SimulationWorker(simulation);
+        simulationWorker.setMetrics(metrics);
+        startHistory();
 
         drawNewSimulation();
         statusLabel.setText("New simulation created.");
@@ -127,31 +240,100 @@ public class GameOfLifeGUI
 
     private void drawNewSimulation()
     {
-        int width = simulation.getWidth();
-        int height = simulation.getHeight();
-        boolean[][] cells = simulation.getCells();
-        cellPanels = new CellPanel[height][width];
-        grid.removeAll();
-        grid.setLayout(new GridLayout(height, width));
-        for (int y = 0; y < height; y++)
-        {
-            for (int x = 0; x < width; x++)
-            {
-                cellPanels[y][x] = new CellPanel(x, y);
-                cellPanels[y][x].setState(cells[y][x]);
-                grid.add(cellPanels[y][x]);
-            }
-        }
+        canvas.setBoardSize(simulation.getWidth(), simulation.getHeight());
+        canvas.setCellStates(new Snapshot(simulation));
 
-        grid.revalidate();
-        grid.repaint();
-
-        generationLabel.setText(Integer.toString(
+        generationLabel.setText(Long.toString(
             simulation.getCurrentGeneration()));
         widthLabel.setText(Integer.toString(simulation.getWidth()));
         heightLabel.setText(Integer.toString(simulation.getHeight()));
     }
 
+    private void finishSave(File file, boolean isAutosave, String error)
+    {
+        pendingSaveCount--;
+        if (pendingSaveCount == 0)
+            saveProgressBar.setVisible(false);
+
+        if (error == null)
+        {
+            statusLabel.setText(isAutosave ? "Autosaved to " + file.getName()
+                + "." : "Simulation saved.");
+        }
+        else if (isAutosave)
+        {
+            statusLabel.setText("Failed to autosave: " + error);
+        }
+        else
+        {
+            setHasChanged(true);
+            showError("Failed to save: " + error);
+        }
+    }
+
+    /*
+     * Opens a file chooser and lets the user select a file to open. Returns
+     * null if the user cancelled.
+     */
+    private File getOpenFile()
+    {
+        FILE_CHOOSER.setFileFilter(OPEN_FILE_FILTER);
+        if (FILE_CHOOSER.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION)
+            return null;
+
+        return FILE_CHOOSER.getSelectedFile();
+    }
+
+    /*
+     * Opens a file chooser and lets the user select a file to save to, adding
+     * the file extension if it is missing. Returns null if the user
+     * cancelled.
+     */
+    private File getSaveFile()
+    {
+        FILE_CHOOSER.setFileFilter(FILE_FILTER);
+        if (FILE_CHOOSER.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION)
+            return null;
+
+        File file = FILE_CHOOSER.getSelectedFile();
+        String filePath = file.getAbsolutePath();
+        if (!filePath.endsWith("." + FileManager.FILE_FORMAT))
+            file = new File(filePath + "." + FileManager.FILE_FORMAT);
+        return file;
+    }
+
+    /*
+     * Asks for a generation in the history and goes back (or forward) to it.
+     */
+    private void goToGeneration()
+    {
+        if (simulation == null)
+        {
+            showError("There is no simulation loaded.");
+            return;
+        }
+
+        stopSimulation();
+
+        long generation = promptForGeneration();
+        if (generation == -1) return;
+
+        Snapshot snapshot = history.seek(generation);
+        if (snapshot == null)
+        {
+            showError("Generation " + generation + " is not in the history.");
+            return;
+        }
+
+        restoreGeneration(snapshot);
+        statusLabel.setText("Went to generation " + generation + ".");
+    }
+
+    private boolean isSimulating()
+    {
+        return simulationWorker != null && simulationWorker.isRunning();
+    }
+
     private void makeFrame()
     {
         frame = new JFrame("Game of Life Simulator");
@@ -191,12 +373,11 @@ public class GameOfLifeGUI
         frame.setVisible(true);
     }
 
-    private JPanel makeGrid()
+    private CellCanvas makeGrid()
     {
-        grid = new JPanel();
-        grid.setBackground(Color.WHITE);
+        canvas = new CellCanvas();
 
-        return grid;
+        return canvas;
     }
 
     private JPanel makeInfoBar()
@@ -205,9 +386,17 @@ public class GameOfLifeGUI
         JPanel infoBar = new JPanel();
         infoBar.setLayout(new GridLayout(INFO_BAR_HEIGHT, INFO_BAR_WIDTH));
 
-        // Create 'status' label.
+        // Create 'status' label and 'save progress' bar.
+        Container statusContainer = new Container();
+        FlowLayout statusLayout = new FlowLayout(FlowLayout.LEFT);
+        statusLayout.setHgap(0);
+        statusContainer.setLayout(statusLayout);
         statusLabel = new JLabel("No simulation loaded.");
-        infoBar.add(statusLabel);
+        saveProgressBar = new JProgressBar();
+        saveProgressBar.setVisible(false);
+        statusContainer.add(statusLabel);
+        statusContainer.add(saveProgressBar);
+        infoBar.add(statusContainer);
 
         // Create 'generation' label.
         Container generationContainer = new Container();
@@ -220,6 +409,17 @@ public class GameOfLifeGUI
         generationContainer.add(generationLabel);
         infoBar.add(generationContainer);
 
+        // Create 'speed' label.
+        Container speedContainer = new Container();
+        FlowLayout speedLayout = new FlowLayout(FlowLayout.LEFT);
+        speedLayout.setHgap(0);
+        speedContainer.setLayout(speedLayout);
+        JLabel speedTextLabel = new JLabel("Speed: ");
+        speedLabel = new JLabel("?");
+        speedContainer.add(speedTextLabel);
+        speedContainer.add(speedLabel);
+        infoBar.add(speedContainer);
+
         // Create 'width' and 'height' labels.
         Container dimensionsContainer = new Container();
         FlowLayout dimensionsLayout = new FlowLayout(FlowLayout.LEFT);
@@ -235,6 +435,17 @@ public class GameOfLifeGUI
         dimensionsContainer.add(heightLabel);
         infoBar.add(dimensionsContainer);
 
+        // Create 'metrics' label.
+        Container metricsContainer = new Container();
+        FlowLayout metricsLayout = new FlowLayout(FlowLayout.LEFT);
+        metricsLayout.setHgap(0);
+        metricsContainer.setLayout(metricsLayout);
+        JLabel metricsTextLabel = new JLabel("Metrics: ");
+        metricsLabel = new JLabel("?");
+        metricsContainer.add(metricsTextLabel);
+        metricsContainer.add(metricsLabel);
+        infoBar.add(metricsContainer);
+
         return infoBar;
     }
 
@@ -344,6 +555,34 @@ public class GameOfLifeGUI
             }
         ));
 
+        // Create 'step back' menu item.
+        JMenuItem stepBackItem = new JMenuItem("Step Back");
+        controlsMenu.add(stepBackItem);
+        stepBackItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_G,
+            SHORTCUT_MASK | InputEvent.SHIFT_DOWN_MASK));
+        stepBackItem.addActionListener((
+            new ActionListener()
+            {
+                public void actionPerformed(ActionEvent e)
+                {
+                    stepBack();
+                }
+            }
+        ));
+
+        // Create 'go to generation' menu item.
+        JMenuItem goToItem = new JMenuItem("Go to Generation" + ELLIPSIS);
+        controlsMenu.add(goToItem);
+        goToItem.addActionListener((
+            new ActionListener()
+            {
+                public void actionPerformed(ActionEvent e)
+                {
+                    goToGeneration();
+                }
+            }
+        ));
+
         // Create 'play/pause' menu item.
         JMenuItem playPauseItem = new JMenuItem("Play/Pause");
         controlsMenu.add(playPauseItem);
@@ -372,6 +611,55 @@ public class GameOfLifeGUI
             }
         ));
 
+        // Create 'view' menu.
+        JMenu viewMenu = new JMenu("View");
+        menuBar.add(viewMenu);
+
+        // Create 'zoom in' menu item.
+        JMenuItem zoomInItem = new JMenuItem("Zoom In");
+        viewMenu.add(zoomInItem);
+        zoomInItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_EQUALS,
+            SHORTCUT_MASK));
+        zoomInItem.addActionListener((
+            new ActionListener()
+            {
+                public void actionPerformed(ActionEvent e)
+                {
+                    canvas.zoomIn();
+                }
+            }
+        ));
+
+        // Create 'zoom out' menu item.
+        JMenuItem zoomOutItem = new JMenuItem("Zoom Out");
+        viewMenu.add(zoomOutItem);
+        zoomOutItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_MINUS,
+            SHORTCUT_MASK));
+        zoomOutItem.addActionListener((
+            new ActionListener()
+            {
+                public void actionPerformed(ActionEvent e)
+                {
+                    canvas.zoomOut();
+                }
+            }
+        ));
+
+        // Create 'fit to window' menu item.
+        JMenuItem fitItem = new JMenuItem("Fit to Window");
+        viewMenu.add(fitItem);
+        fitItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_0,
+            SHORTCUT_MASK));
+        fitItem.addActionListener((
+            new ActionListener()
+            {
+                public void actionPerformed(ActionEvent e)
+                {
+                    canvas.fitBoard();
+                }
+            }
+        ));
+
         /// Create 'help' menu.
         JMenu helpMenu = new JMenu("Help");
         menuBar.add(helpMenu);
@@ -412,22 +700,29 @@ public class GameOfLifeGUI
 
         if (hasChanged && !promptToSave()) return;
 
-        File file = FileManager.getOpenFile(frame);
+        File file = getOpenFile();
         if (file != null)
         {
             currentFile = file;
-            GameOfLife loadedSimulation =
-                FileManager.loadSimulation(currentFile);
-            if (loadedSimulation != null)
+            try
             {
+                GameOfLife loadedSimulation = (GameOfLife)FileManager
+                    .readSimulation(currentFile, Engine.SCALAR, null);
+                // Saving writes a .gol file, which must not replace an
+                // imported pattern, so the user is asked where to save it.
+                if (!file.getName().endsWith("." + FileManager.FILE_FORMAT))
+                    currentFile = null;
                 simulation = loadedSimulation;
+                simulationWorker = new SimulationWorker(simulation);
+                simulationWorker.setMetrics(metrics);
+                startHistory();
                 setHasChanged(false);
                 drawNewSimulation();
                 statusLabel.setText("Simulation opened.");
             }
-            else
+            catch (IOException exception)
             {
-                showError("Failed to open.");
+                showError("Failed to open: " + exception.getMessage());
             }
         }
     }
@@ -440,37 +735,10 @@ public class GameOfLifeGUI
             return;
         }
 
-        if (isSimulating) stopSimulation();
+        if (isSimulating()) stopSimulation();
         else startSimulation();
     }
 
-    private int promptForDelay()
-    {
-        JPanel speedDialogPanel = new JPanel();
-        speedDialogPanel.setLayout(new GridLayout(SPEED_DIALOG_HEIGHT, 1));
-        speedDialogPanel.add(new JLabel("Delay between each generation."));
-        speedDialogPanel.add(new JLabel("Higher value results in slower" +
-            " simulation."));
-        JPanel delayInputPanel = new JPanel();
-        delayInputPanel.setLayout(new FlowLayout());
-        JSpinner delaySpinner = new JSpinner(new SpinnerNumberModel(
-            simulationDelay, SIMULATION_DELAY_MINIMUM,
-            SIMULATION_DELAY_MAXIMUM, SIMULATION_DELAY_STEP));
-        delayInputPanel.add(delaySpinner);
-        delayInputPanel.add(new JLabel("milliseconds"));
-        speedDialogPanel.add(delayInputPanel);
-        if (JOptionPane.showConfirmDialog(null, speedDialogPanel,
-            "Set Speed", JOptionPane.OK_CANCEL_OPTION,
-            JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION)
-        {
-            return -1;
-        } /* JOptionPane.showConfirmDialog(null, speedDialogPanel, "Set Speed",
-             JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE !=
-             JOptionPane.OK_OPTION) */
-
-        return ((Integer)delaySpinner.getValue()).intValue();
-    }
-
     private Dimension promptForDimensions()
     {
         JTextField widthField = new JTextField();
@@ -518,6 +786,66 @@ public class GameOfLifeGUI
         }
     }
 
+    /*
+     * Returns the chosen generation, or -1 if the user cancelled.
+     */
+    private long promptForGeneration()
+    {
+        JPanel generationDialogPanel = new JPanel();
+        generationDialogPanel.setLayout(new GridLayout(2, 1));
+        generationDialogPanel.add(new JLabel("Generations " +
+            history.getFirstGeneration() + " to " +
+            history.getLastGeneration() + " can be gone back to."));
+        JSpinner generationSpinner = new JSpinner(new SpinnerNumberModel(
+            Long.valueOf(simulation.getCurrentGeneration()),
+            Long.valueOf(history.getFirstGeneration()),
+            Long.valueOf(history.getLastGeneration()), Long.valueOf(1)));
+        generationDialogPanel.add(generationSpinner);
+        if (JOptionPane.showConfirmDialog(null, generationDialogPanel,
+            "Go to Generation", JOptionPane.OK_CANCEL_OPTION,
+            JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION)
+        {
+            return -1;
+        }
+
+        return ((Number)generationSpinner.getValue()).longValue();
+    }
+
+    /*
+     * Returns the chosen number of generations per second, 0 to simulate as
+     * fast as possible, or -1 if the user cancelled.
+     */
+    private int promptForRate()
+    {
+        JPanel speedDialogPanel = new JPanel();
+        speedDialogPanel.setLayout(new GridLayout(SPEED_DIALOG_HEIGHT, 1));
+        speedDialogPanel.add(new JLabel("Generations simulated per second."));
+        speedDialogPanel.add(new JLabel("Higher value results in faster" +
+            " simulation."));
+        JPanel rateInputPanel = new JPanel();
+        rateInputPanel.setLayout(new FlowLayout());
+        JSpinner rateSpinner = new JSpinner(new SpinnerNumberModel(
+            Math.max(simulationRate, SIMULATION_RATE_MINIMUM),
+            SIMULATION_RATE_MINIMUM, SIMULATION_RATE_MAXIMUM,
+            SIMULATION_RATE_STEP));
+        rateInputPanel.add(rateSpinner);
+        rateInputPanel.add(new JLabel("generations/second"));
+        speedDialogPanel.add(rateInputPanel);
+        JCheckBox unthrottledCheckBox = new JCheckBox("As fast as possible",
+            simulationRate == 0);
+        speedDialogPanel.add(unthrottledCheckBox);
+        if (JOptionPane.showConfirmDialog(null, speedDialogPanel,
+            "Set Speed", JOptionPane.OK_CANCEL_OPTION,
+            JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION)
+        {
+            return -1;
+        }
+
+        if (unthrottledCheckBox.isSelected())
+            return 0;
+        return ((Integer)rateSpinner.getValue()).intValue();
+    }
+
     private boolean promptToSave()
     {
         JPanel savePromptDialogPanel = new JPanel();
@@ -547,12 +875,28 @@ public class GameOfLifeGUI
     {
         stopSimulation();
         if (hasChanged && !promptToSave()) return;
+        if (!waitForLastSave()) return;
 
         frame.setVisible(false);
         frame.dispose();
         System.exit(0);
     }
 
+    /*
+     * Replaces the simulation with one on a generation rebuilt by the
+     * history, which carries on recording from there.
+     */
+    private void restoreGeneration(Snapshot snapshot)
+    {
+        simulation = (GameOfLife)Engine.SCALAR.create(snapshot,
+            simulation.getRule());
+        simulationWorker = new SimulationWorker(simulation);
+        simulationWorker.setMetrics(metrics);
+        simulationWorker.setHistory(history);
+        setHasChanged(true);
+        showSnapshot(snapshot);
+    }
+
     private void save()
     {
         if (simulation == null)
@@ -561,24 +905,10 @@ public class GameOfLifeGUI
             return;
         }
 
-        stopSimulation();
-
         if (currentFile == null)
-        {
             saveAs();
-        }
         else
-        {
-            if (FileManager.saveSimulation(currentFile, simulation))
-            {
-                setHasChanged(false);
-                statusLabel.setText("Simulation saved.");
-            }
-            else
-            {
-                showError("Failed to save.");
-            }
-        }
+            saveInBackground(currentFile, false);
     }
 
     private void saveAs()
@@ -589,22 +919,95 @@ public class GameOfLifeGUI
             return;
         }
 
-        stopSimulation();
-
-        File file = FileManager.getSaveFile(frame);
+        File file = getSaveFile();
         if (file != null)
         {
             currentFile = file;
-            if (FileManager.saveSimulation(currentFile, simulation))
+            saveInBackground(currentFile, false);
+        }
+    }
+
+    /*
+     * Saves the simulation as it is now without waiting for it to be
+     * written: a snapshot is taken between two generations, so the
+     * simulation keeps running, and written on the save thread while the
+     * progress bar shows how far it has got. Saves are written one at a time,
+     * in order. A simulation which is not running no longer has unsaved
+     * changes, unless the save fails; autosaves do not count as saving.
+     */
+    private void saveInBackground(final File file, final boolean isAutosave)
+    {
+        final Future<Snapshot> snapshot = simulationWorker.requestSnapshot();
+        final Rule rule = simulation.getRule();
+        final DoubleConsumer progress =
+            new DoubleConsumer()
             {
-                setHasChanged(false);
-                statusLabel.setText("Simulation saved.");
-            }
-            else
+                private int percentage;
+
+                public void accept(double fraction)
+                {
+                    final int newPercentage = (int)(fraction * 100);
+                    if (newPercentage == percentage)
+                        return;
+
+                    percentage = newPercentage;
+                    SwingUtilities.invokeLater(
+                        new Runnable()
+                        {
+                            public void run()
+                            {
+                                saveProgressBar.setValue(newPercentage);
+                            }
+                        }
+                    );
+                }
+            };
+
+        pendingSaveCount++;
+        saveProgressBar.setValue(0);
+        saveProgressBar.setVisible(true);
+        statusLabel.setText(isAutosave ? "Autosaving..." : "Saving...");
+        if (!isAutosave && !isSimulating())
+            setHasChanged(false);
+
+        lastSave = saveExecutor.submit(
+            new Callable<String>()
             {
-                showError("Failed to save.");
+                public String call()
+                {
+                    String error = null;
+                    try
+                    {
+                        FileManager.writeSimulation(file, snapshot.get(), rule,
+                            progress);
+                    }
+                    catch (IOException exception)
+                    {
+                        error = exception.getMessage();
+                    }
+                    catch (InterruptedException exception)
+                    {
+                        error = "interrupted";
+                    }
+                    catch (ExecutionException exception)
+                    {
+                        error = exception.getCause().getMessage();
+                    }
+
+                    final String finalError = error;
+                    SwingUtilities.invokeLater(
+                        new Runnable()
+                        {
+                            public void run()
+                            {
+                                finishSave(file, isAutosave, finalError);
+                            }
+                        }
+                    );
+                    return isAutosave ? null : error;
+                }
             }
-        }
+        );
     }
 
     private void setHasChanged(boolean hasChanged)
@@ -623,10 +1026,11 @@ public class GameOfLifeGUI
 
         stopSimulation();
 
-        int delay = promptForDelay();
-        if (delay == -1) return;
+        int rate = promptForRate();
+        if (rate == -1) return;
 
-        simulationDelay = delay;
+        simulationRate = rate;
+        updateSpeedLabel();
     }
 
     private void showAboutDialog()
@@ -661,6 +1065,10 @@ public class GameOfLifeGUI
         howToUseDialogPanel.add(new JLabel("Click on a cell to toggle its" +
             " state."));
 
+        howToUseDialogPanel.add(new JLabel("<html>Zoom with the mouse wheel" +
+            " or <font color=\"gray\">View</font>; drag with the right" +
+            " button to pan.</html>"));
+
         howToUseDialogPanel.add(new JLabel("<html><font color=\"green\">" +
             "GREEN</font> = alive, <font color=\"gray\">GREY</font> = dead" +
             "</html>"));
@@ -669,6 +1077,14 @@ public class GameOfLifeGUI
             " <font color=\"gray\">Controls > Simulate Next Generation" +
             "</font></html>"));
 
+        howToUseDialogPanel.add(new JLabel("<html>Go back through recent" +
+            " generations: <font color=\"gray\">Controls > Step Back</font>" +
+            "</html>"));
+
+        howToUseDialogPanel.add(new JLabel("<html>Jump to a recent" +
+            " generation: <font color=\"gray\">Controls > Go to Generation" +
+            "</font></html>"));
+
         howToUseDialogPanel.add(new JLabel("<html>Start an indefinite" +
             " simulation: <font color=\"gray\">Controls > Play/Pause</font>" +
             "</html>"));
@@ -692,23 +1108,30 @@ public class GameOfLifeGUI
             JOptionPane.INFORMATION_MESSAGE);
     }
 
+    /*
+     * Shows the latest snapshot published by the simulation worker, unless
+     * it has already been shown. Called by the render timer at display rate,
+     * so the generations simulated in between are never drawn.
+     */
+    private void showLatestSnapshot()
+    {
+        Snapshot snapshot = simulationWorker.takeSnapshot();
+        if (snapshot != null)
+            showSnapshot(snapshot);
+    }
+
+    private void showSnapshot(Snapshot snapshot)
+    {
+        canvas.setCellStates(snapshot);
+        generationLabel.setText(Long.toString(snapshot.getGeneration()));
+    }
+
     private void simulateNextGeneration()
     {
         simulation.simulateNextGeneration();
+        history.record(simulation);
         setHasChanged(true);
-        boolean[][] cells = simulation.getCells();
-        int width = simulation.getWidth();
-        int height = simulation.getHeight();
-        for (int y = 0; y < height; y++)
-        {
-            for (int x = 0; x < width; x++)
-            {
-                cellPanels[y][x].setState(cells[y][x]);
-            }
-        }
-
-        generationLabel.setText(Integer.toString(
-            simulation.getCurrentGeneration()));
+        showSnapshot(new Snapshot(simulation));
     }
 
     private void simulateOneGeneration()
@@ -719,48 +1142,65 @@ public class GameOfLifeGUI
             return;
         }
 
-        if (isSimulating) return;
+        if (isSimulating()) return;
 
         simulateNextGeneration();
         statusLabel.setText("Simulated one generation.");
     }
 
+    /*
+     * Starts a new history, which records the simulation from its current
+     * generation on.
+     */
+    private void startHistory()
+    {
+        history = new History(simulation.getWidth(), simulation.getHeight(),
+            HISTORY_MEMORY_BUDGET);
+        history.record(simulation);
+        simulationWorker.setHistory(history);
+    }
+
     private void startSimulation()
     {
-        if (isSimulating) return;
-        isSimulating = true;
+        if (isSimulating()) return;
+        setHasChanged(true);
         statusLabel.setText("Simulation started.");
-        (new Thread(
-            new Runnable()
-            {
-                public void run()
-                {
-                    int timeHasPassed = 0;
-                    while (isSimulating)
-                    {
-                        try
-                        {
-                            Thread.sleep(SIMULATION_CHECK_DELAY);
-                            timeHasPassed = timeHasPassed +
-                                SIMULATION_CHECK_DELAY;
-                            if (timeHasPassed >= simulationDelay)
-                            {
-                                timeHasPassed = 0;
-                                simulateNextGeneration();
-                            }
-                        }
-                        catch (Exception exception)
-                        {
-                        }
-                    }
-                }
-            }
-        )).start();
+        simulationWorker.setTargetRate(simulationRate);
+        simulationWorker.start();
+        renderTimer.start();
+    }
+
+    private void stepBack()
+    {
+        if (simulation == null)
+        {
+            showError("There is no simulation loaded.");
+            return;
+        }
+
+        if (isSimulating()) return;
+
+        Snapshot snapshot = history.seek(simulation.getCurrentGeneration() - 1);
+        if (snapshot == null)
+        {
+            showError("The previous generation is not in the history.");
+            return;
+        }
+
+        restoreGeneration(snapshot);
+        statusLabel.setText("Stepped back one generation.");
     }
 
     private void stopSimulation()
     {
-        isSimulating = false;
+        if (isSimulating())
+        {
+            simulationWorker.stop();
+            renderTimer.stop();
+            showLatestSnapshot();
+        }
+        updateSpeedLabel();
+        updateMetricsLabel();
         statusLabel.setText("Simulation stopped.");
     }
 
@@ -779,6 +1219,71 @@ public class GameOfLifeGUI
         }
     }
 
+    /*
+     * Shows the metrics of the last measurement: the cell update rate, the
+     * step latencies, the frame rate, the population and, if the JVM can
+     * measure it, the allocation rate.
+     */
+    private void updateMetricsLabel()
+    {
+        String allocation = metrics.getAllocationRate() < 0 ? ""
+            : String.format(", %,.1f MB/s allocated",
+            metrics.getAllocationRate() / BYTES_PER_MEGABYTE);
+        metricsLabel.setText(String.format("%.3g cells/s, step %.3f/%.3f/"
+            + "%.3f ms (median/99th/max), %.0f fps, %,d alive%s",
+            metrics.getCellUpdateRate(),
+            metrics.getStepLatencyMedian() / NANOSECONDS_PER_MILLISECOND,
+            metrics.getStepLatency99thPercentile()
+            / NANOSECONDS_PER_MILLISECOND,
+            metrics.getStepLatencyMaximum() / NANOSECONDS_PER_MILLISECOND,
+            metrics.getFrameRate(), metrics.getPopulation(), allocation));
+    }
+
+    /*
+     * Shows the target rate, and while simulating, the achieved rate and how
+     * far it falls behind the target.
+     */
+    private void updateSpeedLabel()
+    {
+        String target = simulationRate == 0 ? "as fast as possible"
+            : String.format("%,d generations/s", simulationRate);
+        double achievedRate = isSimulating()
+            ? simulationWorker.getAchievedRate() : 0;
+        if (achievedRate == 0)
+            speedLabel.setText(target);
+        else if (simulationRate == 0)
+            speedLabel.setText(String.format("%,.0f generations/s (%s)",
+                achievedRate, target));
+        else
+            speedLabel.setText(String.format(
+                "%,.0f of %s (%.1f%% behind)", achievedRate, target,
+                Math.max(0, 100 * (1 - achievedRate / simulationRate))));
+    }
+
+    /*
+     * Waits until every save has been written, i.e. the last one, as they
+     * are written in order. Returns false if it failed, in which case its
+     * error is about to be shown.
+     */
+    private boolean waitForLastSave()
+    {
+        if (lastSave == null)
+            return true;
+
+        try
+        {
+            return lastSave.get() == null;
+        }
+        catch (InterruptedException exception)
+        {
+            return false;
+        }
+        catch (ExecutionException exception)
+        {
+            return false;
+        }
+    }
+
     /*
      * main method
      */
@@ -797,270 +1302,571 @@ public class GameOfLifeGUI
      * inner classes
      */
 
-    private class CellPanel extends JPanel
+    private class CellCanvas extends JComponent
     {
         // instance fields
-        private boolean isAlive;
-        private int x;
-        private int y;
+        private int boardHeight;
+        private int boardWidth;
+        private double cellSize;
+        private long changesSincePaint;
+        private int dragX;
+        private int dragY;
+        private long generation;
+        private int hoveredX;
+        private int hoveredY;
+        private BufferedImage image;
+        private boolean isFitted;
+        private int originX;
+        private int originY;
+        private int[] pixels;
+        private PopulationPyramid pyramid;
+        private long[] shownCells;
+        private BufferedImage tileImage;
+        private int[] tilePixels;
+        private int[] tileShades;
 
         /*
          * constructor
          */
 
         /**
-         * Calls the super class' constructor then sets this
-         * <code>CellPanel</code>'s state to dead.
-         *
-         * @param x the x-coordinate of the cell in the simulation
-         * @param y the y-coordinate of the cell in the simulation
+         * Calls the super class' constructor then listens to the mouse, so
+         * that the cell under it is highlighted, clicking it toggles its
+         * state, the wheel zooms and dragging with the right or middle button
+         * pans. Nothing is drawn until a board is set.
          */
-        public CellPanel(final int x, final int y)
+        public CellCanvas()
         {
             super();
 
-            this.x = x;
-            this.y = y;
-            setState(false);
-            setBorder(BorderFactory.createLineBorder(Color.BLACK));
-            addMouseListener(
-                new MouseListener()
-                {
-                    public void mouseClicked(MouseEvent event) { }
+            cellSize = 1;
+            hoveredX = -1;
+            hoveredY = -1;
+            isFitted = true;
 
-                    public void mouseEntered(MouseEvent event)
+            // Shade 0 is an empty tile; the others run from sparsely
+            // populated to full, starting bright enough to stand out.
+            tileShades = new int[TILE_SHADE_COUNT];
+            for (int i = 1; i < TILE_SHADE_COUNT; i++)
+            {
+                double fraction = MINIMUM_TILE_SHADE + (1 - MINIMUM_TILE_SHADE)
+                    * (i - 1) / (TILE_SHADE_COUNT - 2);
+                tileShades[i] = new Color(
+                    blend(DEAD_CELL.getRed(), ALIVE_CELL.getRed(), fraction),
+                    blend(DEAD_CELL.getGreen(), ALIVE_CELL.getGreen(),
+                        fraction),
+                    blend(DEAD_CELL.getBlue(), ALIVE_CELL.getBlue(), fraction)
+                    ).getRGB();
+            }
+            tileShades[0] = DEAD_CELL.getRGB();
+
+            MouseAdapter mouseAdapter =
+                new MouseAdapter()
+                {
+                    public void mouseDragged(MouseEvent event)
                     {
-                        Color b = getBackground();
-                        setBackground(new Color(b.getRed(), b.getGreen(),
-                            b.getBlue(), MOUSED_OVER_CELL_ALPHA));
-                        grid.repaint();
+                        if ((event.getModifiersEx()
+                            & (InputEvent.BUTTON2_DOWN_MASK
+                            | InputEvent.BUTTON3_DOWN_MASK)) != 0)
+                        {
+                            isFitted = false;
+                            setOrigin(originX + event.getX() - dragX,
+                                originY + event.getY() - dragY);
+                            dragX = event.getX();
+                            dragY = event.getY();
+                        }
+                        mouseMoved(event);
                     }
 
                     public void mouseExited(MouseEvent event)
                     {
-                        updateBackground();
+                        setHoveredCell(-1, -1);
+                    }
+
+                    public void mouseMoved(MouseEvent event)
+                    {
+                        setHoveredCell(getCellX(event.getX()),
+                            getCellY(event.getY()));
                     }
 
                     public void mousePressed(MouseEvent event)
                     {
-                        if (event.getButton() == MouseEvent.BUTTON1)
+                        dragX = event.getX();
+                        dragY = event.getY();
+                        int x = getCellX(event.getX());
+                        int y = getCellY(event.getY());
+                        if (event.getButton() == MouseEvent.BUTTON1
+                            && image != null && isCellOnBoard(x, y))
                         {
-                            simulation.setCellState(x, y, !isAlive);
-                            setState(!isAlive);
-                            setHasChanged(true);
+                            toggleCellState(x, y);
                         }
                     }
 
-                    public void mouseReleased(MouseEvent event) { }
+                    public void mouseWheelMoved(MouseWheelEvent event)
+                    {
+                        if (event.getWheelRotation() < 0)
+                            zoomIn(event.getX(), event.getY());
+                        else if (event.getWheelRotation() > 0)
+                            zoomOut(event.getX(), event.getY());
+                        mouseMoved(event);
+                    }
+                };
+            addMouseListener(mouseAdapter);
+            addMouseMotionListener(mouseAdapter);
+            addMouseWheelListener(mouseAdapter);
+
+            addComponentListener(
+                new ComponentAdapter()
+                {
+                    public void componentResized(ComponentEvent event)
+                    {
+                        if (isFitted)
+                            fitBoard();
+                        else
+                            setOrigin(originX, originY);
+                    }
                 }
             );
         }
 
         /*
-         * mutator
+         * mutators
+         */
+
+        /**
+         * Zooms to the largest cell size at which the whole board fits, and
+         * keeps fitting it as this <code>CellCanvas</code> is resized until
+         * the user zooms or pans.
+         */
+        public void fitBoard()
+        {
+            isFitted = true;
+            if (image == null || getWidth() == 0 || getHeight() == 0)
+                return;
+
+            cellSize = getFittedCellSize();
+            setOrigin(0, 0);
+        }
+
+        /**
+         * Sets the size of the board, with every cell dead, and fits it.
+         *
+         * @param width the width of the board
+         * @param height the height of the board
          */
+        public void setBoardSize(int width, int height)
+        {
+            boardWidth = width;
+            boardHeight = height;
+            image = new BufferedImage(width, height,
+                BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt)image.getRaster().getDataBuffer())
+                .getData();
+            Arrays.fill(pixels, DEAD_CELL.getRGB());
+            pyramid = new PopulationPyramid(width, height);
+            shownCells = new long[((width + Long.SIZE - 1) >>> 6) * height];
+            hoveredX = -1;
+            hoveredY = -1;
+            fitBoard();
+            repaint();
+        }
 
         /**
-         * Sets the state of this <code>CellPanel</code>.
+         * Sets the state of one cell.
          *
+         * @param x the x-coordinate of the cell
+         * @param y the y-coordinate of the cell
          * @param state <code>true</code> for alive,
          * <code>false</code> for dead
          */
-        public void setState(boolean state)
+        public void setCellState(int x, int y, boolean state)
         {
-            isAlive = state;
-            updateBackground();
+            int i = y * boardWidth + x;
+            int pixel = state ? ALIVE_CELL.getRGB() : DEAD_CELL.getRGB();
+            if (pixels[i] != pixel)
+            {
+                pixels[i] = pixel;
+                shownCells[y * ((boardWidth + Long.SIZE - 1) >>> 6)
+                    + (x >>> 6)] ^= 1L << x;
+                pyramid.setCellChanged(x, y, state);
+                changesSincePaint++;
+            }
+            repaintCell(x, y);
         }
 
-        /*
-         * methods
+        /**
+         * Sets the state of every cell to its state in a snapshot whose size
+         * is the size of the board. If the snapshot lists the cells which
+         * changed since the previous one shown, only those are updated;
+         * otherwise its packed cells are compared with the cells shown a
+         * word at a time, and only the cells of the words which differ are
+         * updated.
+         *
+         * @param snapshot the snapshot to show
          */
-
-        private void updateBackground()
+        public void setCellStates(Snapshot snapshot)
         {
-            if (isAlive)
-                setBackground(ALIVE_CELL);
+            int alive = ALIVE_CELL.getRGB();
+            int dead = DEAD_CELL.getRGB();
+            int wordsPerRow = (boardWidth + Long.SIZE - 1) >>> 6;
+            long[] cells = snapshot.getCells();
+            int[] changedCells = snapshot.getChangedCells();
+            if (changedCells != null)
+            {
+                for (int i : changedCells)
+                {
+                    int x = i % boardWidth;
+                    int y = i / boardWidth;
+                    int word = y * wordsPerRow + (x >>> 6);
+                    long bit = (cells[word] ^ shownCells[word]) & (1L << x);
+                    if (bit != 0)
+                    {
+                        boolean state = (cells[word] & bit) != 0;
+                        shownCells[word] ^= bit;
+                        pixels[i] = state ? alive : dead;
+                        pyramid.setCellChanged(x, y, state);
+                        changesSincePaint++;
+                    }
+                }
+            }
             else
-                setBackground(DEAD_CELL);
+            {
+                for (int y = 0, word = 0; y < boardHeight; y++)
+                {
+                    for (int x = 0; x < boardWidth; x += Long.SIZE, word++)
+                    {
+                        long changed = cells[word] ^ shownCells[word];
+                        if (changed == 0)
+                            continue;
+
+                        shownCells[word] = cells[word];
+                        for (; changed != 0; changed &= changed - 1)
+                        {
+                            int bit = Long.numberOfTrailingZeros(changed);
+                            pixels[y * boardWidth + x + bit] =
+                                (cells[word] & (1L << bit)) != 0 ? alive
+                                : dead;
+                            changesSincePaint++;
+                        }
+                    }
+                }
+                pyramid.setCells(snapshot);
+            }
+
+            generation = snapshot.getGeneration();
+            repaint();
         }
-    }
 
-    private static class FileManager
-    {
-        // class fields
-        private static final char ALIVE_CELL = 'A';
-        private static final char DEAD_CELL = 'D';
-        private static final JFileChooser FILE_CHOOSER =
-            new JFileChooser(System.getProperty("user.dir"));
-        private static final FileNameExtensionFilter FILE_FILTER =
-            new FileNameExtensionFilter("Game of Life Simulation File (." +
-                FILE_FORMAT + ")", FILE_FORMAT);
+        /**
+         * Zooms in one step, keeping the centre of this
+         * <code>CellCanvas</code> in place.
+         */
+        public void zoomIn()
+        {
+            zoomIn(getWidth() / 2, getHeight() / 2);
+        }
+
+        /**
+         * Zooms out one step, keeping the centre of this
+         * <code>CellCanvas</code> in place.
+         */
+        public void zoomOut()
+        {
+            zoomOut(getWidth() / 2, getHeight() / 2);
+        }
 
         /*
          * methods
          */
 
         /**
-         * Opens a file chooser and lets the user select a file to open.
+         * Paints the part of the board which is visible, with lines between
+         * the cells when they are large enough, and the cell under the mouse
+         * highlighted. Only the cells in the clip are drawn, or, below one
+         * pixel per cell, one tile of the population pyramid per pixel, so
+         * the cost depends on the size of the clip, not of the board. Every
+         * paint is a <code>RenderEvent</code> for Java Flight Recorder.
          *
-         * @param frame the <code>JFrame</code> this file chooser should be a
-         * child of
-         * @return the selected <code>File</code>; <code>null</code> if
-         * user cancelled or file was not found
+         * @param g the <code>Graphics</code> to paint with
          */
-        public static File getOpenFile(JFrame frame)
+        protected void paintComponent(Graphics g)
         {
-            FILE_CHOOSER.setFileFilter(FILE_FILTER);
-            if (FILE_CHOOSER.showOpenDialog(frame) !=
-                JFileChooser.APPROVE_OPTION)
-                return null;
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            if (image == null)
+                return;
+            metrics.recordFrame();
+            RenderEvent event = FlightEvents.beginRender();
+
+            Rectangle clip = g.getClipBounds();
+            if (clip == null)
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            int firstX = Math.max(0, getCellX(clip.x));
+            int firstY = Math.max(0, getCellY(clip.y));
+            int lastX = Math.min(boardWidth,
+                getCellX(clip.x + clip.width - 1) + 1);
+            int lastY = Math.min(boardHeight,
+                getCellY(clip.y + clip.height - 1) + 1);
+            if (firstX >= lastX || firstY >= lastY)
+                return;
+
+            int left = getCellLeft(firstX);
+            int top = getCellTop(firstY);
+            int right = getCellLeft(lastX);
+            int bottom = getCellTop(lastY);
+            if (cellSize >= 1)
+                g.drawImage(image, left, top, right, bottom, firstX, firstY,
+                    lastX, lastY, null);
+            else
+                paintTiles(g, firstX, firstY, lastX, lastY);
+
+            if (cellSize >= GRID_LINE_MINIMUM_CELL_SIZE)
+            {
+                g.setColor(Color.BLACK);
+                for (int x = firstX; x <= lastX; x++)
+                    g.drawLine(getCellLeft(x), top, getCellLeft(x), bottom);
+                for (int y = firstY; y <= lastY; y++)
+                    g.drawLine(left, getCellTop(y), right, getCellTop(y));
+            }
+
+            if (isCellOnBoard(hoveredX, hoveredY))
+            {
+                Color cell = new Color(pixels[hoveredY * boardWidth
+                    + hoveredX]);
+                int cellLeft = getCellLeft(hoveredX);
+                int cellTop = getCellTop(hoveredY);
+                int cellWidth = Math.max(1, getCellLeft(hoveredX + 1)
+                    - cellLeft);
+                int cellHeight = Math.max(1, getCellTop(hoveredY + 1)
+                    - cellTop);
+                g.setColor(Color.WHITE);
+                g.fillRect(cellLeft, cellTop, cellWidth, cellHeight);
+                g.setColor(new Color(cell.getRed(), cell.getGreen(),
+                    cell.getBlue(), MOUSED_OVER_CELL_ALPHA));
+                g.fillRect(cellLeft, cellTop, cellWidth, cellHeight);
+            }
 
-            return FILE_CHOOSER.getSelectedFile();
+            if (event != null && event.shouldCommit())
+            {
+                event.generation = generation;
+                event.width = boardWidth;
+                event.height = boardHeight;
+                event.changedCells = changesSincePaint;
+                event.paintedCells = (long)(lastX - firstX) * (lastY - firstY);
+                event.commit();
+            }
+            changesSincePaint = 0;
         }
 
-        /**
-         * Opens a file chooser and lets the user select a file to save to.
-         *
-         * @param frame the <code>JFrame</code> this file chooser should be a
-         * child of
-         * @return the selected <code>File</code>; <code>null</code> if
-         * user cancelled or an error occurred
+        private int blend(int from, int to, double fraction)
+        {
+            return (int)Math.round(from + (to - from) * fraction);
+        }
+
+        private int getCellLeft(int x)
+        {
+            return originX + (int)Math.floor(x * cellSize);
+        }
+
+        private int getCellTop(int y)
+        {
+            return originY + (int)Math.floor(y * cellSize);
+        }
+
+        private int getCellX(int pixelX)
+        {
+            return (int)Math.floor((pixelX - originX) / cellSize);
+        }
+
+        private int getCellY(int pixelY)
+        {
+            return (int)Math.floor((pixelY - originY) / cellSize);
+        }
+
+        /*
+         * Cells are as large as fit, rounded down to whole pixels so that
+         * every cell is the same size. A board larger than this CellCanvas
+         * gets a pixel per 2, 4, 8, ... cells, so that each pixel shows one
+         * tile of the population pyramid.
          */
-        public static File getSaveFile(JFrame frame)
+        private double getFittedCellSize()
         {
-            FILE_CHOOSER.setFileFilter(FILE_FILTER);
-            if (FILE_CHOOSER.showSaveDialog(frame) !=
-                JFileChooser.APPROVE_OPTION)
-                return null;
+            double fittedSize = Math.min((double)getWidth() / boardWidth,
+                (double)getHeight() / boardHeight);
+            if (fittedSize >= 1)
+                return Math.floor(fittedSize);
+
+            double size = 1;
+            while (size > fittedSize && size > getMinimumCellSize())
+                size /= 2;
+            return size;
+        }
 
-            File file = FILE_CHOOSER.getSelectedFile();
-            String filePath = file.getAbsolutePath();
-            if (!filePath.endsWith("." + FILE_FORMAT))
-                file = new File(filePath + "." + FILE_FORMAT);
-            return file;
+        private double getMinimumCellSize()
+        {
+            return 1.0 / (1 << pyramid.getLevelCount());
         }
 
-        /**
-         * Loads a <code>File</code> as a <code>GameOfLife</code>.
-         *
-         * @param file the <code>File</code> to load
-         * @return the loaded <code>GameOfLife</code>; <code>null</code>
-         * if loading failed
+        /*
+         * Returns where the board starts along one axis, centred if it fits
+         * in the view and otherwise moved as little as needed to fill it.
          */
-        public static GameOfLife loadSimulation(File file)
+        private int getOrigin(int origin, int viewLength, int boardLength)
         {
-            try
-            {
-                GameOfLife simulation = null;
-                BufferedReader reader = new BufferedReader(
-                    new FileReader(file));
-                try
-                {
-                    int generation = Integer.parseInt(reader.readLine());
-                    int width = Integer.parseInt(reader.readLine());
-                    int height = Integer.parseInt(reader.readLine());
+            int length = (int)Math.ceil(boardLength * cellSize);
+            if (length <= viewLength)
+                return (viewLength - length) / 2;
 
-                    boolean[][] cells = new boolean[height][width];
+            return Math.max(viewLength - length, Math.min(0, origin));
+        }
 
-                    for (int y = 0; y < height; y++)
-                    {
-                        String line = reader.readLine();
-                        if (line == null)
-                            throw new Exception();
+        private boolean isCellOnBoard(int x, int y)
+        {
+            return x >= 0 && x < boardWidth && y >= 0 && y < boardHeight;
+        }
 
-                        cells[y] = parseRow(width, line);
-                    }
+        /*
+         * Paints the cells from firstX, firstY up to lastX, lastY when there
+         * is less than a pixel per cell, with a pixel per tile of the level
+         * of the population pyramid matching the cell size, shaded by the
+         * fraction of the tile which is alive.
+         */
+        private void paintTiles(Graphics g, int firstX, int firstY, int lastX,
+            int lastY)
+        {
+            int level = Integer.numberOfTrailingZeros(
+                (int)Math.round(1 / cellSize));
+            int tileSize = 1 << level;
+            int firstTileX = firstX >> level;
+            int firstTileY = firstY >> level;
+            int columns = ((lastX - 1) >> level) + 1 - firstTileX;
+            int rows = ((lastY - 1) >> level) + 1 - firstTileY;
+
+            if (tileImage == null || tileImage.getWidth() < columns
+                || tileImage.getHeight() < rows)
+            {
+                tileImage = new BufferedImage(Math.max(columns, getWidth()),
+                    Math.max(rows, getHeight()), BufferedImage.TYPE_INT_RGB);
+                tilePixels = ((DataBufferInt)tileImage.getRaster()
+                    .getDataBuffer()).getData();
+            }
 
-                    simulation = new GameOfLife(cells, generation);
-                }
-                finally
+            int stride = tileImage.getWidth();
+            for (int row = 0; row < rows; row++)
+            {
+                int tileY = firstTileY + row;
+                int tileHeight = Math.min(tileSize,
+                    boardHeight - tileY * tileSize);
+                for (int column = 0; column < columns; column++)
                 {
-                    reader.close();
-                    return simulation;
+                    int tileX = firstTileX + column;
+                    int area = tileHeight * Math.min(tileSize,
+                        boardWidth - tileX * tileSize);
+                    int count = pyramid.getCount(level, tileX, tileY);
+                    tilePixels[row * stride + column] = count == 0
+                        ? tileShades[0]
+                        : tileShades[1 + (int)((long)count
+                            * (TILE_SHADE_COUNT - 2) / area)];
                 }
             }
-            catch (Exception exception)
-            {
-                return null;
-            }
+
+            int left = originX + firstTileX;
+            int top = originY + firstTileY;
+            g.drawImage(tileImage, left, top, left + columns, top + rows, 0, 0,
+                columns, rows, null);
         }
 
-        /**
-         * Saves a <code>GameOfLife</code> as a <code>File</code>.
-         *
-         * @param file the <code>File</code> to save as
-         * @param simulation the <code>GameOfLife</code> to save
-         * @return <code>true</code> if the operation succeeded,
-         * <code>false</code> otherwise
-         */
-        public static boolean saveSimulation(File file, GameOfLife simulation)
+        private void repaintCell(int x, int y)
         {
-            try
-            {
-                if (!file.exists())
-                    file.createNewFile();
+            if (!isCellOnBoard(x, y))
+                return;
 
-                BufferedWriter writer = new BufferedWriter(
-                    new FileWriter(file));
+            int left = getCellLeft(x);
+            int top = getCellTop(y);
+            repaint(left, top, getCellLeft(x + 1) - left + 1,
+                getCellTop(y + 1) - top + 1);
+        }
 
-                boolean success = false;
-                try
-                {
-                    writer.write(Integer.toString(
-                        simulation.getCurrentGeneration()));
-                    writer.newLine();
-                    writer.write(Integer.toString(simulation.getWidth()));
-                    writer.newLine();
-                    writer.write(Integer.toString(simulation.getHeight()));
-                    writer.newLine();
-
-                    boolean[][] cells = simulation.getCells();
-                    for (int y = 0; y < simulation.getHeight(); y++)
-                    {
-                        for (int x = 0; x < simulation.getWidth(); x++)
-                        {
-                            if (cells[y][x])
-                                writer.write(ALIVE_CELL);
-                            else
-                                writer.write(DEAD_CELL);
-                        }
-                        writer.newLine();
-                    }
+        private void setHoveredCell(int x, int y)
+        {
+            if (x == hoveredX && y == hoveredY)
+                return;
 
-                    success = true;
-                }
-                finally
-                {
-                    writer.close();
-                    return success;
-                }
-            }
-            catch (Exception exception)
-            {
-                return false;
-            }
+            repaintCell(hoveredX, hoveredY);
+            hoveredX = x;
+            hoveredY = y;
+            repaintCell(hoveredX, hoveredY);
         }
 
-        private static boolean[] parseRow(int width, String line)
-            throws Exception
+        /*
+         * Moves the board so that its top-left corner is at the specified
+         * pixel, as far as it can go without leaving empty space.
+         */
+        private void setOrigin(int x, int y)
         {
-            if (line.length() != width)
-                throw new Exception();
+            originX = getOrigin(x, getWidth(), boardWidth);
+            originY = getOrigin(y, getHeight(), boardHeight);
+            repaint();
+        }
 
-            boolean[] row = new boolean[width];
+        /*
+         * Toggles a cell as it is shown. While the simulation is running, it
+         * belongs to the worker thread, so the change is handed to the worker;
+         * it is shown straight away and replaced by the next snapshot.
+         */
+        private void toggleCellState(int x, int y)
+        {
+            boolean state = pixels[y * boardWidth + x] != ALIVE_CELL.getRGB();
+            if (isSimulating())
+                simulationWorker.setCellState(x, y, state);
+            else
+                simulation.setCellState(x, y, state);
 
-            for (int x = 0; x < width; x++)
-            {
-                char cell = line.charAt(x);
-                if (cell == ALIVE_CELL)
-                    row[x] = true;
-                else if (cell == DEAD_CELL)
-                    row[x] = false;
-                else
-                    throw new Exception();
-            }
+            setCellState(x, y, state);
+            setHasChanged(true);
+        }
+
+        /*
+         * Sets the cell size, keeping the cell under the specified pixel
+         * under it.
+         */
+        private void zoom(double size, int pixelX, int pixelY)
+        {
+            if (image == null)
+                return;
+
+            double scale = size / cellSize;
+            cellSize = size;
+            isFitted = false;
+            setOrigin(pixelX - (int)Math.round((pixelX - originX) * scale),
+                pixelY - (int)Math.round((pixelY - originY) * scale));
+        }
 
-            return row;
+        /*
+         * Above a pixel per cell, cells grow by a whole pixel or by
+         * ZOOM_FACTOR, whichever is more, up to MAXIMUM_CELL_SIZE; below,
+         * they double, so that a pixel is always a tile of the pyramid.
+         */
+        private void zoomIn(int pixelX, int pixelY)
+        {
+            double size = cellSize < 1 ? cellSize * 2
+                : Math.min(MAXIMUM_CELL_SIZE,
+                    Math.max(cellSize + 1, Math.floor(cellSize * ZOOM_FACTOR)));
+            if (size > cellSize)
+                zoom(size, pixelX, pixelY);
+        }
+
+        private void zoomOut(int pixelX, int pixelY)
+        {
+            if (image == null)
+                return;
+
+            double size = cellSize > 1
+                ? Math.max(1,
+                    Math.min(cellSize - 1, Math.ceil(cellSize / ZOOM_FACTOR)))
+                : Math.max(cellSize / 2, getMinimumCellSize());
+            if (size < cellSize)
+                zoom(size, pixelX, pixelY);
         }
     }
 }
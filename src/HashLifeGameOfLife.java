@@ -0,0 +1,849 @@
+/**
+ * A simulation of Conway's Game of Life using Gosper's HashLife algorithm,
+ * which can advance the simulation by 2<sup>k</sup> generations in one call.
+ * <p>
+ * The universe is stored as a quadtree whose identical subtrees are shared,
+ * and the future of every subtree is memoized, so repetitive patterns such as
+ * guns and breeders can be simulated millions of generations ahead in
+ * milliseconds. The universe is unbounded: the width and height only
+ * describe the region the simulation was created with (whose top-left cell
+ * is at (0, 0)), and cells outside of it keep evolving.
+ * <p>
+ * The cache of quadtree nodes is bounded; once it holds more nodes than
+ * allowed, every node which is no longer part of the universe and every
+ * memoized future is discarded between steps.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class HashLifeGameOfLife implements Simulation
+{
+    // class fields
+    /**
+     * The default maximum number of quadtree nodes kept in the cache.
+     */
+    public static final int DEFAULT_MAXIMUM_NODES = 1 << 21;
+    private static final int INITIAL_TABLE_SIZE = 1 << 10;
+    private static final int MINIMUM_ROOT_LEVEL = 3;
+    private static final Node ALIVE = new Node(1);
+    private static final Node DEAD = new Node(0);
+
+    // instance fields
+    private long currentGeneration;
+    private Node[] emptyNodes;
+    private int height;
+    private int maximumNodes;
+    private int nodeCount;
+    private boolean[] nextStates;
+    private Node root;
+    private Rule rule;
+    private Node[] table;
+    private int width;
+
+    /*
+     * constructors
+     */
+
+    /**
+     * Creates a <code>HashLifeGameOfLife</code> with specified cell
+     * configuration.
+     *
+     * @param cells the configuration of the cells in the first generation;
+     * see <code>GameOfLife(boolean[][], long)</code>
+     * @param currentGeneration the generation which this
+     * <code>HashLifeGameOfLife</code> is currently on; must be greater than 0
+     */
+    public HashLifeGameOfLife(boolean[][] cells, long currentGeneration)
+    {
+        this(cells, currentGeneration, DEFAULT_MAXIMUM_NODES);
+    }
+
+    /**
+     * Creates a <code>HashLifeGameOfLife</code> with specified cell
+     * configuration and node cache size.
+     *
+     * @param cells the configuration of the cells in the first generation;
+     * see <code>GameOfLife(boolean[][], long)</code>
+     * @param currentGeneration the generation which this
+     * <code>HashLifeGameOfLife</code> is currently on; must be greater than 0
+     * @param maximumNodes the number of quadtree nodes the cache may hold
+     * before it is trimmed
+     */
+    public HashLifeGameOfLife(boolean[][] cells, long currentGeneration,
+        int maximumNodes)
+    {
+        this(cells, currentGeneration, Rule.CONWAY, maximumNodes);
+    }
+
+    /**
+     * Creates a <code>HashLifeGameOfLife</code> with specified cell
+     * configuration, ruleset and node cache size.
+     *
+     * @param cells the configuration of the cells in the first generation;
+     * see <code>GameOfLife(boolean[][], long)</code>
+     * @param currentGeneration the generation which this
+     * <code>HashLifeGameOfLife</code> is currently on; must be greater than 0
+     * @param rule the ruleset to simulate with; must not give birth to cells
+     * with no alive neighbours, as that would fill the unbounded universe
+     * @param maximumNodes the number of quadtree nodes the cache may hold
+     * before it is trimmed
+     * @throws IllegalArgumentException if the ruleset gives birth to cells
+     * with no alive neighbours
+     */
+    public HashLifeGameOfLife(boolean[][] cells, long currentGeneration,
+        Rule rule, int maximumNodes)
+    {
+        for (int y = 1; y < cells.length; y++)
+        {
+            if (cells[y].length != cells[0].length)
+            {
+                cells = GameOfLife.DEFAULT_CELL_CONFIGURATION;
+                break;
+            }
+        }
+
+        int level = initialize(cells[0].length, cells.length,
+            currentGeneration, rule, maximumNodes);
+        int half = 1 << (level - 1);
+        root = build(cells, -half, -half, level);
+    }
+
+    /**
+     * Creates a <code>HashLifeGameOfLife</code> from cells which are packed
+     * 64 to a <code>long</code>, row by row, in the layout of
+     * <code>Snapshot</code>. The quadtree is built straight from the words,
+     * and every 64 by 64 block whose words are all zero becomes the shared
+     * empty node without its cells being visited.
+     *
+     * @param cells the configuration of the cells in the first generation,
+     * <code>(width + 63) / 64</code> words per row
+     * @param width the width of the region; must be greater than 0
+     * @param height the height of the region; must be greater than 0
+     * @param currentGeneration the generation which this
+     * <code>HashLifeGameOfLife</code> is currently on; must be greater than 0
+     * @param rule the ruleset to simulate with; must not give birth to cells
+     * with no alive neighbours
+     * @param maximumNodes the number of quadtree nodes the cache may hold
+     * before it is trimmed
+     * @throws IllegalArgumentException if the ruleset gives birth to cells
+     * with no alive neighbours
+     */
+    public HashLifeGameOfLife(long[] cells, int width, int height,
+        long currentGeneration, Rule rule, int maximumNodes)
+    {
+        int level = initialize(width, height, currentGeneration, rule,
+            maximumNodes);
+        int half = 1 << (level - 1);
+        root = build(cells, -half, -half, level);
+    }
+
+    /**
+     * Creates a <code>HashLifeGameOfLife</code> whose region has the
+     * specified size, with every cell dead, on generation 1, e.g. to be
+     * filled in with <code>setCellState</code>. The universe starts as the
+     * empty quadtree, so nothing is allocated for the dead cells.
+     *
+     * @param width the width of the region; must be greater than 0
+     * @param height the height of the region; must be greater than 0
+     * @param rule the ruleset to simulate with; must not give birth to cells
+     * with no alive neighbours
+     * @param maximumNodes the number of quadtree nodes the cache may hold
+     * before it is trimmed
+     * @throws IllegalArgumentException if the ruleset gives birth to cells
+     * with no alive neighbours
+     */
+    public HashLifeGameOfLife(int width, int height, Rule rule,
+        int maximumNodes)
+    {
+        if (width <= 0 || height <= 0)
+        {
+            width = GameOfLife.DEFAULT_CELL_CONFIGURATION[0].length;
+            height = GameOfLife.DEFAULT_CELL_CONFIGURATION.length;
+        }
+
+        root = getEmptyNode(initialize(width, height, 1, rule,
+            maximumNodes));
+    }
+
+    /*
+     * accessors
+     */
+
+    /**
+     * Returns the cells in the region this <code>HashLifeGameOfLife</code>
+     * was created with.
+     *
+     * @return the cells in the region, as an array of rows
+     */
+    public boolean[][] getCells()
+    {
+        return getCells(0, 0, width, height);
+    }
+
+    /**
+     * Returns the cells in the specified region of the universe.
+     *
+     * @param x the x-coordinate of the top-left cell of the region
+     * @param y the y-coordinate of the top-left cell of the region
+     * @param width the width of the region
+     * @param height the height of the region
+     * @return the cells in the region, as an array of rows
+     */
+    public boolean[][] getCells(int x, int y, int width, int height)
+    {
+        boolean[][] cells = new boolean[height][width];
+        long half = 1L << (root.level - 1);
+        fill(root, -half, -half, cells, x, y);
+
+        return cells;
+    }
+
+    /**
+     * Returns the generation which this <code>HashLifeGameOfLife</code> is
+     * currently on.
+     *
+     * @return the generation which this <code>HashLifeGameOfLife</code> is
+     * currently on
+     */
+    public long getCurrentGeneration()
+    {
+        return currentGeneration;
+    }
+
+    /**
+     * Returns the height of the region this <code>HashLifeGameOfLife</code>
+     * was created with.
+     *
+     * @return the height of the region
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Returns the number of quadtree nodes currently in the cache.
+     *
+     * @return the number of quadtree nodes currently in the cache
+     */
+    public int getNodeCount()
+    {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the number of alive cells in the universe.
+     *
+     * @return the number of alive cells in the universe
+     */
+    public long getPopulation()
+    {
+        return root.population;
+    }
+
+    /**
+     * Returns the ruleset this <code>HashLifeGameOfLife</code> simulates
+     * with.
+     *
+     * @return the ruleset this <code>HashLifeGameOfLife</code> simulates with
+     */
+    public Rule getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Returns the width of the region this <code>HashLifeGameOfLife</code>
+     * was created with.
+     *
+     * @return the width of the region
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Returns whether a cell is alive or not at the specified coordinate.
+     *
+     * @param x the x-coordinate of the cell that is being checked
+     * @param y the y-coordinate of the cell that is being checked
+     * @return <code>true</code> if the cell is alive, <code>false</code> if
+     * the cell is dead
+     */
+    public boolean isCellAlive(int x, int y)
+    {
+        Node node = root;
+        long half = 1L << (root.level - 1);
+        if (x < -half || x >= half || y < -half || y >= half)
+            return false;
+
+        long nodeX = x;
+        long nodeY = y;
+        while (node.level > 0 && node.population > 0)
+        {
+            half = node.level > 1 ? 1L << (node.level - 2) : 0;
+            boolean isWest = nodeX < 0;
+            boolean isNorth = nodeY < 0;
+            if (node.level > 1)
+            {
+                nodeX += isWest ? half : -half;
+                nodeY += isNorth ? half : -half;
+            }
+            node = isNorth
+                ? (isWest ? node.nw : node.ne)
+                : (isWest ? node.sw : node.se);
+        }
+
+        return node == ALIVE;
+    }
+
+    /**
+     * Returns a string representation of this
+     * <code>HashLifeGameOfLife</code>.
+     *
+     * @return a string representation of this <code>HashLifeGameOfLife</code>
+     */
+    public String toString()
+    {
+        return
+            getClass().getName()
+            + "["
+            + "currentGeneration: " + currentGeneration
+            + ", height: " + height
+            + ", nodeCount: " + nodeCount
+            + ", population: " + root.population
+            + ", rootLevel: " + root.level
+            + ", rule: " + rule
+            + ", width: " + width
+            + "]";
+    }
+
+    /*
+     * mutator
+     */
+
+    /**
+     * Sets a cell at the specified coordinate to the specified state. The
+     * universe grows to include the cell if needed.
+     *
+     * @param x the x-coordinate of the cell whose state is being set
+     * @param y the y-coordinate of the cell whose state is being set
+     * @param state <code>true</code> for alive, <code>false</code> for dead
+     * @return <code>true</code>, as every coordinate is within the universe
+     */
+    public boolean setCellState(int x, int y, boolean state)
+    {
+        while (x < -(1L << (root.level - 1)) || x >= (1L << (root.level - 1))
+            || y < -(1L << (root.level - 1)) || y >= (1L << (root.level - 1)))
+            root = expand(root);
+
+        root = setCellState(root, x, y, state);
+        return true;
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Returns whether the current generation is stable (i.e.
+     * the next generation will be exactly the same) or not.
+     *
+     * @return <code>true</code> if the current generation is stable,
+     * <code>false</code> if the current generation is not stable
+     */
+    public boolean isSimulationStable()
+    {
+        Node current = root;
+        Node next = step(root, 0);
+
+        while (current.level < next.level)
+            current = expand(current);
+        while (next.level < current.level)
+            next = expand(next);
+
+        return current == next;
+    }
+
+    /**
+     * Simulates the specified number of generations. Every power of two in
+     * the binary representation of the number is simulated in one step.
+     *
+     * @param generations the number of generations to simulate; nothing is
+     * simulated if it is not greater than 0
+     */
+    public void simulateGenerations(long generations)
+    {
+        if (generations <= 0)
+            return;
+
+        for (int exponent = 0; exponent < Long.SIZE - 1; exponent++)
+            if ((generations & (1L << exponent)) != 0)
+                simulateGenerationsByPowerOfTwo(exponent);
+    }
+
+    /**
+     * Simulates 2<sup>exponent</sup> generations in one step.
+     *
+     * @param exponent the base 2 logarithm of the number of generations to
+     * simulate; must be between 0 and 62 (inclusive)
+     * @throws IllegalArgumentException if the exponent is out of range
+     */
+    public void simulateGenerationsByPowerOfTwo(int exponent)
+    {
+        if (exponent < 0 || exponent > Long.SIZE - 2)
+            throw new IllegalArgumentException("exponent: " + exponent);
+
+        if (nodeCount > maximumNodes)
+            collectGarbage();
+
+        root = step(root, exponent);
+        currentGeneration += 1L << exponent;
+    }
+
+    /**
+     * Simulates the next generation by applying the ruleset.
+     */
+    public void simulateNextGeneration()
+    {
+        simulateGenerationsByPowerOfTwo(0);
+    }
+
+    /*
+     * Returns the centre of the node (one level lower) after
+     * 2^exponent generations. The exponent may be at most level - 2; when it
+     * is exactly level - 2 the node is advanced in two halves, otherwise the
+     * nine overlapping sub-nodes are only re-centred before the second half.
+     */
+    private Node advance(Node node, int exponent)
+    {
+        if (node.population == 0)
+            return getEmptyNode(node.level - 1);
+        if (node.result != null && node.resultExponent == exponent)
+            return node.result;
+
+        Node result;
+        if (node.level == 2)
+        {
+            result = advanceBase(node);
+        }
+        else
+        {
+            boolean isFullStep = exponent == node.level - 2;
+            Node n00 = node.nw;
+            Node n01 = getNode(node.nw.ne, node.ne.nw, node.nw.se, node.ne.sw);
+            Node n02 = node.ne;
+            Node n10 = getNode(node.nw.sw, node.nw.se, node.sw.nw, node.sw.ne);
+            Node n11 = getNode(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+            Node n12 = getNode(node.ne.sw, node.ne.se, node.se.nw, node.se.ne);
+            Node n20 = node.sw;
+            Node n21 = getNode(node.sw.ne, node.se.nw, node.sw.se, node.se.sw);
+            Node n22 = node.se;
+
+            if (isFullStep)
+            {
+                n00 = advance(n00, exponent - 1);
+                n01 = advance(n01, exponent - 1);
+                n02 = advance(n02, exponent - 1);
+                n10 = advance(n10, exponent - 1);
+                n11 = advance(n11, exponent - 1);
+                n12 = advance(n12, exponent - 1);
+                n20 = advance(n20, exponent - 1);
+                n21 = advance(n21, exponent - 1);
+                n22 = advance(n22, exponent - 1);
+            }
+            else
+            {
+                n00 = getCentre(n00);
+                n01 = getCentre(n01);
+                n02 = getCentre(n02);
+                n10 = getCentre(n10);
+                n11 = getCentre(n11);
+                n12 = getCentre(n12);
+                n20 = getCentre(n20);
+                n21 = getCentre(n21);
+                n22 = getCentre(n22);
+            }
+
+            int nextExponent = isFullStep ? exponent - 1 : exponent;
+            result = getNode(
+                advance(getNode(n00, n01, n10, n11), nextExponent),
+                advance(getNode(n01, n02, n11, n12), nextExponent),
+                advance(getNode(n10, n11, n20, n21), nextExponent),
+                advance(getNode(n11, n12, n21, n22), nextExponent));
+        }
+
+        node.result = result;
+        node.resultExponent = exponent;
+        return result;
+    }
+
+    /*
+     * Simulates one generation of the centre 2x2 cells of a 4x4 node.
+     */
+    private Node advanceBase(Node node)
+    {
+        int bits = 0;
+        for (int y = 0; y < 4; y++)
+            for (int x = 0; x < 4; x++)
+                if (getBaseCell(node, x, y))
+                    bits |= 1 << (y * 4 + x);
+
+        return getNode(
+            getNextBaseCell(bits, 1, 1), getNextBaseCell(bits, 2, 1),
+            getNextBaseCell(bits, 1, 2), getNextBaseCell(bits, 2, 2));
+    }
+
+    private Node build(boolean[][] cells, int x, int y, int level)
+    {
+        int size = 1 << level;
+        if (x >= width || y >= height || x + size <= 0 || y + size <= 0)
+            return getEmptyNode(level);
+
+        if (level == 0)
+            return cells[y][x] ? ALIVE : DEAD;
+
+        int half = size >> 1;
+        return getNode(
+            build(cells, x, y, level - 1),
+            build(cells, x + half, y, level - 1),
+            build(cells, x, y + half, level - 1),
+            build(cells, x + half, y + half, level - 1));
+    }
+
+    /*
+     * Builds a node from cells packed as by Snapshot. A node of 64 by 64
+     * cells inside the region lies within one word of each of its rows, so
+     * it is empty if those words are.
+     */
+    private Node build(long[] cells, int x, int y, int level)
+    {
+        int size = 1 << level;
+        if (x >= width || y >= height || x + size <= 0 || y + size <= 0)
+            return getEmptyNode(level);
+
+        int wordsPerRow = (width + Long.SIZE - 1) >>> 6;
+        if (level == 0)
+            return (cells[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0
+                ? ALIVE : DEAD;
+
+        if (level == 6 && x >= 0 && y >= 0)
+        {
+            int endY = Math.min(height, y + size);
+            int index = y * wordsPerRow + (x >>> 6);
+            long mask = x + size > width ? -1L >>> -(width - x) : -1L;
+            boolean isEmpty = true;
+            for (int i = y; i < endY && isEmpty; i++, index += wordsPerRow)
+                isEmpty = (cells[index] & mask) == 0;
+            if (isEmpty)
+                return getEmptyNode(level);
+        }
+
+        int half = size >> 1;
+        return getNode(
+            build(cells, x, y, level - 1),
+            build(cells, x + half, y, level - 1),
+            build(cells, x, y + half, level - 1),
+            build(cells, x + half, y + half, level - 1));
+    }
+
+    /*
+     * Empties the node cache and re-adds only the nodes which make up the
+     * current universe, forgetting every memoized future.
+     */
+    private void collectGarbage()
+    {
+        table = new Node[INITIAL_TABLE_SIZE];
+        nodeCount = 0;
+        emptyNodes = new Node[Long.SIZE];
+        reinsert(root);
+    }
+
+    private Node expand(Node node)
+    {
+        Node empty = getEmptyNode(node.level - 1);
+        return getNode(
+            getNode(empty, empty, empty, node.nw),
+            getNode(empty, empty, node.ne, empty),
+            getNode(empty, node.sw, empty, empty),
+            getNode(node.se, empty, empty, empty));
+    }
+
+    private void fill(Node node, long nodeX, long nodeY, boolean[][] cells,
+        int x, int y)
+    {
+        long size = 1L << node.level;
+        if (node.population == 0
+            || nodeX >= x + cells[0].length || nodeY >= y + cells.length
+            || nodeX + size <= x || nodeY + size <= y)
+            return;
+
+        if (node.level == 0)
+        {
+            cells[(int)(nodeY - y)][(int)(nodeX - x)] = true;
+            return;
+        }
+
+        long half = size >> 1;
+        fill(node.nw, nodeX, nodeY, cells, x, y);
+        fill(node.ne, nodeX + half, nodeY, cells, x, y);
+        fill(node.sw, nodeX, nodeY + half, cells, x, y);
+        fill(node.se, nodeX + half, nodeY + half, cells, x, y);
+    }
+
+    private static boolean getBaseCell(Node node, int x, int y)
+    {
+        Node quadrant = y < 2
+            ? (x < 2 ? node.nw : node.ne)
+            : (x < 2 ? node.sw : node.se);
+        Node cell = (y & 1) == 0
+            ? ((x & 1) == 0 ? quadrant.nw : quadrant.ne)
+            : ((x & 1) == 0 ? quadrant.sw : quadrant.se);
+
+        return cell == ALIVE;
+    }
+
+    private Node getCentre(Node node)
+    {
+        return getNode(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+    }
+
+    private Node getEmptyNode(int level)
+    {
+        if (level == 0)
+            return DEAD;
+
+        if (emptyNodes[level] == null)
+        {
+            Node empty = getEmptyNode(level - 1);
+            emptyNodes[level] = getNode(empty, empty, empty, empty);
+        }
+
+        return emptyNodes[level];
+    }
+
+    private Node getNextBaseCell(int bits, int x, int y)
+    {
+        int aliveNeighbours = 0;
+        for (int yOffset = -1; yOffset <= 1; yOffset++)
+            for (int xOffset = -1; xOffset <= 1; xOffset++)
+                if (!(xOffset == 0 && yOffset == 0))
+                    aliveNeighbours +=
+                        (bits >>> ((y + yOffset) * 4 + x + xOffset)) & 1;
+
+        int alive = (bits >>> (y * 4 + x)) & 1;
+        return nextStates[(aliveNeighbours << 1) | alive] ? ALIVE : DEAD;
+    }
+
+    /*
+     * Returns the canonical node with the specified quadrants.
+     */
+    private Node getNode(Node nw, Node ne, Node sw, Node se)
+    {
+        int hash = Node.hash(nw, ne, sw, se);
+        int index = hash & (table.length - 1);
+        for (Node node = table[index]; node != null; node = node.next)
+            if (node.nw == nw && node.ne == ne && node.sw == sw
+                && node.se == se)
+                return node;
+
+        Node node = new Node(nw, ne, sw, se);
+        insert(node);
+        return node;
+    }
+
+    /*
+     * Sets up an empty node cache for a region of the specified size, and
+     * returns the level of the smallest root which covers the region.
+     */
+    private int initialize(int width, int height, long currentGeneration,
+        Rule rule, int maximumNodes)
+    {
+        if (rule.isBorn(0))
+            throw new IllegalArgumentException("Unsupported rule: " + rule);
+
+        this.rule = rule;
+        nextStates = rule.getNextStates();
+        this.currentGeneration = currentGeneration > 0 ? currentGeneration : 1;
+        this.maximumNodes = Math.max(INITIAL_TABLE_SIZE, maximumNodes);
+        this.height = height;
+        this.width = width;
+        table = new Node[INITIAL_TABLE_SIZE];
+        emptyNodes = new Node[Long.SIZE];
+
+        int level = MINIMUM_ROOT_LEVEL;
+        while ((1L << (level - 1)) < Math.max(width, height))
+            level++;
+
+        return level;
+    }
+
+    private void insert(Node node)
+    {
+        if (nodeCount >= table.length - (table.length >>> 2))
+            resize();
+
+        int index = node.hash & (table.length - 1);
+        node.next = table[index];
+        table[index] = node;
+        nodeCount++;
+    }
+
+    private void reinsert(Node node)
+    {
+        if (node.level == 0)
+            return;
+
+        int index = node.hash & (table.length - 1);
+        for (Node other = table[index]; other != null; other = other.next)
+            if (other == node)
+                return;
+
+        reinsert(node.nw);
+        reinsert(node.ne);
+        reinsert(node.sw);
+        reinsert(node.se);
+        node.result = null;
+        insert(node);
+    }
+
+    private void resize()
+    {
+        Node[] oldTable = table;
+        table = new Node[oldTable.length << 1];
+        for (Node node : oldTable)
+        {
+            while (node != null)
+            {
+                Node next = node.next;
+                int index = node.hash & (table.length - 1);
+                node.next = table[index];
+                table[index] = node;
+                node = next;
+            }
+        }
+    }
+
+    private Node setCellState(Node node, long x, long y, boolean state)
+    {
+        if (node.level == 0)
+            return state ? ALIVE : DEAD;
+
+        long half = node.level > 1 ? 1L << (node.level - 2) : 0;
+        boolean isWest = x < 0;
+        boolean isNorth = y < 0;
+        long childX = node.level > 1 ? x + (isWest ? half : -half) : x;
+        long childY = node.level > 1 ? y + (isNorth ? half : -half) : y;
+
+        Node nw = node.nw;
+        Node ne = node.ne;
+        Node sw = node.sw;
+        Node se = node.se;
+        if (isNorth && isWest)
+            nw = setCellState(nw, childX, childY, state);
+        else if (isNorth)
+            ne = setCellState(ne, childX, childY, state);
+        else if (isWest)
+            sw = setCellState(sw, childX, childY, state);
+        else
+            se = setCellState(se, childX, childY, state);
+
+        return getNode(nw, ne, sw, se);
+    }
+
+    /*
+     * Advances a whole universe by 2^exponent generations, first growing it
+     * until its live cells are far enough from the edge that none of them
+     * can leave the centre which is returned.
+     */
+    private Node step(Node universe, int exponent)
+    {
+        while (universe.level < exponent + 2 || !isCentred(universe))
+            universe = expand(universe);
+
+        return advance(expand(universe), exponent);
+    }
+
+    private static boolean isCentred(Node node)
+    {
+        return node.population ==
+            node.nw.se.population + node.ne.sw.population
+            + node.sw.ne.population + node.se.nw.population;
+    }
+
+    /*
+     * inner class
+     */
+
+    private static class Node
+    {
+        // instance fields
+        private int hash;
+        private int level;
+        private Node ne;
+        private Node next;
+        private Node nw;
+        private long population;
+        private Node result;
+        private int resultExponent;
+        private Node se;
+        private Node sw;
+
+        /*
+         * constructors
+         */
+
+        /**
+         * Creates a leaf <code>Node</code>.
+         *
+         * @param population 1 for an alive cell, 0 for a dead cell
+         */
+        public Node(int population)
+        {
+            this.population = population;
+            hash = population;
+        }
+
+        /**
+         * Creates a <code>Node</code> one level above its quadrants.
+         *
+         * @param nw the north-west quadrant
+         * @param ne the north-east quadrant
+         * @param sw the south-west quadrant
+         * @param se the south-east quadrant
+         */
+        public Node(Node nw, Node ne, Node sw, Node se)
+        {
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            level = nw.level + 1;
+            population =
+                nw.population + ne.population + sw.population + se.population;
+            hash = hash(nw, ne, sw, se);
+        }
+
+        /*
+         * methods
+         */
+
+        /**
+         * Returns the hash of a <code>Node</code> with the specified
+         * quadrants.
+         *
+         * @param nw the north-west quadrant
+         * @param ne the north-east quadrant
+         * @param sw the south-west quadrant
+         * @param se the south-east quadrant
+         * @return the hash of a <code>Node</code> with the quadrants
+         */
+        public static int hash(Node nw, Node ne, Node sw, Node se)
+        {
+            int hash = nw.hash * 0x9E3779B1 + ne.hash * 0x85EBCA77
+                + sw.hash * 0xC2B2AE3D + se.hash * 0x27D4EB2F + nw.level;
+            return hash ^ (hash >>> 15);
+        }
+    }
+}
@@ -0,0 +1,389 @@
+import java.util.Arrays;
+
+/**
+ * The recent generations of a simulation, kept within a memory budget so
+ * that it can be stepped back through and seeked within.
+ * <p>
+ * Generations are kept in a ring of entries, in order. A keyframe entry
+ * holds every cell, packed as in <code>Snapshot</code>; every other entry
+ * holds the words which differ from the generation before it, XORed
+ * together, with their indices. A generation is rebuilt by copying the
+ * nearest keyframe at or before it and applying the deltas after that
+ * keyframe. A new keyframe is started after
+ * <code>MAXIMUM_KEYFRAME_INTERVAL</code> deltas, once the deltas since the
+ * last keyframe add up to the size of a keyframe, or when a generation does
+ * not follow the one recorded before it, so rebuilding a generation costs
+ * at most about two keyframes' worth of work. When the entries grow past the
+ * budget, the oldest keyframe is forgotten along with its deltas, although
+ * the latest keyframe and its deltas are always kept.
+ * <p>
+ * A <code>History</code> is not thread-safe; a
+ * <code>SimulationWorker</code> which records in it owns it while running.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class History
+{
+    // class fields
+    /**
+     * The largest number of deltas after a keyframe.
+     */
+    public static final int MAXIMUM_KEYFRAME_INTERVAL = 256;
+    private static final int ENTRY_OVERHEAD = 64;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // instance fields
+    private int count;
+    private Entry[] entries;
+    private int first;
+    private int height;
+    private int keyframeCount;
+    private long[] lastCells;
+    private long memoryBudget;
+    private long memoryUsage;
+    private int width;
+
+    /*
+     * constructor
+     */
+
+    /**
+     * Creates an empty <code>History</code> for a grid of the specified
+     * size.
+     *
+     * @param width the width of the grid
+     * @param height the height of the grid
+     * @param memoryBudget the number of bytes the recorded generations may
+     * take up
+     */
+    public History(int width, int height, long memoryBudget)
+    {
+        this.width = width;
+        this.height = height;
+        this.memoryBudget = memoryBudget;
+        entries = new Entry[INITIAL_CAPACITY];
+        lastCells = new long[((width + Long.SIZE - 1) >>> 6) * height];
+    }
+
+    /*
+     * accessors
+     */
+
+    /**
+     * Returns the earliest generation which can be seeked to.
+     *
+     * @return the earliest generation; -1 if nothing has been recorded
+     */
+    public long getFirstGeneration()
+    {
+        return count == 0 ? -1 : get(0).generation;
+    }
+
+    /**
+     * Returns the latest generation recorded.
+     *
+     * @return the latest generation; -1 if nothing has been recorded
+     */
+    public long getLastGeneration()
+    {
+        return count == 0 ? -1 : get(count - 1).generation;
+    }
+
+    /**
+     * Returns the number of bytes the recorded generations may take up.
+     *
+     * @return the memory budget, in bytes
+     */
+    public long getMemoryBudget()
+    {
+        return memoryBudget;
+    }
+
+    /**
+     * Returns roughly how many bytes the recorded generations take up.
+     *
+     * @return the memory usage, in bytes
+     */
+    public long getMemoryUsage()
+    {
+        return memoryUsage;
+    }
+
+    /**
+     * Returns whether a generation can be seeked to. Generations between
+     * the first and the last one may be missing if the simulation jumped
+     * over them.
+     *
+     * @param generation the generation
+     * @return <code>true</code> if the generation is recorded
+     */
+    public boolean isRecorded(long generation)
+    {
+        return indexOf(generation) != -1;
+    }
+
+    /*
+     * mutators
+     */
+
+    /**
+     * Forgets every recorded generation.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < count; i++)
+            entries[(first + i) & (entries.length - 1)] = null;
+        count = 0;
+        first = 0;
+        keyframeCount = 0;
+        memoryUsage = 0;
+    }
+
+    /**
+     * Records the current generation of a <code>Simulation</code> of the
+     * size of this <code>History</code>. Any recorded generations from that
+     * one on are forgotten first, as a simulation which has been stepped
+     * back and goes forward again may not repeat them.
+     *
+     * @param simulation the <code>Simulation</code>
+     */
+    public void record(Simulation simulation)
+    {
+        record(simulation.getCurrentGeneration(),
+            Snapshot.copyCells(simulation), null);
+    }
+
+    /*
+     * Records a generation from cells packed as by Snapshot, which are
+     * copied. If changes is not null, only its rows are compared to the
+     * previous generation, so it must hold every cell which may differ.
+     */
+    void record(long generation, long[] cells, ChangeSet changes)
+    {
+        truncate(generation);
+
+        Entry last = count == 0 ? null : get(count - 1);
+        Entry entry = null;
+        if (last != null && last.generation == generation - 1
+            && last.deltaCount < MAXIMUM_KEYFRAME_INTERVAL)
+        {
+            entry = createDelta(generation, cells, changes);
+            if (last.deltaSize + entry.size <= lastCells.length * Long.BYTES)
+            {
+                entry.deltaCount = last.deltaCount + 1;
+                entry.deltaSize = last.deltaSize + entry.size;
+                applyDelta(entry, lastCells);
+            }
+            else
+            {
+                entry = null;
+            }
+        }
+
+        if (entry == null)
+        {
+            entry = new Entry();
+            entry.generation = generation;
+            entry.keyframe = cells.clone();
+            entry.size = ENTRY_OVERHEAD + (long)cells.length * Long.BYTES;
+            keyframeCount++;
+            System.arraycopy(cells, 0, lastCells, 0, cells.length);
+        }
+        add(entry);
+
+        while (memoryUsage > memoryBudget && keyframeCount > 1)
+            removeFirstKeyframe();
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Rebuilds a recorded generation.
+     *
+     * @param generation the generation
+     * @return a <code>Snapshot</code> of the generation; <code>null</code>
+     * if it is not recorded
+     */
+    public Snapshot seek(long generation)
+    {
+        int index = indexOf(generation);
+        if (index == -1)
+            return null;
+
+        return new Snapshot(generation, width, height, rebuild(index), null);
+    }
+
+    private void add(Entry entry)
+    {
+        if (count == entries.length)
+        {
+            Entry[] grown = new Entry[entries.length * 2];
+            for (int i = 0; i < count; i++)
+                grown[i] = get(i);
+            entries = grown;
+            first = 0;
+        }
+
+        entries[(first + count) & (entries.length - 1)] = entry;
+        count++;
+        memoryUsage += entry.size;
+    }
+
+    private static void applyDelta(Entry delta, long[] cells)
+    {
+        for (int i = 0; i < delta.indices.length; i++)
+            cells[delta.indices[i]] ^= delta.words[i];
+    }
+
+    /*
+     * Creates a delta from lastCells to cells, comparing every word or only
+     * those in the changed rows.
+     */
+    private Entry createDelta(long generation, long[] cells,
+        ChangeSet changes)
+    {
+        int wordsPerRow = (width + Long.SIZE - 1) >>> 6;
+        int length = 0;
+        int[] indices = new int[INITIAL_CAPACITY];
+        long[] words = new long[INITIAL_CAPACITY];
+        for (int y = changes == null ? 0 : changes.nextChangedRow(0);
+            y != -1 && y < height;
+            y = changes == null ? y + 1 : changes.nextChangedRow(y + 1))
+        {
+            for (int i = y * wordsPerRow; i < (y + 1) * wordsPerRow; i++)
+            {
+                long word = cells[i] ^ lastCells[i];
+                if (word != 0)
+                {
+                    if (length == indices.length)
+                    {
+                        indices = Arrays.copyOf(indices,
+                            length * 2);
+                        words = Arrays.copyOf(words, length * 2);
+                    }
+                    indices[length] = i;
+                    words[length] = word;
+                    length++;
+                }
+            }
+        }
+
+        Entry entry = new Entry();
+        entry.generation = generation;
+        entry.indices = Arrays.copyOf(indices, length);
+        entry.words = Arrays.copyOf(words, length);
+        entry.size = ENTRY_OVERHEAD + (long)length * (Integer.BYTES
+            + Long.BYTES);
+        return entry;
+    }
+
+    private Entry get(int index)
+    {
+        return entries[(first + index) & (entries.length - 1)];
+    }
+
+    /*
+     * Finds the entry of a generation by binary search, as the generations
+     * only go up.
+     */
+    private int indexOf(long generation)
+    {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            long middleGeneration = get(middle).generation;
+            if (middleGeneration < generation)
+                low = middle + 1;
+            else if (middleGeneration > generation)
+                high = middle - 1;
+            else
+                return middle;
+        }
+
+        return -1;
+    }
+
+    private long[] rebuild(int index)
+    {
+        int keyframe = index;
+        while (get(keyframe).keyframe == null)
+            keyframe--;
+
+        long[] cells = get(keyframe).keyframe.clone();
+        for (int i = keyframe + 1; i <= index; i++)
+            applyDelta(get(i), cells);
+
+        return cells;
+    }
+
+    private void removeFirstKeyframe()
+    {
+        do
+        {
+            memoryUsage -= get(0).size;
+            entries[first] = null;
+            first = (first + 1) & (entries.length - 1);
+            count--;
+        }
+        while (get(0).keyframe == null);
+        keyframeCount--;
+    }
+
+    /*
+     * Forgets the entries from a generation on. Undoing the deltas keeps
+     * lastCells as the last generation left, which is only rebuilt if a
+     * keyframe is forgotten.
+     */
+    private void truncate(long generation)
+    {
+        boolean isRebuildNeeded = false;
+        while (count > 0 && get(count - 1).generation >= generation)
+        {
+            Entry entry = get(count - 1);
+            if (entry.keyframe != null)
+            {
+                keyframeCount--;
+                isRebuildNeeded = true;
+            }
+            else if (!isRebuildNeeded)
+            {
+                applyDelta(entry, lastCells);
+            }
+            memoryUsage -= entry.size;
+            entries[(first + count - 1) & (entries.length - 1)] = null;
+            count--;
+        }
+
+        if (isRebuildNeeded && count > 0)
+        {
+            long[] cells = rebuild(count - 1);
+            System.arraycopy(cells, 0, lastCells, 0, cells.length);
+        }
+    }
+
+    /*
+     * inner classes
+     */
+
+    /*
+     * A recorded generation: a keyframe, or a delta from the generation
+     * before it. A delta also counts the deltas since its keyframe, itself
+     * included, and their size.
+     */
+    private static class Entry
+    {
+        // instance fields
+        private int deltaCount;
+        private long deltaSize;
+        private long generation;
+        private int[] indices;
+        private long[] keyframe;
+        private long size;
+        private long[] words;
+    }
+}
@@ -0,0 +1,108 @@
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Exports <code>SimulationMetrics</code> over JMX, and has them measure the
+ * allocation rate.
+ * <p>
+ * Starting the JVM's management support loads several hundred classes, so
+ * <code>SimulationMetrics</code> itself never refers to it, and this class
+ * is only loaded by a program which wants it. The allocation rate is read
+ * from the JVM's thread management interface, which is cheap next to the
+ * GUI's startup, so the GUI always measures it; registering the MBean server
+ * is what costs most, so the metrics are only exported on request, e.g. with
+ * <code>--jmx</code> or the <code>JMX_PROPERTY</code> system property.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public final class MetricsExporter
+{
+    // class fields
+    /**
+     * The name the metrics are registered under with the platform MBean
+     * server.
+     */
+    public static final String OBJECT_NAME =
+        "GameOfLife:type=SimulationMetrics";
+
+    /*
+     * constructor
+     */
+
+    private MetricsExporter()
+    {
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Registers metrics with the platform MBean server under
+     * <code>OBJECT_NAME</code>, replacing any registered before.
+     *
+     * @param metrics the <code>SimulationMetrics</code> to export
+     * @return <code>true</code> if the operation succeeded,
+     * <code>false</code> otherwise
+     */
+    public static boolean export(SimulationMetrics metrics)
+    {
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name))
+                server.unregisterMBean(name);
+            server.registerMBean(metrics, name);
+        }
+        catch (JMException exception)
+        {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Starts measuring the allocation rate of metrics, if the JVM can.
+     *
+     * @param metrics the <code>SimulationMetrics</code> to measure the
+     * allocation rate of
+     * @return <code>true</code> if the operation succeeded,
+     * <code>false</code> otherwise
+     */
+    public static boolean measureAllocations(SimulationMetrics metrics)
+    {
+        if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean)
+        {
+            final ThreadMXBean threadBean =
+                (ThreadMXBean)ManagementFactory.getThreadMXBean();
+            if (threadBean.isThreadAllocatedMemorySupported()
+                && threadBean.isThreadAllocatedMemoryEnabled())
+            {
+                metrics.setAllocationCounter(
+                    new LongSupplier()
+                    {
+                        public long getAsLong()
+                        {
+                            long allocatedBytes = 0;
+                            for (long bytes : threadBean
+                                .getThreadAllocatedBytes(
+                                threadBean.getAllThreadIds()))
+                                allocatedBytes += Math.max(0, bytes);
+
+                            return allocatedBytes;
+                        }
+                    });
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,235 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A simulation of Conway's Game of Life which divides the grid into
+ * horizontal stripes and computes them on a <code>ForkJoinPool</code>.
+ * Every generation is identical to the one <code>GameOfLife</code> would
+ * compute.
+ * <p>
+ * Every <code>ParallelGameOfLife</code> with the same number of threads
+ * shares one pool, so replacing a simulation with a new one, e.g. when a
+ * file is loaded, does not start more threads. The threads of a pool exit
+ * on their own once it has been idle for a while.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class ParallelGameOfLife extends GameOfLife
+{
+    // class fields
+    private static final int MINIMUM_CELLS_PER_STRIPE = 16384;
+    private static final Map<Integer, ForkJoinPool> POOLS =
+        new HashMap<Integer, ForkJoinPool>();
+    private static final int STRIPES_PER_THREAD = 4;
+
+    // instance fields
+    private ForkJoinPool pool;
+    private int rowsPerStripe;
+
+    /*
+     * constructors
+     */
+
+    /**
+     * Creates a <code>ParallelGameOfLife</code> with specified cell
+     * configuration which uses as many threads as there are available
+     * processors.
+     *
+     * @param cells the configuration of the cells in the first generation;
+     * see <code>GameOfLife(boolean[][], long)</code>
+     * @param currentGeneration the generation which this
+     * <code>ParallelGameOfLife</code> is currently on; must be greater than 0
+     */
+    public ParallelGameOfLife(boolean[][] cells, long currentGeneration)
+    {
+        this(cells, currentGeneration,
+            Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a <code>ParallelGameOfLife</code> with specified cell
+     * configuration and number of threads.
+     *
+     * @param cells the configuration of the cells in the first generation;
+     * see <code>GameOfLife(boolean[][], long)</code>
+     * @param currentGeneration the generation which this
+     * <code>ParallelGameOfLife</code> is currently on; must be greater than 0
+     * @param parallelism the number of threads to simulate with; values less
+     * than 1 are treated as 1
+     */
+    public ParallelGameOfLife(boolean[][] cells, long currentGeneration,
+        int parallelism)
+    {
+        this(cells, currentGeneration, Rule.CONWAY, parallelism);
+    }
+
+    /**
+     * Creates a <code>ParallelGameOfLife</code> with specified cell
+     * configuration, ruleset and number of threads.
+     *
+     * @param cells the configuration of the cells in the first generation;
+     * see <code>GameOfLife(boolean[][], long)</code>
+     * @param currentGeneration the generation which this
+     * <code>ParallelGameOfLife</code> is currently on; must be greater than 0
+     * @param rule the ruleset to simulate with
+     * @param parallelism the number of threads to simulate with; values less
+     * than 1 are treated as 1
+     */
+    public ParallelGameOfLife(boolean[][] cells, long currentGeneration,
+        Rule rule, int parallelism)
+    {
+        super(cells, currentGeneration, rule);
+        initializeStripes(parallelism);
+    }
+
+    /**
+     * Creates a <code>ParallelGameOfLife</code> from cells which are packed
+     * 64 to a <code>long</code>, with the specified ruleset and number of
+     * threads.
+     *
+     * @param cells the configuration of the cells in the first generation;
+     * see <code>GameOfLife(long[], int, int, long, Rule)</code>
+     * @param width the width of the grid; must be greater than 0
+     * @param height the height of the grid; must be greater than 0
+     * @param currentGeneration the generation which this
+     * <code>ParallelGameOfLife</code> is currently on; must be greater than 0
+     * @param rule the ruleset to simulate with
+     * @param parallelism the number of threads to simulate with; values less
+     * than 1 are treated as 1
+     */
+    public ParallelGameOfLife(long[] cells, int width, int height,
+        long currentGeneration, Rule rule, int parallelism)
+    {
+        super(cells, width, height, currentGeneration, rule);
+        initializeStripes(parallelism);
+    }
+
+    /**
+     * Creates a <code>ParallelGameOfLife</code> of the specified size with
+     * every cell dead, on generation 1, e.g. to be filled in with
+     * <code>setCellState</code>.
+     *
+     * @param width the width of the grid; must be greater than 0
+     * @param height the height of the grid; must be greater than 0
+     * @param rule the ruleset to simulate with
+     * @param parallelism the number of threads to simulate with; values less
+     * than 1 are treated as 1
+     */
+    public ParallelGameOfLife(int width, int height, Rule rule,
+        int parallelism)
+    {
+        super(width, height, rule);
+        initializeStripes(parallelism);
+    }
+
+    /*
+     * accessor
+     */
+
+    /**
+     * Returns the number of threads this <code>ParallelGameOfLife</code>
+     * simulates with.
+     *
+     * @return the number of threads this <code>ParallelGameOfLife</code>
+     * simulates with
+     */
+    public int getParallelism()
+    {
+        return pool.getParallelism();
+    }
+
+    /*
+     * methods
+     */
+
+    long computeNextGeneration()
+    {
+        if (getHeight() <= rowsPerStripe)
+            return computeRows(0, getHeight());
+
+        StripeTask task = new StripeTask(0, getHeight());
+        pool.invoke(task);
+        return task.hashChange;
+    }
+
+    /*
+     * Returns the pool shared by every ParallelGameOfLife with a number of
+     * threads, creating it the first time.
+     */
+    private static synchronized ForkJoinPool getPool(int parallelism)
+    {
+        ForkJoinPool pool = POOLS.get(parallelism);
+        if (pool == null)
+        {
+            pool = new ForkJoinPool(parallelism);
+            POOLS.put(parallelism, pool);
+        }
+
+        return pool;
+    }
+
+    private void initializeStripes(int parallelism)
+    {
+        parallelism = Math.max(1, parallelism);
+        pool = getPool(parallelism);
+
+        int minimumRows = Math.max(1,
+            MINIMUM_CELLS_PER_STRIPE / Math.max(1, getWidth()));
+        rowsPerStripe = Math.max(minimumRows,
+            getHeight() / (parallelism * STRIPES_PER_THREAD));
+    }
+
+    /*
+     * inner classes
+     */
+
+    private class StripeTask extends RecursiveAction
+    {
+        // class fields
+        private static final long serialVersionUID = 1L;
+
+        // instance fields
+        private int endY;
+        private long hashChange;
+        private int startY;
+
+        /*
+         * constructor
+         */
+
+        /**
+         * Creates a <code>StripeTask</code> for the specified rows.
+         *
+         * @param startY the first row to compute
+         * @param endY the row after the last row to compute
+         */
+        public StripeTask(int startY, int endY)
+        {
+            this.startY = startY;
+            this.endY = endY;
+        }
+
+        /*
+         * methods
+         */
+
+        protected void compute()
+        {
+            if (endY - startY <= rowsPerStripe)
+            {
+                hashChange = computeRows(startY, endY);
+            }
+            else
+            {
+                int middleY = (startY + endY) >>> 1;
+                StripeTask top = new StripeTask(startY, middleY);
+                StripeTask bottom = new StripeTask(middleY, endY);
+                invokeAll(top, bottom);
+                hashChange = top.hashChange ^ bottom.hashChange;
+            }
+        }
+    }
+}
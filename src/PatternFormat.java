@@ -0,0 +1,572 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * The plain-text pattern formats which other Life programs exchange, read
+ * and written as streams.
+ * <p>
+ * Reading goes through the input a chunk at a time, with no line kept but
+ * the header, and sets the alive cells one by one in a
+ * <code>Simulation</code> created empty by an <code>Engine</code>, so a
+ * sparse pattern costs memory in proportion to its population when read
+ * into <code>SPARSE</code>, and a bit per cell when read into
+ * <code>BIT_PACKED</code>. Writing goes through the simulation a row at a
+ * time, skipping dead cells a word at a time.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public enum PatternFormat
+{
+    /**
+     * Run-length encoded: a header line <code>x = width, y = height,
+     * rule = B3/S23</code>, then runs such as <code>3o</code> (three alive
+     * cells), <code>2b</code> (two dead cells) and <code>4$</code> (four
+     * row ends), finished by <code>!</code>. Lines starting with
+     * <code>#</code> before the header are comments.
+     */
+    RLE("rle", "rle")
+    {
+        public Simulation read(Reader reader, Engine engine, Rule rule)
+            throws IOException
+        {
+            PatternReader input = new PatternReader(reader);
+            String header = input.readHeader();
+            int width = -1;
+            int height = -1;
+            for (String field : header.split(","))
+            {
+                String[] keyValue = field.split("=", 2);
+                if (keyValue.length != 2)
+                    throw new IOException("Invalid header: " + header);
+
+                String key = keyValue[0].trim();
+                String value = keyValue[1].trim();
+                if (key.equals("x"))
+                    width = parseSize(value);
+                else if (key.equals("y"))
+                    height = parseSize(value);
+                else if (key.equals("rule") && rule == null)
+                    rule = parseRule(value);
+            }
+            if (width == -1 || height == -1)
+                throw new IOException("Invalid header: " + header);
+
+            Simulation simulation = engine.create(Math.max(1, width),
+                Math.max(1, height), rule != null ? rule : Rule.CONWAY);
+            long x = 0;
+            long y = 0;
+            long count = 0;
+            for (int c = input.read(); c != -1 && c != '!';
+                c = input.read())
+            {
+                if (c >= '0' && c <= '9')
+                {
+                    count = count * 10 + c - '0';
+                    if (count > Integer.MAX_VALUE)
+                        throw new IOException("Run too long");
+                }
+                else if (c == '$')
+                {
+                    y += Math.max(1, count);
+                    x = 0;
+                    count = 0;
+                }
+                else if (c == 'b')
+                {
+                    x += Math.max(1, count);
+                    count = 0;
+                }
+                else if (Character.isLetter(c))
+                {
+                    long run = Math.max(1, count);
+                    if (y >= height || x + run > width)
+                        throw new IOException("Cell outside of the pattern"
+                            + " at (" + (x + run - 1) + ", " + y + ")");
+                    for (int i = 0; i < run; i++)
+                        simulation.setCellState((int)x + i, (int)y, true);
+                    x += run;
+                    count = 0;
+                }
+                else if (!Character.isWhitespace(c))
+                {
+                    throw new IOException("Unexpected character: "
+                        + (char)c);
+                }
+            }
+
+            return simulation;
+        }
+
+        public void write(Writer writer, Simulation simulation)
+            throws IOException
+        {
+            int width = simulation.getWidth();
+            PatternWriter output = new PatternWriter(writer);
+            output.writeLine("x = " + width + ", y = "
+                + simulation.getHeight() + ", rule = "
+                + simulation.getRule());
+
+            long[] row = new long[(width + Long.SIZE - 1) >>> 6];
+            int rowEnds = 0;
+            for (int y = 0; y < simulation.getHeight(); y++)
+            {
+                Snapshot.copyRow(simulation, y, row);
+                int x = 0;
+                for (int alive = nextAliveCell(row, 0, width); alive != -1;
+                    alive = nextAliveCell(row, x, width))
+                {
+                    output.writeRun(rowEnds, '$');
+                    rowEnds = 0;
+                    output.writeRun(alive - x, 'b');
+                    x = nextDeadCell(row, alive, width);
+                    output.writeRun(x - alive, 'o');
+                }
+                rowEnds++;
+            }
+            output.writeRun(1, '!');
+            output.endLine();
+            writer.flush();
+        }
+    },
+
+    /**
+     * Life 1.06: the line <code>#Life 1.06</code>, then the coordinates of
+     * one alive cell per line. The coordinates may be negative; the pattern
+     * is moved so that its bounding box starts at (0, 0), as the format has
+     * no size.
+     */
+    LIFE_1_06("life-1.06", "lif")
+    {
+        public Simulation read(Reader reader, Engine engine, Rule rule)
+            throws IOException
+        {
+            PatternReader input = new PatternReader(reader);
+            String header = input.readLine();
+            if (header == null || !header.trim().equals(LIFE_1_06_HEADER))
+                throw new IOException("Missing " + LIFE_1_06_HEADER
+                    + " header");
+
+            long[] coordinates = new long[INITIAL_COORDINATES_LENGTH];
+            int length = 0;
+            long minimumX = Long.MAX_VALUE;
+            long minimumY = Long.MAX_VALUE;
+            long maximumX = Long.MIN_VALUE;
+            long maximumY = Long.MIN_VALUE;
+            for (int c = input.skipWhitespace(); c != -1;
+                c = input.skipWhitespace())
+            {
+                if (c == '#')
+                {
+                    input.readLine();
+                    continue;
+                }
+
+                int x = input.readInteger(c);
+                int y = input.readInteger(input.skipWhitespace());
+                if (length == coordinates.length)
+                    coordinates = Arrays.copyOf(coordinates, length * 2);
+                coordinates[length++] = x;
+                coordinates[length++] = y;
+                minimumX = Math.min(minimumX, x);
+                minimumY = Math.min(minimumY, y);
+                maximumX = Math.max(maximumX, x);
+                maximumY = Math.max(maximumY, y);
+            }
+            if (length == 0)
+                minimumX = minimumY = maximumX = maximumY = 0;
+            if (maximumX - minimumX >= Integer.MAX_VALUE
+                || maximumY - minimumY >= Integer.MAX_VALUE)
+                throw new IOException("Pattern too large");
+
+            Simulation simulation = engine.create(
+                (int)(maximumX - minimumX + 1),
+                (int)(maximumY - minimumY + 1),
+                rule != null ? rule : Rule.CONWAY);
+            for (int i = 0; i < length; i += 2)
+                simulation.setCellState((int)(coordinates[i] - minimumX),
+                    (int)(coordinates[i + 1] - minimumY), true);
+
+            return simulation;
+        }
+
+        public void write(Writer writer, Simulation simulation)
+            throws IOException
+        {
+            int width = simulation.getWidth();
+            PatternWriter output = new PatternWriter(writer);
+            output.writeLine(LIFE_1_06_HEADER);
+
+            long[] row = new long[(width + Long.SIZE - 1) >>> 6];
+            for (int y = 0; y < simulation.getHeight(); y++)
+            {
+                Snapshot.copyRow(simulation, y, row);
+                for (int x = nextAliveCell(row, 0, width); x != -1;
+                    x = nextAliveCell(row, x + 1, width))
+                    output.writeLine(x + " " + y);
+            }
+            writer.flush();
+        }
+    };
+
+    // class fields
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int INITIAL_COORDINATES_LENGTH = 1024;
+    private static final String LIFE_1_06_HEADER = "#Life 1.06";
+    private static final int MAXIMUM_LINE_LENGTH = 70;
+
+    // instance fields
+    private final String extension;
+    private final String name;
+
+    /*
+     * constructor
+     */
+
+    private PatternFormat(String name, String extension)
+    {
+        this.name = name;
+        this.extension = extension;
+    }
+
+    /*
+     * accessors
+     */
+
+    /**
+     * Returns the usual file extension of this <code>PatternFormat</code>.
+     *
+     * @return the file extension, without the dot
+     */
+    public String getExtension()
+    {
+        return extension;
+    }
+
+    /**
+     * Returns the name of this <code>PatternFormat</code> in lower case
+     * (e.g. <code>life-1.06</code>).
+     *
+     * @return the name of this <code>PatternFormat</code>
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Reads a pattern into a new <code>Simulation</code>, which is on
+     * generation 1.
+     *
+     * @param reader the <code>Reader</code> to read from; it is not closed
+     * @param engine the <code>Engine</code> which creates the
+     * <code>Simulation</code>
+     * @param rule the ruleset to simulate with; <code>null</code> for the
+     * ruleset given by the pattern, or Conway's if there is none
+     * @return the <code>Simulation</code>
+     * @throws IOException if the pattern could not be read or is not valid
+     * @throws IllegalArgumentException if the <code>Engine</code> does not
+     * support the ruleset
+     */
+    public abstract Simulation read(Reader reader, Engine engine, Rule rule)
+        throws IOException;
+
+    /**
+     * Writes the cells of a <code>Simulation</code> within its width and
+     * height as a pattern.
+     *
+     * @param writer the <code>Writer</code> to write to; it is flushed but
+     * not closed
+     * @param simulation the <code>Simulation</code> to write
+     * @throws IOException if the pattern could not be written
+     */
+    public abstract void write(Writer writer, Simulation simulation)
+        throws IOException;
+
+    /**
+     * Returns the <code>PatternFormat</code> with the specified name, as
+     * returned by <code>getName()</code>. The name is case-insensitive.
+     *
+     * @param name the name of the <code>PatternFormat</code>
+     * @return the <code>PatternFormat</code> with the specified name
+     * @throws IllegalArgumentException if there is no
+     * <code>PatternFormat</code> with the specified name
+     */
+    public static PatternFormat forName(String name)
+    {
+        for (PatternFormat format : values())
+            if (format.getName().equalsIgnoreCase(name))
+                return format;
+
+        throw new IllegalArgumentException("Unknown format: " + name);
+    }
+
+    /**
+     * Returns the <code>PatternFormat</code> a file starts like: Life 1.06
+     * with its header line, RLE with a comment or its header line.
+     *
+     * @param start the first characters of the file
+     * @return the <code>PatternFormat</code>; <code>null</code> if the file
+     * is in neither
+     */
+    public static PatternFormat forStart(String start)
+    {
+        start = start.trim();
+        if (start.startsWith(LIFE_1_06_HEADER))
+            return LIFE_1_06;
+        else if (start.startsWith("#") || start.startsWith("x"))
+            return RLE;
+        else
+            return null;
+    }
+
+    /*
+     * Returns the x-coordinate of the first alive cell of a packed row at or
+     * after x, or -1 if there is none.
+     */
+    private static int nextAliveCell(long[] row, int x, int width)
+    {
+        if (x >= width)
+            return -1;
+
+        int i = x >>> 6;
+        long word = row[i] & (-1L << x);
+        while (word == 0)
+        {
+            if (++i == row.length)
+                return -1;
+            word = row[i];
+        }
+
+        return (i << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /*
+     * Returns the x-coordinate of the first dead cell of a packed row at or
+     * after x, or width if there is none.
+     */
+    private static int nextDeadCell(long[] row, int x, int width)
+    {
+        int i = x >>> 6;
+        long word = ~row[i] & (-1L << x);
+        while (word == 0)
+        {
+            if (++i == row.length)
+                return width;
+            word = ~row[i];
+        }
+
+        return Math.min(width, (i << 6) + Long.numberOfTrailingZeros(word));
+    }
+
+    private static Rule parseRule(String rulestring) throws IOException
+    {
+        try
+        {
+            return new Rule(rulestring);
+        }
+        catch (IllegalArgumentException exception)
+        {
+            throw new IOException(exception.getMessage());
+        }
+    }
+
+    private static int parseSize(String size) throws IOException
+    {
+        try
+        {
+            int value = Integer.parseInt(size);
+            if (value < 0)
+                throw new NumberFormatException();
+
+            return value;
+        }
+        catch (NumberFormatException exception)
+        {
+            throw new IOException("Invalid size: " + size);
+        }
+    }
+
+    /*
+     * inner classes
+     */
+
+    /*
+     * Reads characters a chunk at a time, without the locking of
+     * BufferedReader.read().
+     */
+    private static class PatternReader
+    {
+        // instance fields
+        private char[] buffer;
+        private int length;
+        private int position;
+        private Reader reader;
+
+        /*
+         * constructor
+         */
+
+        public PatternReader(Reader reader)
+        {
+            this.reader = reader;
+            buffer = new char[BUFFER_SIZE];
+        }
+
+        /*
+         * methods
+         */
+
+        /*
+         * Returns the next character, or -1 at the end of the input.
+         */
+        public int read() throws IOException
+        {
+            if (position == length)
+            {
+                length = Math.max(0, reader.read(buffer));
+                position = 0;
+                if (length == 0)
+                    return -1;
+            }
+
+            return buffer[position++];
+        }
+
+        /*
+         * Returns the first line which is not blank or a comment.
+         */
+        public String readHeader() throws IOException
+        {
+            for (String line = readLine(); line != null; line = readLine())
+                if (!line.trim().isEmpty() && !line.startsWith("#"))
+                    return line;
+
+            throw new IOException("Missing header");
+        }
+
+        /*
+         * Reads an integer which starts with the character c, and the
+         * character after it.
+         */
+        public int readInteger(int c) throws IOException
+        {
+            boolean isNegative = c == '-';
+            if (isNegative)
+                c = read();
+            if (c < '0' || c > '9')
+                throw new IOException("Expected a number");
+
+            long value = 0;
+            for (; c >= '0' && c <= '9'; c = read())
+            {
+                value = value * 10 + c - '0';
+                if (value > Integer.MAX_VALUE)
+                    throw new IOException("Number too large");
+            }
+            if (c != -1 && !Character.isWhitespace(c))
+                throw new IOException("Unexpected character: " + (char)c);
+
+            return (int)(isNegative ? -value : value);
+        }
+
+        /*
+         * Returns the rest of the line without its line terminator, or null
+         * at the end of the input.
+         */
+        public String readLine() throws IOException
+        {
+            StringBuilder line = new StringBuilder();
+            int c = read();
+            if (c == -1)
+                return null;
+
+            for (; c != -1 && c != '\n'; c = read())
+                if (c != '\r')
+                    line.append((char)c);
+
+            return line.toString();
+        }
+
+        /*
+         * Returns the next character which is not whitespace, or -1 at the
+         * end of the input.
+         */
+        public int skipWhitespace() throws IOException
+        {
+            int c = read();
+            while (c != -1 && Character.isWhitespace(c))
+                c = read();
+
+            return c;
+        }
+    }
+
+    /*
+     * Writes runs, wrapping lines before they grow longer than
+     * MAXIMUM_LINE_LENGTH.
+     */
+    private static class PatternWriter
+    {
+        // instance fields
+        private int lineLength;
+        private Writer writer;
+
+        /*
+         * constructor
+         */
+
+        public PatternWriter(Writer writer)
+        {
+            this.writer = writer;
+        }
+
+        /*
+         * methods
+         */
+
+        /*
+         * Ends the current line if it is not empty.
+         */
+        public void endLine() throws IOException
+        {
+            if (lineLength > 0)
+                writer.write('\n');
+            lineLength = 0;
+        }
+
+        /*
+         * Writes a whole line, after ending the current one.
+         */
+        public void writeLine(String line) throws IOException
+        {
+            endLine();
+            writer.write(line);
+            writer.write('\n');
+        }
+
+        /*
+         * Writes a run of count tags, or nothing if count is 0.
+         */
+        public void writeRun(int count, char tag) throws IOException
+        {
+            if (count == 0)
+                return;
+
+            String run = count == 1 ? String.valueOf(tag) : count + "" + tag;
+            if (lineLength + run.length() > MAXIMUM_LINE_LENGTH)
+            {
+                writer.write('\n');
+                lineLength = 0;
+            }
+            writer.write(run);
+            lineLength += run.length();
+        }
+    }
+}
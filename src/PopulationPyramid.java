@@ -0,0 +1,190 @@
+import java.util.Arrays;
+
+/**
+ * The number of alive cells in every square tile of a grid, for every tile
+ * size which is a power of two, so that a grid can be drawn smaller than one
+ * pixel per cell without visiting every cell.
+ * <p>
+ * Level <code>k</code> divides the grid into tiles of <code>2^k</code> by
+ * <code>2^k</code> cells, counted from the top-left corner, from level 1 up
+ * to the first level with a single tile. Each tile of a level is the sum of
+ * four tiles of the level below. A changed cell changes one tile per level,
+ * so keeping the counts current costs in proportion to the number of changed
+ * cells.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class PopulationPyramid
+{
+    // class fields
+    private static final long EVEN_BITS = 0x5555555555555555L;
+
+    // instance fields
+    private int[][] counts;
+    private int height;
+    private int[] levelWidths;
+    private int width;
+
+    /*
+     * constructor
+     */
+
+    /**
+     * Creates a <code>PopulationPyramid</code> for a grid of the specified
+     * size with every cell dead.
+     *
+     * @param width the width of the grid
+     * @param height the height of the grid
+     */
+    public PopulationPyramid(int width, int height)
+    {
+        this.width = width;
+        this.height = height;
+
+        int levelCount = 0;
+        while ((1 << levelCount) < Math.max(width, height))
+            levelCount++;
+
+        counts = new int[levelCount + 1][];
+        levelWidths = new int[levelCount + 1];
+        for (int level = 1; level <= levelCount; level++)
+        {
+            levelWidths[level] = getTileCount(width, level);
+            counts[level] = new int[levelWidths[level]
+                * getTileCount(height, level)];
+        }
+    }
+
+    /*
+     * accessors
+     */
+
+    /**
+     * Returns the number of alive cells in a tile.
+     *
+     * @param level the level of the tile, from 1 to
+     * <code>getLevelCount()</code>
+     * @param tileX the x-coordinate of the tile, i.e. the x-coordinate of
+     * its first cell divided by <code>2^level</code>
+     * @param tileY the y-coordinate of the tile
+     * @return the number of alive cells in the tile
+     */
+    public int getCount(int level, int tileX, int tileY)
+    {
+        return counts[level][tileY * levelWidths[level] + tileX];
+    }
+
+    /**
+     * Returns the height of the grid.
+     *
+     * @return the height of the grid
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Returns the number of levels, which is also the highest level; its
+     * single tile covers the whole grid.
+     *
+     * @return the number of levels
+     */
+    public int getLevelCount()
+    {
+        return counts.length - 1;
+    }
+
+    /**
+     * Returns the width of the grid.
+     *
+     * @return the width of the grid
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /*
+     * mutators
+     */
+
+    /**
+     * Records that a cell was born or died.
+     *
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @param isAlive <code>true</code> if the cell was born,
+     * <code>false</code> if it died
+     */
+    public void setCellChanged(int x, int y, boolean isAlive)
+    {
+        int change = isAlive ? 1 : -1;
+        for (int level = 1; level < counts.length; level++)
+            counts[level][(y >> level) * levelWidths[level] + (x >> level)] +=
+                change;
+    }
+
+    /**
+     * Counts every tile again from a snapshot of the grid. The tiles of
+     * level 1 are counted from the packed cells of the snapshot, two rows
+     * of words at a time, skipping the words with no alive cell.
+     *
+     * @param snapshot the snapshot, whose size is the size of the grid
+     */
+    public void setCells(Snapshot snapshot)
+    {
+        if (counts.length == 1)
+            return;
+
+        long[] cells = snapshot.getCells();
+        int wordsPerRow = (width + Long.SIZE - 1) >>> 6;
+        int[] firstLevel = counts[1];
+        Arrays.fill(firstLevel, 0);
+        for (int y = 0; y < height; y += 2)
+        {
+            int row = (y >> 1) * levelWidths[1];
+            for (int word = 0; word < wordsPerRow; word++)
+            {
+                long top = cells[y * wordsPerRow + word];
+                long bottom = y + 1 < height
+                    ? cells[(y + 1) * wordsPerRow + word] : 0;
+                long tiles = (top | bottom | (top | bottom) >>> 1)
+                    & EVEN_BITS;
+                for (; tiles != 0; tiles &= tiles - 1)
+                {
+                    int bit = Long.numberOfTrailingZeros(tiles);
+                    firstLevel[row + (word << 5) + (bit >> 1)] =
+                        Long.bitCount((top >>> bit & 3)
+                        | (bottom >>> bit & 3) << 2);
+                }
+            }
+        }
+
+        for (int level = 2; level < counts.length; level++)
+        {
+            int[] below = counts[level - 1];
+            int belowWidth = levelWidths[level - 1];
+            int belowHeight = below.length / belowWidth;
+            int[] tiles = counts[level];
+            Arrays.fill(tiles, 0);
+            for (int tileY = 0; tileY < belowHeight; tileY++)
+                for (int tileX = 0; tileX < belowWidth; tileX++)
+                    tiles[(tileY >> 1) * levelWidths[level] + (tileX >> 1)] +=
+                        below[tileY * belowWidth + tileX];
+        }
+    }
+
+    /*
+     * methods
+     */
+
+    /*
+     * Returns the number of tiles of a level across a length of cells.
+     */
+    private static int getTileCount(int length, int level)
+    {
+        return (length + (1 << level) - 1) >> level;
+    }
+}
@@ -0,0 +1,48 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for one paint of the board by the GUI, so a
+ * recording shows whether a slow display is spent drawing rather than
+ * simulating. Begun through <code>FlightEvents</code>, and its fields are
+ * only filled in once <code>shouldCommit</code> says it will be recorded.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+@Name("GameOfLife.Render")
+@Label("Render")
+@Category({"Game of Life"})
+@Description("The painting of the board on the screen")
+public class RenderEvent extends Event
+{
+    // instance fields
+    /**
+     * The number of cells which changed since the board was last painted.
+     */
+    @Label("Changed Cells")
+    public long changedCells;
+    /**
+     * The generation painted.
+     */
+    @Label("Generation")
+    public long generation;
+    /**
+     * The height of the board.
+     */
+    @Label("Height")
+    public int height;
+    /**
+     * The number of cells within the area painted.
+     */
+    @Label("Painted Cells")
+    public long paintedCells;
+    /**
+     * The width of the board.
+     */
+    @Label("Width")
+    public int width;
+}
@@ -0,0 +1,211 @@
+/**
+ * A Life-like ruleset in B/S notation (e.g. <code>B3/S23</code> for Conway's
+ * Game of Life), compiled into a lookup table.
+ * <p>
+ * The table is indexed by <code>(aliveNeighbours &lt;&lt; 1) | alive</code>,
+ * where <code>alive</code> is 1 for an alive cell and 0 for a dead cell, and
+ * holds whether the cell is alive in the next generation, so applying the
+ * ruleset takes no branches.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public final class Rule
+{
+    // class fields
+    /**
+     * Conway's Game of Life: born with 3 neighbours, survives with 2 or 3.
+     */
+    public static final Rule CONWAY = new Rule("B3/S23");
+    private static final int MAXIMUM_NEIGHBOURS = 8;
+
+    // instance fields
+    private int birthMask;
+    private boolean[] nextStates;
+    private int survivalMask;
+
+    /*
+     * constructor
+     */
+
+    /**
+     * Creates a <code>Rule</code> from a rulestring such as
+     * <code>B36/S23</code>. The letters are case-insensitive, the parts may
+     * be in either order, and the unprefixed <code>S/B</code> form
+     * (e.g. <code>23/36</code>) is also accepted.
+     *
+     * @param rulestring the rulestring
+     * @throws IllegalArgumentException if the rulestring is not valid
+     */
+    public Rule(String rulestring)
+    {
+        String[] parts = rulestring.trim().toUpperCase().split("/", -1);
+        if (parts.length != 2)
+            throw new IllegalArgumentException("Invalid rule: " +
+                rulestring);
+
+        boolean isPrefixed =
+            parts[0].startsWith("B") || parts[0].startsWith("S");
+        for (int i = 0; i < parts.length; i++)
+        {
+            String part = parts[i];
+            boolean isBirth;
+            if (isPrefixed)
+            {
+                if (!part.startsWith("B") && !part.startsWith("S"))
+                    throw new IllegalArgumentException("Invalid rule: " +
+                        rulestring);
+                isBirth = part.charAt(0) == 'B';
+                part = part.substring(1);
+            }
+            else
+            {
+                isBirth = i == 1;
+            }
+
+            int mask = parseNeighbourCounts(part, rulestring);
+            if (isBirth)
+                birthMask |= mask;
+            else
+                survivalMask |= mask;
+        }
+
+        nextStates = new boolean[(MAXIMUM_NEIGHBOURS + 1) << 1];
+        for (int neighbours = 0; neighbours <= MAXIMUM_NEIGHBOURS;
+            neighbours++)
+        {
+            nextStates[neighbours << 1] = isBorn(neighbours);
+            nextStates[(neighbours << 1) | 1] = survives(neighbours);
+        }
+    }
+
+    /*
+     * accessors
+     */
+
+    /**
+     * Returns a bit mask with bit <i>n</i> set if a dead cell with <i>n</i>
+     * alive neighbours comes alive.
+     *
+     * @return the birth bit mask
+     */
+    public int getBirthMask()
+    {
+        return birthMask;
+    }
+
+    /**
+     * Returns the lookup table of this <code>Rule</code>, indexed by
+     * <code>(aliveNeighbours &lt;&lt; 1) | alive</code>. The table is shared
+     * and must not be modified.
+     *
+     * @return the lookup table of this <code>Rule</code>
+     */
+    public boolean[] getNextStates()
+    {
+        return nextStates;
+    }
+
+    /**
+     * Returns a bit mask with bit <i>n</i> set if an alive cell with <i>n</i>
+     * alive neighbours stays alive.
+     *
+     * @return the survival bit mask
+     */
+    public int getSurvivalMask()
+    {
+        return survivalMask;
+    }
+
+    /**
+     * Returns whether a dead cell with the specified number of alive
+     * neighbours comes alive.
+     *
+     * @param neighbours the number of alive neighbours
+     * @return <code>true</code> if the cell comes alive
+     */
+    public boolean isBorn(int neighbours)
+    {
+        return (birthMask & (1 << neighbours)) != 0;
+    }
+
+    /**
+     * Returns whether an alive cell with the specified number of alive
+     * neighbours stays alive.
+     *
+     * @param neighbours the number of alive neighbours
+     * @return <code>true</code> if the cell stays alive
+     */
+    public boolean survives(int neighbours)
+    {
+        return (survivalMask & (1 << neighbours)) != 0;
+    }
+
+    /**
+     * Returns whether this <code>Rule</code> is equal to another object.
+     *
+     * @param object the object to compare to
+     * @return <code>true</code> if the object is a <code>Rule</code> with
+     * the same births and survivals
+     */
+    public boolean equals(Object object)
+    {
+        if (!(object instanceof Rule))
+            return false;
+
+        Rule rule = (Rule)object;
+        return
+            birthMask == rule.birthMask && survivalMask == rule.survivalMask;
+    }
+
+    /**
+     * Returns a hash code for this <code>Rule</code>.
+     *
+     * @return a hash code for this <code>Rule</code>
+     */
+    public int hashCode()
+    {
+        return (birthMask << 9) | survivalMask;
+    }
+
+    /**
+     * Returns this <code>Rule</code> in <code>B/S</code> notation.
+     *
+     * @return this <code>Rule</code> in <code>B/S</code> notation
+     */
+    public String toString()
+    {
+        StringBuilder rulestring = new StringBuilder("B");
+        for (int neighbours = 0; neighbours <= MAXIMUM_NEIGHBOURS;
+            neighbours++)
+            if (isBorn(neighbours))
+                rulestring.append(neighbours);
+
+        rulestring.append("/S");
+        for (int neighbours = 0; neighbours <= MAXIMUM_NEIGHBOURS;
+            neighbours++)
+            if (survives(neighbours))
+                rulestring.append(neighbours);
+
+        return rulestring.toString();
+    }
+
+    /*
+     * methods
+     */
+
+    private static int parseNeighbourCounts(String counts, String rulestring)
+    {
+        int mask = 0;
+        for (int i = 0; i < counts.length(); i++)
+        {
+            int neighbours = counts.charAt(i) - '0';
+            if (neighbours < 0 || neighbours > MAXIMUM_NEIGHBOURS)
+                throw new IllegalArgumentException("Invalid rule: " +
+                    rulestring);
+            mask |= 1 << neighbours;
+        }
+
+        return mask;
+    }
+}
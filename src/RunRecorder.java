@@ -0,0 +1,440 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Records a run of a simulation, generation by generation, to an
+ * append-only log which <code>RunReplay</code> can play back without
+ * simulating it again.
+ * <p>
+ * The log starts with a header of little-endian fields: the magic number
+ * <code>GOLR</code>, the format version, the width, the height and the
+ * length of the ruleset in <code>B/S</code> notation followed by the ruleset
+ * itself, padded to a multiple of 8 bytes. Records follow, each with its
+ * type, its number of entries, its generation and its number of words, then
+ * the entries, then the words, of cells packed as by <code>Snapshot</code>.
+ * An entry is either the index of one word, or, for a row most of whose
+ * words are recorded, the complement of the row, which stands for every
+ * word of the row. A keyframe record holds every word with an alive cell; a
+ * delta record holds the words which changed since the generation before
+ * it, XORed together. The first record is a keyframe, and a new one is
+ * written <code>KEYFRAME_INTERVAL</code> generations after the last one,
+ * when a generation does not follow the one recorded before it, or once the
+ * deltas since the last one outweigh both it and the grid itself, which
+ * writing a keyframe reads through, so that a replay can seek to any
+ * generation by starting from a nearby keyframe. Closing the
+ * log appends an index of the keyframes and a footer pointing to it; a log
+ * which was not closed, e.g. because the program was killed, is still
+ * readable up to its last whole record.
+ * <p>
+ * Records are gathered in a large buffer which, once full, is written out by
+ * a background thread while the next one fills. The words of a delta are
+ * taken straight from the <code>ChangeSet</code> of the generation when
+ * there is one, so recording costs little next to simulating as long as the
+ * disk keeps up.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class RunRecorder implements Closeable
+{
+    // class fields
+    /**
+     * The file extension of run logs.
+     */
+    public static final String FILE_FORMAT = "golr";
+    /**
+     * The largest number of generations between two keyframes.
+     */
+    public static final int KEYFRAME_INTERVAL = 1024;
+    static final int DELTA_RECORD = 1;
+    static final int FOOTER_MAGIC_NUMBER = 0x58444E49;
+    static final int FOOTER_SIZE = 16;
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_SIZE = 24;
+    static final int INDEX_RECORD = 3;
+    static final int KEYFRAME_RECORD = 2;
+    static final int MAGIC_NUMBER = 0x524C4F47;
+    static final int RECORD_HEADER_SIZE = 24;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // instance fields
+    private ByteBuffer buffer;
+    private FileChannel channel;
+    private int deltaCount;
+    private long deltaSize;
+    private int entryCount;
+    private int[] entries;
+    private int height;
+    private long[] keyframeGenerations;
+    private int keyframeCount;
+    private long[] keyframePositions;
+    private long keyframeSize;
+    private long[] lastCells;
+    private long lastGeneration;
+    private Future<?> pendingWrite;
+    private long position;
+    private long[] row;
+    private ByteBuffer spareBuffer;
+    private int width;
+    private int wordCount;
+    private long[] words;
+    private int wordsPerRow;
+    private ExecutorService writer;
+
+    /*
+     * constructor
+     */
+
+    /**
+     * Creates a log, replacing any file with the same name, and records the
+     * current generation of a <code>Simulation</code> as its first
+     * keyframe.
+     *
+     * @param file the <code>File</code> to write the log to
+     * @param simulation the <code>Simulation</code> to record
+     * @throws IOException if the file could not be written
+     */
+    public RunRecorder(File file, Simulation simulation) throws IOException
+    {
+        width = simulation.getWidth();
+        height = simulation.getHeight();
+        wordsPerRow = (width + Long.SIZE - 1) >>> 6;
+        lastCells = new long[wordsPerRow * height];
+        row = new long[wordsPerRow];
+        entries = new int[INITIAL_CAPACITY];
+        words = new long[INITIAL_CAPACITY];
+        keyframeGenerations = new long[INITIAL_CAPACITY];
+        keyframePositions = new long[INITIAL_CAPACITY];
+        lastGeneration = -1;
+
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        spareBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        writer = Executors.newSingleThreadExecutor(
+            new ThreadFactory()
+            {
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "Record");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+        byte[] rulestring = simulation.getRule().toString()
+            .getBytes(StandardCharsets.US_ASCII);
+        buffer.putInt(MAGIC_NUMBER);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(width);
+        buffer.putInt(height);
+        buffer.putInt(0);
+        buffer.putInt(rulestring.length);
+        buffer.put(rulestring);
+        buffer.position(HEADER_SIZE + getPaddedLength(rulestring.length));
+        position = buffer.position();
+
+        record(simulation, null);
+    }
+
+    /*
+     * mutators
+     */
+
+    /**
+     * Records the current generation of the <code>Simulation</code> being
+     * recorded.
+     *
+     * @param simulation the <code>Simulation</code>
+     * @param changes exactly the cells which changed since the generation
+     * recorded before, e.g. the changes of the last generation of a
+     * <code>ChangeTrackingSimulation</code> if it was the only one simulated
+     * since; its words are recorded as they are. <code>null</code> to
+     * compare every row with the generation recorded before.
+     * @throws IOException if the log could not be written
+     * @throws IllegalArgumentException if the generation is not later than
+     * the one recorded before
+     */
+    public void record(Simulation simulation, ChangeSet changes)
+        throws IOException
+    {
+        long generation = simulation.getCurrentGeneration();
+        if (generation <= lastGeneration)
+            throw new IllegalArgumentException("Generation " + generation
+                + " recorded after generation " + lastGeneration);
+
+        boolean isKeyframe = keyframeCount == 0
+            || generation != lastGeneration + 1
+            || deltaCount + 1 == KEYFRAME_INTERVAL
+            || deltaSize > Math.max(keyframeSize,
+            (long)lastCells.length * Long.BYTES);
+        if (generation != lastGeneration + 1)
+            changes = null;
+
+        // Brings lastCells up to date, gathering the delta unless a
+        // keyframe is due.
+        entryCount = 0;
+        wordCount = 0;
+        for (int y = changes == null ? 0 : changes.nextChangedRow(0);
+            y != -1 && y < height;
+            y = changes == null ? y + 1 : changes.nextChangedRow(y + 1))
+        {
+            int first = y * wordsPerRow;
+            if (changes != null)
+            {
+                changes.copyRow(y, row);
+            }
+            else
+            {
+                Snapshot.copyRow(simulation, y, row);
+                for (int i = 0; i < wordsPerRow; i++)
+                    row[i] ^= lastCells[first + i];
+            }
+
+            for (int i = 0; i < wordsPerRow; i++)
+                lastCells[first + i] ^= row[i];
+            if (!isKeyframe)
+                addRow(y, row, 0);
+        }
+
+        if (isKeyframe)
+            for (int y = 0; y < height; y++)
+                addRow(y, lastCells, y * wordsPerRow);
+
+        long size = RECORD_HEADER_SIZE + (long)entryCount * Integer.BYTES
+            + (long)wordCount * Long.BYTES;
+        if (isKeyframe)
+        {
+            addKeyframe(generation, position);
+            keyframeSize = size;
+            deltaCount = 0;
+            deltaSize = 0;
+        }
+        else
+        {
+            deltaCount++;
+            deltaSize += size;
+        }
+
+        writeRecord(isKeyframe ? KEYFRAME_RECORD : DELTA_RECORD, generation);
+        lastGeneration = generation;
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Appends the index of the keyframes and the footer, writes out
+     * everything recorded and closes the log.
+     *
+     * @throws IOException if the log could not be written
+     */
+    public void close() throws IOException
+    {
+        if (!channel.isOpen())
+            return;
+
+        try
+        {
+            long indexPosition = position;
+            ensureRemaining(RECORD_HEADER_SIZE);
+            buffer.putInt(INDEX_RECORD);
+            buffer.putInt(keyframeCount);
+            buffer.putLong(lastGeneration);
+            buffer.putInt(0);
+            buffer.putInt(0);
+            for (int i = 0; i < keyframeCount; i++)
+            {
+                ensureRemaining(2 * Long.BYTES);
+                buffer.putLong(keyframeGenerations[i]);
+                buffer.putLong(keyframePositions[i]);
+            }
+            ensureRemaining(FOOTER_SIZE);
+            buffer.putInt(FOOTER_MAGIC_NUMBER);
+            buffer.putInt(0);
+            buffer.putLong(indexPosition);
+
+            flush();
+            waitForWrite();
+            channel.force(false);
+        }
+        finally
+        {
+            writer.shutdown();
+            channel.close();
+        }
+    }
+
+    private void addKeyframe(long generation, long keyframePosition)
+    {
+        if (keyframeCount == keyframeGenerations.length)
+        {
+            keyframeGenerations = Arrays.copyOf(keyframeGenerations,
+                keyframeCount * 2);
+            keyframePositions = Arrays.copyOf(keyframePositions,
+                keyframeCount * 2);
+        }
+
+        keyframeGenerations[keyframeCount] = generation;
+        keyframePositions[keyframeCount] = keyframePosition;
+        keyframeCount++;
+    }
+
+    /*
+     * Adds the non-zero words of a row, found in rowWords from offset on, to
+     * the record: one entry per word, or one for the whole row if most of
+     * its words are non-zero, as that takes less room. An entry is written
+     * for every word and only kept if the word is non-zero, which saves a
+     * branch per word.
+     */
+    private void addRow(int y, long[] rowWords, int offset)
+    {
+        if (entryCount + wordsPerRow > entries.length)
+            entries = Arrays.copyOf(entries,
+                Math.max(entries.length * 2, entryCount + wordsPerRow));
+        if (wordCount + wordsPerRow > words.length)
+            words = Arrays.copyOf(words,
+                Math.max(words.length * 2, wordCount + wordsPerRow));
+
+        int firstEntry = entryCount;
+        int first = y * wordsPerRow;
+        for (int i = 0; i < wordsPerRow; i++)
+        {
+            entries[entryCount] = first + i;
+            entryCount += rowWords[offset + i] != 0 ? 1 : 0;
+        }
+        int changed = entryCount - firstEntry;
+        if (changed == 0)
+            return;
+
+        if ((long)changed * (Integer.BYTES + Long.BYTES)
+            > Integer.BYTES + (long)wordsPerRow * Long.BYTES)
+        {
+            entryCount = firstEntry;
+            entries[entryCount++] = ~y;
+            System.arraycopy(rowWords, offset, words, wordCount, wordsPerRow);
+            wordCount += wordsPerRow;
+        }
+        else
+        {
+            for (int i = firstEntry; i < entryCount; i++)
+                words[wordCount++] = rowWords[offset + entries[i] - first];
+        }
+    }
+
+    private void ensureRemaining(int length) throws IOException
+    {
+        if (buffer.remaining() < length)
+            flush();
+    }
+
+    /*
+     * Hands the full buffer to the writer thread and carries on with the
+     * spare one, once the writer is done with it.
+     */
+    private void flush() throws IOException
+    {
+        waitForWrite();
+
+        final ByteBuffer full = buffer;
+        full.flip();
+        buffer = spareBuffer;
+        spareBuffer = full;
+        pendingWrite = writer.submit(
+            new Callable<Void>()
+            {
+                public Void call() throws IOException
+                {
+                    while (full.hasRemaining())
+                        channel.write(full);
+                    full.clear();
+                    return null;
+                }
+            });
+    }
+
+    /*
+     * Returns the length of the ruleset rounded up to a multiple of 8 bytes,
+     * as in the binary format of FileManager.
+     */
+    private static int getPaddedLength(int length)
+    {
+        return (length + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    private void waitForWrite() throws IOException
+    {
+        if (pendingWrite == null)
+            return;
+
+        try
+        {
+            pendingWrite.get();
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        catch (ExecutionException exception)
+        {
+            throw new IOException(exception.getCause().getMessage(),
+                exception.getCause());
+        }
+        pendingWrite = null;
+    }
+
+    /*
+     * Writes the record held in entries and words, copying them into the
+     * buffer in bulk as far as each buffer has room.
+     */
+    private void writeRecord(int type, long generation) throws IOException
+    {
+        ensureRemaining(RECORD_HEADER_SIZE);
+        buffer.putInt(type);
+        buffer.putInt(entryCount);
+        buffer.putLong(generation);
+        buffer.putInt(wordCount);
+        buffer.putInt(0);
+        int i = 0;
+        while (i < entryCount)
+        {
+            ensureRemaining(Integer.BYTES);
+            int length = Math.min(entryCount - i,
+                buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().put(entries, i, length);
+            buffer.position(buffer.position() + length * Integer.BYTES);
+            i += length;
+        }
+        i = 0;
+        while (i < wordCount)
+        {
+            ensureRemaining(Long.BYTES);
+            int length = Math.min(wordCount - i,
+                buffer.remaining() / Long.BYTES);
+            buffer.asLongBuffer().put(words, i, length);
+            buffer.position(buffer.position() + length * Long.BYTES);
+            i += length;
+        }
+        position += RECORD_HEADER_SIZE + (long)entryCount * Integer.BYTES
+            + (long)wordCount * Long.BYTES;
+    }
+}
@@ -0,0 +1,390 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Plays back a log written by <code>RunRecorder</code>, rebuilding any
+ * recorded generation from the nearest keyframe before it instead of
+ * simulating it again.
+ * <p>
+ * The keyframes are found from the index at the end of the log, or, if the
+ * log was never closed, by reading through the headers of its records; any
+ * record cut off at the end is ignored. Seeking forwards carries on from the
+ * generation seeked to before, so playing a run back generation by
+ * generation only reads each record once.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class RunReplay implements Closeable
+{
+    // class fields
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAXIMUM_RULE_LENGTH = 64;
+
+    // instance fields
+    private ByteBuffer buffer;
+    private long bufferPosition;
+    private long[] cells;
+    private FileChannel channel;
+    private long end;
+    private long generation;
+    private int[] entries;
+    private int height;
+    private long[] keyframeGenerations;
+    private int keyframeCount;
+    private long[] keyframePositions;
+    private long lastGeneration;
+    private long nextPosition;
+    private Rule rule;
+    private int width;
+
+    /*
+     * constructor
+     */
+
+    /**
+     * Opens a log for playing back.
+     *
+     * @param file the <code>File</code> the log was written to
+     * @throws IOException if the file could not be read or is not a log
+     */
+    public RunReplay(File file) throws IOException
+    {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.limit(0);
+        entries = new int[BUFFER_SIZE / Integer.BYTES];
+        keyframeGenerations = new long[INITIAL_CAPACITY];
+        keyframePositions = new long[INITIAL_CAPACITY];
+        generation = -1;
+
+        try
+        {
+            ByteBuffer header = read(0, RunRecorder.HEADER_SIZE);
+            if (header.getInt() != RunRecorder.MAGIC_NUMBER)
+                throw new IOException("Not a run log");
+            if (header.getInt() != RunRecorder.FORMAT_VERSION)
+                throw new IOException("Unsupported format version");
+            width = header.getInt();
+            height = header.getInt();
+            header.getInt();
+            int ruleLength = header.getInt();
+            if (width <= 0 || height <= 0 || ruleLength < 0
+                || ruleLength > MAXIMUM_RULE_LENGTH)
+                throw new IOException("Invalid header");
+
+            long wordCount = (long)((width + Long.SIZE - 1) >>> 6) * height;
+            if (wordCount > Integer.MAX_VALUE)
+                throw new IOException("Board too large");
+            cells = new long[(int)wordCount];
+
+            byte[] rulestring = new byte[ruleLength];
+            read(RunRecorder.HEADER_SIZE, ruleLength).get(rulestring);
+            try
+            {
+                rule = new Rule(new String(rulestring,
+                    StandardCharsets.US_ASCII));
+            }
+            catch (IllegalArgumentException exception)
+            {
+                throw new IOException(exception.getMessage());
+            }
+
+            long recordsPosition = RunRecorder.HEADER_SIZE
+                + ((ruleLength + Long.BYTES - 1) & -Long.BYTES);
+            if (!readIndex(recordsPosition))
+                scanRecords(recordsPosition);
+            if (keyframeCount == 0)
+                throw new IOException("No generations recorded");
+        }
+        catch (IOException exception)
+        {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    /*
+     * accessors
+     */
+
+    /**
+     * Returns the first generation recorded.
+     *
+     * @return the first generation
+     */
+    public long getFirstGeneration()
+    {
+        return keyframeGenerations[0];
+    }
+
+    /**
+     * Returns the height of the recorded grid.
+     *
+     * @return the height
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Returns the last generation recorded.
+     *
+     * @return the last generation
+     */
+    public long getLastGeneration()
+    {
+        return lastGeneration;
+    }
+
+    /**
+     * Returns the ruleset the run was simulated with.
+     *
+     * @return the <code>Rule</code>
+     */
+    public Rule getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Returns the width of the recorded grid.
+     *
+     * @return the width
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Closes the log.
+     *
+     * @throws IOException if the log could not be closed
+     */
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    /**
+     * Rebuilds a recorded generation.
+     *
+     * @param generation the generation
+     * @return a <code>Snapshot</code> of the generation; <code>null</code>
+     * if it is not recorded, e.g. because the run jumped over it
+     * @throws IOException if the log could not be read
+     */
+    public Snapshot seek(long generation) throws IOException
+    {
+        if (generation < getFirstGeneration() || generation > lastGeneration)
+            return null;
+
+        int keyframe = Arrays.binarySearch(keyframeGenerations, 0,
+            keyframeCount, generation);
+        if (keyframe < 0)
+            keyframe = -keyframe - 2;
+        if (this.generation > generation
+            || this.generation < keyframeGenerations[keyframe])
+            applyRecord(keyframePositions[keyframe]);
+
+        while (this.generation < generation && nextPosition < end)
+        {
+            ByteBuffer header = read(nextPosition,
+                RunRecorder.RECORD_HEADER_SIZE);
+            if (header.getLong(header.position() + 2 * Integer.BYTES)
+                > generation)
+                break;
+            applyRecord(nextPosition);
+        }
+
+        if (this.generation != generation)
+            return null;
+
+        return new Snapshot(generation, width, height, cells.clone(), null);
+    }
+
+    private void addKeyframe(long keyframeGeneration, long position)
+    {
+        if (keyframeCount == keyframeGenerations.length)
+        {
+            keyframeGenerations = Arrays.copyOf(keyframeGenerations,
+                keyframeCount * 2);
+            keyframePositions = Arrays.copyOf(keyframePositions,
+                keyframeCount * 2);
+        }
+
+        keyframeGenerations[keyframeCount] = keyframeGeneration;
+        keyframePositions[keyframeCount] = position;
+        keyframeCount++;
+    }
+
+    /*
+     * Applies the record at a position to cells: a keyframe replaces them and
+     * a delta is XORed into them. The entries are read a buffer at a time,
+     * and the words they stand for as far as the buffer holds them.
+     */
+    private void applyRecord(long position) throws IOException
+    {
+        ByteBuffer header = read(position, RunRecorder.RECORD_HEADER_SIZE);
+        int type = header.getInt();
+        int entryCount = header.getInt();
+        long recordGeneration = header.getLong();
+        int wordCount = header.getInt();
+        if (type == RunRecorder.KEYFRAME_RECORD)
+            Arrays.fill(cells, 0);
+
+        int wordsPerRow = (width + Long.SIZE - 1) >>> 6;
+        long entriesPosition = position + RunRecorder.RECORD_HEADER_SIZE;
+        long wordsPosition = entriesPosition
+            + (long)entryCount * Integer.BYTES;
+        long wordsEnd = wordsPosition + (long)wordCount * Long.BYTES;
+        int chunkSize = BUFFER_SIZE / Integer.BYTES;
+        for (int i = 0; i < entryCount; i += chunkSize)
+        {
+            int length = Math.min(chunkSize, entryCount - i);
+            read(entriesPosition + (long)i * Integer.BYTES,
+                length * Integer.BYTES).asIntBuffer().get(entries, 0,
+                length);
+            for (int j = 0; j < length; j++)
+            {
+                int entry = entries[j];
+                int first = entry >= 0 ? entry : ~entry * wordsPerRow;
+                int count = entry >= 0 ? 1 : wordsPerRow;
+                if ((entry >= 0 ? entry >= cells.length : ~entry >= height)
+                    || wordsPosition + (long)count * Long.BYTES > wordsEnd)
+                    throw new IOException("Invalid record at " + position);
+
+                for (int k = 0; k < count; )
+                {
+                    int words = Math.min(count - k, BUFFER_SIZE / Long.BYTES);
+                    ByteBuffer source = read(wordsPosition,
+                        words * Long.BYTES);
+                    int start = source.position();
+                    for (int l = 0; l < words; l++, k++)
+                        cells[first + k] ^= source.getLong(start
+                            + l * Long.BYTES);
+                    wordsPosition += (long)words * Long.BYTES;
+                }
+            }
+        }
+
+        generation = recordGeneration;
+        nextPosition = wordsEnd;
+    }
+
+    /*
+     * Returns the buffer positioned at the bytes of the log from a position
+     * on, reading them in if they are not already buffered.
+     */
+    private ByteBuffer read(long position, int length) throws IOException
+    {
+        if (position < bufferPosition
+            || position + length > bufferPosition + buffer.limit())
+        {
+            buffer.clear();
+            while (buffer.hasRemaining())
+            {
+                if (channel.read(buffer, position + buffer.position()) == -1)
+                    break;
+            }
+            buffer.flip();
+            bufferPosition = position;
+            if (buffer.limit() < length)
+                throw new IOException("Unexpected end of file");
+        }
+
+        buffer.position((int)(position - bufferPosition));
+        return buffer;
+    }
+
+    /*
+     * Reads the index and footer which closing a log appends. Returns false
+     * if they are missing or do not fit the log.
+     */
+    private boolean readIndex(long recordsPosition) throws IOException
+    {
+        long size = channel.size();
+        if (size < recordsPosition + RunRecorder.RECORD_HEADER_SIZE
+            + RunRecorder.FOOTER_SIZE)
+            return false;
+
+        ByteBuffer footer = read(size - RunRecorder.FOOTER_SIZE,
+            RunRecorder.FOOTER_SIZE);
+        if (footer.getInt() != RunRecorder.FOOTER_MAGIC_NUMBER)
+            return false;
+        footer.getInt();
+        long indexPosition = footer.getLong();
+        if (indexPosition < recordsPosition || indexPosition > size)
+            return false;
+
+        ByteBuffer header = read(indexPosition,
+            RunRecorder.RECORD_HEADER_SIZE);
+        int type = header.getInt();
+        int count = header.getInt();
+        long indexLastGeneration = header.getLong();
+        if (type != RunRecorder.INDEX_RECORD || count < 0
+            || indexPosition + RunRecorder.RECORD_HEADER_SIZE
+            + (long)count * 2 * Long.BYTES + RunRecorder.FOOTER_SIZE != size)
+            return false;
+
+        for (int i = 0; i < count; i++)
+        {
+            ByteBuffer entry = read(indexPosition
+                + RunRecorder.RECORD_HEADER_SIZE + (long)i * 2 * Long.BYTES,
+                2 * Long.BYTES);
+            addKeyframe(entry.getLong(), entry.getLong());
+        }
+        lastGeneration = indexLastGeneration;
+        end = indexPosition;
+        return true;
+    }
+
+    /*
+     * Finds the keyframes of a log which was not closed by reading through
+     * the headers of its records, stopping at the first one which is cut
+     * off or not valid.
+     */
+    private void scanRecords(long position) throws IOException
+    {
+        long size = channel.size();
+        while (position + RunRecorder.RECORD_HEADER_SIZE <= size)
+        {
+            ByteBuffer header = read(position,
+                RunRecorder.RECORD_HEADER_SIZE);
+            int type = header.getInt();
+            int entryCount = header.getInt();
+            long recordGeneration = header.getLong();
+            int wordCount = header.getInt();
+            long next = position + RunRecorder.RECORD_HEADER_SIZE
+                + (long)entryCount * Integer.BYTES
+                + (long)wordCount * Long.BYTES;
+            if (entryCount < 0 || wordCount < 0 || next > size
+                || recordGeneration <= lastGeneration && keyframeCount > 0)
+                break;
+
+            if (type == RunRecorder.KEYFRAME_RECORD)
+                addKeyframe(recordGeneration, position);
+            else if (type != RunRecorder.DELTA_RECORD || keyframeCount == 0)
+                break;
+
+            lastGeneration = recordGeneration;
+            position = next;
+        }
+        end = position;
+    }
+}
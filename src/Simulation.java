@@ -0,0 +1,83 @@
+/**
+ * A simulation of Conway's Game of Life, independent of how the cells are
+ * stored or how the next generation is computed.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public interface Simulation
+{
+    /**
+     * Returns the generation which this <code>Simulation</code> is currently
+     * on.
+     *
+     * @return the generation which this <code>Simulation</code> is currently
+     * on
+     */
+    long getCurrentGeneration();
+
+    /**
+     * Returns the height of the grid.
+     *
+     * @return the height of the grid
+     */
+    int getHeight();
+
+    /**
+     * Returns the ruleset this <code>Simulation</code> simulates with.
+     *
+     * @return the ruleset this <code>Simulation</code> simulates with
+     */
+    Rule getRule();
+
+    /**
+     * Returns the width of the grid.
+     *
+     * @return the width of the grid
+     */
+    int getWidth();
+
+    /**
+     * Returns whether a cell is alive or not at the specified coordinate.
+     *
+     * @param x the x-coordinate of the cell that is being checked
+     * @param y the y-coordinate of the cell that is being checked
+     * @return <code>true</code> if the cell is alive, <code>false</code> if
+     * the cell is dead or the coordinate is out of bounds
+     */
+    boolean isCellAlive(int x, int y);
+
+    /**
+     * Sets a cell at the specified coordinate to the specified state.
+     *
+     * @param x the x-coordinate of the cell whose state is being set
+     * @param y the y-coordinate of the cell whose state is being set
+     * @param state <code>true</code> for alive, <code>false</code> for dead
+     * @return <code>true</code> if the coordinate is within bounds,
+     * <code>false</code> otherwise
+     */
+    boolean setCellState(int x, int y, boolean state);
+
+    /**
+     * Returns whether the current generation is stable (i.e.
+     * the next generation will be exactly the same) or not.
+     *
+     * @return <code>true</code> if the current generation is stable,
+     * <code>false</code> if the current generation is not stable
+     */
+    boolean isSimulationStable();
+
+    /**
+     * Simulates the specified number of generations by applying the ruleset
+     * repeatedly.
+     *
+     * @param generations the number of generations to simulate; nothing is
+     * simulated if it is not greater than 0
+     */
+    void simulateGenerations(long generations);
+
+    /**
+     * Simulates the next generation by applying the ruleset.
+     */
+    void simulateNextGeneration();
+}
@@ -0,0 +1,395 @@
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Measures how fast a simulation runs: the generation and cell update
+ * rates, step latency percentiles, the frame rate of whatever paints it, its
+ * population and, once <code>MetricsExporter</code> hands them a counter,
+ * the rate at which the live threads of the program allocate memory.
+ * <p>
+ * The thread which simulates reports every step with
+ * <code>recordSteps</code>, which only counts it in a histogram of
+ * latencies. Every <code>MEASUREMENT_PERIOD</code>, that thread sums up the
+ * measurement, counts the population and publishes the results, which any
+ * thread can read, e.g. a GUI showing them or a JMX client through
+ * <code>SimulationMetricsMBean</code>. Collecting metrics therefore costs
+ * next to nothing per generation, and can be left on; none of the JVM's
+ * management classes are loaded by the metrics themselves.
+ * <p>
+ * The histogram has eight buckets per power of two, so the percentiles are
+ * the upper bounds of their buckets, at most 12.5% above the exact latency.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class SimulationMetrics implements SimulationMetricsMBean
+{
+    // class fields
+    /**
+     * The time, in nanoseconds, over which every measurement is taken.
+     */
+    public static final long MEASUREMENT_PERIOD = 500000000L;
+    /**
+     * The system property which, when <code>true</code>, asks for the
+     * metrics to be exported over JMX.
+     */
+    public static final String JMX_PROPERTY = "gameoflife.jmx";
+    private static final int LOG_SUB_BUCKETS = 3;
+    private static final double NANOSECONDS_PER_SECOND = 1e9;
+    private static final int STALE_PERIODS = 2;
+    private static final int SUB_BUCKETS = 1 << LOG_SUB_BUCKETS;
+
+    // instance fields
+    private volatile LongSupplier allocationCounter;
+    private volatile double allocationRate;
+    private volatile double cellUpdateRate;
+    private int frameCount;
+    private volatile long frameMeasurementTime;
+    private volatile double frameRate;
+    private long frameStart;
+    private volatile long generation;
+    private volatile double generationRate;
+    private long[] histogram;
+    private long lastAllocatedBytes;
+    private long lastAllocationTime;
+    private volatile long measurementTime;
+    private volatile long population;
+    private long[] row;
+    private volatile long stepLatency90thPercentile;
+    private volatile long stepLatency99thPercentile;
+    private volatile long stepLatencyMaximum;
+    private volatile long stepLatencyMedian;
+    private long windowGenerations;
+    private long windowMaximum;
+    private long windowStart;
+    private long windowSteps;
+
+    /*
+     * constructor
+     */
+
+    /**
+     * Creates <code>SimulationMetrics</code> which have measured nothing.
+     */
+    public SimulationMetrics()
+    {
+        histogram = new long[Long.SIZE * SUB_BUCKETS];
+        row = new long[0];
+        reset();
+    }
+
+    /*
+     * accessors
+     */
+
+    /**
+     * Returns the rate at which the live threads of the program allocated
+     * memory.
+     *
+     * @return the allocation rate, in bytes per second; -1 if it is not
+     * measured, i.e. no allocation counter has been set or the JVM cannot
+     * measure it
+     */
+    public double getAllocationRate()
+    {
+        if (allocationCounter == null)
+            return -1;
+
+        return isCurrent(measurementTime) ? allocationRate : 0;
+    }
+
+    /**
+     * Returns the rate at which cells were updated, i.e. the generation rate
+     * times the number of cells in the grid.
+     *
+     * @return the cell update rate, in cells per second
+     */
+    public double getCellUpdateRate()
+    {
+        return isCurrent(measurementTime) ? cellUpdateRate : 0;
+    }
+
+    /**
+     * Returns the rate at which the board was painted.
+     *
+     * @return the frame rate, in frames per second
+     */
+    public double getFrameRate()
+    {
+        return isCurrent(frameMeasurementTime) ? frameRate : 0;
+    }
+
+    /**
+     * Returns the last generation simulated.
+     *
+     * @return the last generation simulated; 0 if none has been
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Returns the rate at which generations were simulated.
+     *
+     * @return the generation rate, in generations per second
+     */
+    public double getGenerationRate()
+    {
+        return isCurrent(measurementTime) ? generationRate : 0;
+    }
+
+    /**
+     * Returns the number of alive cells, counted at the end of the last
+     * measurement.
+     *
+     * @return the population
+     */
+    public long getPopulation()
+    {
+        return population;
+    }
+
+    /**
+     * Returns the time within which 90% of the generations of the last
+     * measurement were simulated.
+     *
+     * @return the 90th percentile step latency, in nanoseconds
+     */
+    public long getStepLatency90thPercentile()
+    {
+        return stepLatency90thPercentile;
+    }
+
+    /**
+     * Returns the time within which 99% of the generations of the last
+     * measurement were simulated.
+     *
+     * @return the 99th percentile step latency, in nanoseconds
+     */
+    public long getStepLatency99thPercentile()
+    {
+        return stepLatency99thPercentile;
+    }
+
+    /**
+     * Returns the longest time a generation of the last measurement took to
+     * simulate.
+     *
+     * @return the maximum step latency, in nanoseconds
+     */
+    public long getStepLatencyMaximum()
+    {
+        return stepLatencyMaximum;
+    }
+
+    /**
+     * Returns the time within which half of the generations of the last
+     * measurement were simulated.
+     *
+     * @return the median step latency, in nanoseconds
+     */
+    public long getStepLatencyMedian()
+    {
+        return stepLatencyMedian;
+    }
+
+    /*
+     * mutators
+     */
+
+    /**
+     * Counts a frame painted. Must always be called by the same thread,
+     * e.g. the Event Dispatch Thread.
+     */
+    public void recordFrame()
+    {
+        long now = System.nanoTime();
+        if (frameStart == 0)
+        {
+            frameStart = now;
+            return;
+        }
+
+        frameCount++;
+        if (now - frameStart >= MEASUREMENT_PERIOD)
+        {
+            frameRate = frameCount * NANOSECONDS_PER_SECOND
+                / (now - frameStart);
+            frameMeasurementTime = now;
+            frameStart = now;
+            frameCount = 0;
+        }
+    }
+
+    /**
+     * Records that a <code>Simulation</code> simulated some generations in
+     * one step, and publishes a measurement once a period has passed since
+     * the last one. Must only be called by the thread which simulates, and
+     * is cheap enough to call after every generation.
+     *
+     * @param simulation the <code>Simulation</code>, whose population is
+     * counted when publishing
+     * @param generations the number of generations simulated in the step
+     * @param startTime the value of <code>System.nanoTime()</code> before
+     * the step
+     * @param endTime the value of <code>System.nanoTime()</code> after the
+     * step
+     */
+    public void recordSteps(Simulation simulation, long generations,
+        long startTime, long endTime)
+    {
+        if (windowStart == 0)
+            windowStart = startTime;
+
+        long latency = (endTime - startTime) / Math.max(1, generations);
+        histogram[getBucket(latency)]++;
+        windowMaximum = Math.max(windowMaximum, latency);
+        windowSteps++;
+        windowGenerations += generations;
+
+        if (endTime - windowStart >= MEASUREMENT_PERIOD)
+            publish(simulation, endTime);
+    }
+
+    /**
+     * Forgets the measurement under way, e.g. before a simulation starts
+     * after a pause, which is not counted. Must only be called by the thread
+     * which simulates, or before it starts.
+     */
+    public void reset()
+    {
+        Arrays.fill(histogram, 0);
+        windowGenerations = 0;
+        windowMaximum = 0;
+        windowStart = 0;
+        windowSteps = 0;
+    }
+
+    /**
+     * Sets what the allocation rate is measured from.
+     *
+     * @param allocationCounter returns the number of bytes the live threads
+     * of the program have allocated so far; <code>null</code> to stop
+     * measuring the allocation rate
+     */
+    public void setAllocationCounter(LongSupplier allocationCounter)
+    {
+        this.allocationCounter = allocationCounter;
+    }
+
+    /*
+     * methods
+     */
+
+    /*
+     * Returns the number of alive cells, from the engine if it keeps count
+     * and otherwise row by row, so no copy of the board is made.
+     */
+    private long countPopulation(Simulation simulation)
+    {
+        if (simulation instanceof HashLifeGameOfLife)
+            return ((HashLifeGameOfLife)simulation).getPopulation();
+        else if (simulation instanceof SparseGameOfLife)
+            return ((SparseGameOfLife)simulation).getPopulation();
+
+        int wordsPerRow = (simulation.getWidth() + Long.SIZE - 1) >>> 6;
+        if (row.length < wordsPerRow)
+            row = new long[wordsPerRow];
+
+        long count = 0;
+        for (int y = 0; y < simulation.getHeight(); y++)
+        {
+            Snapshot.copyRow(simulation, y, row);
+            for (int i = 0; i < wordsPerRow; i++)
+                count += Long.bitCount(row[i]);
+        }
+
+        return count;
+    }
+
+    /*
+     * Returns the histogram bucket of a latency: the latency itself below
+     * SUB_BUCKETS, and otherwise its power of two and the bits below its
+     * highest one.
+     */
+    private static int getBucket(long latency)
+    {
+        if (latency < SUB_BUCKETS)
+            return (int)Math.max(0, latency);
+
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(latency);
+        int shift = exponent - LOG_SUB_BUCKETS;
+        return (shift + 1) * SUB_BUCKETS
+            + (int)(latency >>> shift & (SUB_BUCKETS - 1));
+    }
+
+    /*
+     * Returns the highest latency which falls in a histogram bucket.
+     */
+    private static long getBucketLimit(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        return ((long)(SUB_BUCKETS + bucket % SUB_BUCKETS + 1) << shift) - 1;
+    }
+
+    /*
+     * Returns the upper bound of the latency within which a fraction of the
+     * steps in the histogram fell.
+     */
+    private long getPercentile(double fraction)
+    {
+        long rank = Math.max(1, (long)Math.ceil(fraction * windowSteps));
+        long count = 0;
+        for (int i = 0; i < histogram.length; i++)
+        {
+            count += histogram[i];
+            if (count >= rank)
+                return getBucketLimit(i);
+        }
+
+        return 0;
+    }
+
+    private boolean isCurrent(long time)
+    {
+        return time != 0 && System.nanoTime() - time
+            < STALE_PERIODS * MEASUREMENT_PERIOD;
+    }
+
+    /*
+     * Sums up the measurement, publishes it and starts the next one.
+     */
+    private void publish(Simulation simulation, long now)
+    {
+        double seconds = (now - windowStart) / NANOSECONDS_PER_SECOND;
+        generationRate = windowGenerations / seconds;
+        cellUpdateRate = generationRate * simulation.getWidth()
+            * simulation.getHeight();
+        stepLatencyMedian = getPercentile(0.5);
+        stepLatency90thPercentile = getPercentile(0.9);
+        stepLatency99thPercentile = getPercentile(0.99);
+        stepLatencyMaximum = windowMaximum;
+        generation = simulation.getCurrentGeneration();
+        population = countPopulation(simulation);
+
+        LongSupplier counter = allocationCounter;
+        if (counter != null)
+        {
+            long allocatedBytes = counter.getAsLong();
+            if (lastAllocationTime != 0)
+                allocationRate = Math.max(0, allocatedBytes
+                    - lastAllocatedBytes) * NANOSECONDS_PER_SECOND
+                    / (now - lastAllocationTime);
+            lastAllocatedBytes = allocatedBytes;
+            lastAllocationTime = now;
+        }
+
+        measurementTime = now;
+        reset();
+        windowStart = now;
+    }
+}
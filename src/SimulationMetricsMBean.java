@@ -0,0 +1,89 @@
+/**
+ * The management interface of <code>SimulationMetrics</code>, through which
+ * JMX clients read the metrics of a running simulation. Every rate is
+ * measured over the last half second or so, and reads 0 once nothing has
+ * been measured for a while.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public interface SimulationMetricsMBean
+{
+    /**
+     * Returns the rate at which the live threads of the program allocated
+     * memory.
+     *
+     * @return the allocation rate, in bytes per second; -1 if the JVM cannot
+     * measure it
+     */
+    double getAllocationRate();
+
+    /**
+     * Returns the rate at which cells were updated, i.e. the generation rate
+     * times the number of cells in the grid.
+     *
+     * @return the cell update rate, in cells per second
+     */
+    double getCellUpdateRate();
+
+    /**
+     * Returns the rate at which the board was painted.
+     *
+     * @return the frame rate, in frames per second
+     */
+    double getFrameRate();
+
+    /**
+     * Returns the last generation simulated.
+     *
+     * @return the last generation simulated; 0 if none has been
+     */
+    long getGeneration();
+
+    /**
+     * Returns the rate at which generations were simulated.
+     *
+     * @return the generation rate, in generations per second
+     */
+    double getGenerationRate();
+
+    /**
+     * Returns the number of alive cells, counted at the end of the last
+     * measurement.
+     *
+     * @return the population
+     */
+    long getPopulation();
+
+    /**
+     * Returns the time within which 90% of the generations of the last
+     * measurement were simulated.
+     *
+     * @return the 90th percentile step latency, in nanoseconds
+     */
+    long getStepLatency90thPercentile();
+
+    /**
+     * Returns the time within which 99% of the generations of the last
+     * measurement were simulated.
+     *
+     * @return the 99th percentile step latency, in nanoseconds
+     */
+    long getStepLatency99thPercentile();
+
+    /**
+     * Returns the longest time a generation of the last measurement took to
+     * simulate.
+     *
+     * @return the maximum step latency, in nanoseconds
+     */
+    long getStepLatencyMaximum();
+
+    /**
+     * Returns the time within which half of the generations of the last
+     * measurement were simulated.
+     *
+     * @return the median step latency, in nanoseconds
+     */
+    long getStepLatencyMedian();
+}
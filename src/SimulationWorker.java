@@ -0,0 +1,477 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a <code>Simulation</code> on its own thread and publishes
+ * <code>Snapshot</code>s of it for another thread (e.g. the Event Dispatch
+ * Thread) to show.
+ * <p>
+ * Only the latest snapshot is kept, and a new one is only taken once the
+ * previous one has been collected, so a reader which shows every snapshot it
+ * collects drops the generations it is too slow to show, and the simulation
+ * never waits for it.
+ * <p>
+ * If the <code>Simulation</code> can track changes, the worker keeps its own
+ * packed copy of the cells up to date from the changes of every generation,
+ * so taking a snapshot costs one array copy. Each snapshot then also lists
+ * the cells which changed since the previous one, unless that is a large
+ * part of the grid, so a reader only needs to update those.
+ * <p>
+ * While the worker is running, the <code>Simulation</code> belongs to its
+ * thread: other threads must only change it through
+ * <code>setCellState</code>.
+ * Once <code>stop</code> has returned, it belongs to the caller again.
+ * <p>
+ * Generations are simulated at a target rate by giving each one a deadline,
+ * a fixed period after the deadline of the one before, so that the time
+ * spent simulating and any oversleeping do not add up. The worker parks
+ * until shortly before each deadline and spins for the rest, which keeps
+ * rates of thousands of generations per second accurate. If it falls
+ * behind, it catches up by at most <code>MAXIMUM_CATCH_UP</code> worth of
+ * generations instead of bursting to make up for all of them.
+ * <p>
+ * Every generation simulated can also be recorded in a <code>History</code>,
+ * comparing only the rows the changes were tracked in when possible, and
+ * timed for <code>SimulationMetrics</code>.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class SimulationWorker
+{
+    // class fields
+    /**
+     * The longest time, in nanoseconds, the worker may be behind schedule;
+     * any more is forgotten rather than caught up.
+     */
+    public static final long MAXIMUM_CATCH_UP = 100000000L;
+    private static final int MAXIMUM_CHANGED_CELLS_DIVISOR = 8;
+    private static final double NANOSECONDS_PER_SECOND = 1e9;
+    private static final long RATE_MEASUREMENT_PERIOD = 500000000L;
+    private static final long SPIN_DURATION = 50000L;
+
+    // instance fields
+    private volatile double achievedRate;
+    private boolean areChangesUnknown;
+    private long[] cells;
+    private ConcurrentLinkedQueue<Runnable> edits;
+    private History history;
+    private volatile boolean isRunning;
+    private AtomicReference<Snapshot> latestSnapshot;
+    private SimulationMetrics metrics;
+    private Simulation simulation;
+    private volatile double targetRate;
+    private Thread thread;
+    private ChangeTrackingSimulation trackingSimulation;
+    private ChangeSet unpublishedChanges;
+
+    /*
+     * constructor
+     */
+
+    /**
+     * Creates a <code>SimulationWorker</code> which is not running.
+     *
+     * @param simulation the <code>Simulation</code> to run
+     */
+    public SimulationWorker(Simulation simulation)
+    {
+        this.simulation = simulation;
+        edits = new ConcurrentLinkedQueue<Runnable>();
+        latestSnapshot = new AtomicReference<Snapshot>();
+    }
+
+    /*
+     * accessors
+     */
+
+    /**
+     * Returns the rate at which generations were simulated, measured over
+     * the last half second or so of running.
+     *
+     * @return the achieved rate, in generations per second; 0 if it has not
+     * been measured yet
+     */
+    public double getAchievedRate()
+    {
+        return achievedRate;
+    }
+
+    /**
+     * Returns the <code>Simulation</code> this <code>SimulationWorker</code>
+     * runs.
+     *
+     * @return the <code>Simulation</code> this <code>SimulationWorker</code>
+     * runs
+     */
+    public Simulation getSimulation()
+    {
+        return simulation;
+    }
+
+    /**
+     * Returns the rate at which generations are meant to be simulated.
+     *
+     * @return the target rate, in generations per second; 0 if generations
+     * are simulated as fast as possible
+     */
+    public double getTargetRate()
+    {
+        return targetRate;
+    }
+
+    /**
+     * Returns whether this <code>SimulationWorker</code> is running.
+     *
+     * @return <code>true</code> if this <code>SimulationWorker</code> is
+     * running
+     */
+    public boolean isRunning()
+    {
+        return isRunning;
+    }
+
+    /*
+     * mutators
+     */
+
+    /**
+     * Sets the <code>History</code> to record every generation in, starting
+     * with the current one when started. Must only be called while this
+     * <code>SimulationWorker</code> is not running.
+     *
+     * @param history the <code>History</code>, for a grid of the size of the
+     * <code>Simulation</code>; <code>null</code> to record nothing
+     */
+    public void setHistory(History history)
+    {
+        this.history = history;
+    }
+
+    /**
+     * Sets the <code>SimulationMetrics</code> to time every generation for.
+     * Must only be called while this <code>SimulationWorker</code> is not
+     * running.
+     *
+     * @param metrics the <code>SimulationMetrics</code>; <code>null</code>
+     * to time nothing
+     */
+    public void setMetrics(SimulationMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the rate at which generations are meant to be simulated. Takes
+     * effect after the next generation.
+     *
+     * @param targetRate the target rate, in generations per second; 0 (or
+     * less) to simulate as fast as possible
+     */
+    public void setTargetRate(double targetRate)
+    {
+        this.targetRate = Math.max(0, targetRate);
+    }
+
+    /**
+     * Starts simulating on a new thread. Does nothing if this
+     * <code>SimulationWorker</code> is already running.
+     */
+    public void start()
+    {
+        if (isRunning)
+            return;
+
+        isRunning = true;
+        achievedRate = 0;
+        if (simulation instanceof ChangeTrackingSimulation)
+        {
+            trackingSimulation = (ChangeTrackingSimulation)simulation;
+            trackingSimulation.setChangeTracking(true);
+            cells = Snapshot.copyCells(simulation);
+            if (unpublishedChanges == null)
+                unpublishedChanges = new ChangeSet(simulation.getWidth(),
+                    simulation.getHeight());
+            unpublishedChanges.clear();
+        }
+        areChangesUnknown = true;
+        if (history != null)
+            history.record(simulation);
+        if (metrics != null)
+            metrics.reset();
+        thread = new Thread(
+            new Runnable()
+            {
+                public void run()
+                {
+                    simulate();
+                }
+            }, "SimulationWorker");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops simulating and waits for the thread to finish the generation it
+     * is on. A snapshot of the last generation is then published. Does
+     * nothing if this <code>SimulationWorker</code> is not running.
+     */
+    public void stop()
+    {
+        if (!isRunning)
+            return;
+
+        isRunning = false;
+        thread.interrupt();
+        boolean isInterrupted = false;
+        while (thread.isAlive())
+        {
+            try
+            {
+                thread.join();
+            }
+            catch (InterruptedException exception)
+            {
+                isInterrupted = true;
+            }
+        }
+        thread = null;
+
+        if (isInterrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Sets a cell of the <code>Simulation</code> to the specified state on
+     * the worker thread, between two generations. Must only be called while
+     * this <code>SimulationWorker</code> is running.
+     *
+     * @param x the x-coordinate of the cell whose state is being set
+     * @param y the y-coordinate of the cell whose state is being set
+     * @param state <code>true</code> for alive, <code>false</code> for dead
+     */
+    public void setCellState(final int x, final int y, final boolean state)
+    {
+        edits.add(
+            new Runnable()
+            {
+                public void run()
+                {
+                    if (simulation.setCellState(x, y, state)
+                        && trackingSimulation != null)
+                    {
+                        int index = y * ((simulation.getWidth() + Long.SIZE
+                            - 1) >>> 6) + (x >>> 6);
+                        if (state)
+                            cells[index] |= 1L << x;
+                        else
+                            cells[index] &= ~(1L << x);
+                        unpublishedChanges.add(x, y);
+                    }
+                }
+            }
+        );
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Takes a snapshot for another thread to keep, e.g. to save it while
+     * the simulation carries on: on the worker thread, between two
+     * generations, if this <code>SimulationWorker</code> is running, or
+     * straight away otherwise. It does not affect the snapshots collected by
+     * <code>takeSnapshot</code>, and lists no changed cells.
+     *
+     * @return the snapshot, once it has been taken
+     */
+    public Future<Snapshot> requestSnapshot()
+    {
+        final CompletableFuture<Snapshot> snapshot =
+            new CompletableFuture<Snapshot>();
+        if (!isRunning)
+        {
+            snapshot.complete(new Snapshot(simulation));
+            return snapshot;
+        }
+
+        edits.add(
+            new Runnable()
+            {
+                public void run()
+                {
+                    if (trackingSimulation != null)
+                        snapshot.complete(new Snapshot(
+                            simulation.getCurrentGeneration(),
+                            simulation.getWidth(), simulation.getHeight(),
+                            cells.clone(), null));
+                    else
+                        snapshot.complete(new Snapshot(simulation));
+                }
+            }
+        );
+        return snapshot;
+    }
+
+    /**
+     * Collects the latest snapshot, if it has not been collected yet.
+     *
+     * @return the latest snapshot; <code>null</code> if there is none or it
+     * has already been collected
+     */
+    public Snapshot takeSnapshot()
+    {
+        return latestSnapshot.getAndSet(null);
+    }
+
+    /*
+     * Takes a snapshot of the simulation, which lists the cells changed since
+     * the previous one if they are known and not too many.
+     */
+    private Snapshot createSnapshot()
+    {
+        if (trackingSimulation == null)
+            return new Snapshot(simulation);
+
+        int width = simulation.getWidth();
+        int height = simulation.getHeight();
+        int[] changedCells = null;
+        if (!areChangesUnknown && unpublishedChanges.size()
+            <= (long)width * height / MAXIMUM_CHANGED_CELLS_DIVISOR)
+            changedCells = unpublishedChanges.getIndices();
+        unpublishedChanges.clear();
+        areChangesUnknown = false;
+
+        return new Snapshot(simulation.getCurrentGeneration(), width, height,
+            cells.clone(), changedCells);
+    }
+
+    /*
+     * Records the generation in the history. The unpublished changes hold
+     * every cell changed since the last generation recorded, as they are
+     * only cleared when a snapshot is taken, after recording.
+     */
+    private void record()
+    {
+        if (history == null)
+            return;
+
+        if (trackingSimulation != null)
+            history.record(simulation.getCurrentGeneration(), cells,
+                unpublishedChanges);
+        else
+            history.record(simulation);
+    }
+
+    private void runEdits()
+    {
+        Runnable edit;
+        while ((edit = edits.poll()) != null)
+            edit.run();
+    }
+
+    /*
+     * The loop of the worker thread. An interrupt only cuts a wait short;
+     * stop() clears isRunning first, so the loop then ends.
+     */
+    private void simulate()
+    {
+        try
+        {
+            long deadline = System.nanoTime();
+            long measurementStart = deadline;
+            long measuredGenerations = 0;
+            while (isRunning)
+            {
+                runEdits();
+                long stepStart = System.nanoTime();
+                simulation.simulateNextGeneration();
+                if (metrics != null)
+                    metrics.recordSteps(simulation, 1, stepStart,
+                        System.nanoTime());
+                if (trackingSimulation != null)
+                {
+                    ChangeSet changes = trackingSimulation.getChanges();
+                    changes.applyTo(cells);
+                    unpublishedChanges.addAll(changes);
+                }
+                record();
+                if (latestSnapshot.get() == null)
+                    latestSnapshot.set(createSnapshot());
+
+                long now = System.nanoTime();
+                measuredGenerations++;
+                if (now - measurementStart >= RATE_MEASUREMENT_PERIOD)
+                {
+                    achievedRate = measuredGenerations
+                        * NANOSECONDS_PER_SECOND / (now - measurementStart);
+                    measurementStart = now;
+                    measuredGenerations = 0;
+                }
+
+                double currentTargetRate = targetRate;
+                if (currentTargetRate > 0)
+                {
+                    deadline += (long)(NANOSECONDS_PER_SECOND
+                        / currentTargetRate);
+                    if (now - deadline > MAXIMUM_CATCH_UP)
+                        deadline = now - MAXIMUM_CATCH_UP;
+                    waitUntil(deadline);
+                }
+                else
+                {
+                    deadline = now;
+                }
+            }
+        }
+        finally
+        {
+            isRunning = false;
+            runEdits();
+            publishLastSnapshot();
+        }
+    }
+
+    /*
+     * Publishes a snapshot of the last generation even if the previous one
+     * has not been collected, in which case its changes are carried over.
+     * Then stops tracking changes, as the simulation goes back to the caller.
+     */
+    private void publishLastSnapshot()
+    {
+        Snapshot uncollected = latestSnapshot.getAndSet(null);
+        if (uncollected != null && trackingSimulation != null)
+        {
+            int[] changedCells = uncollected.getChangedCells();
+            if (changedCells == null)
+                areChangesUnknown = true;
+            else
+                for (int index : changedCells)
+                    unpublishedChanges.add(index % uncollected.getWidth(),
+                        index / uncollected.getWidth());
+        }
+        latestSnapshot.set(createSnapshot());
+
+        if (trackingSimulation != null)
+        {
+            trackingSimulation.setChangeTracking(false);
+            trackingSimulation = null;
+        }
+    }
+
+    private void waitUntil(long deadline)
+    {
+        long remaining;
+        while (isRunning && (remaining = deadline - System.nanoTime()) > 0)
+        {
+            if (remaining > SPIN_DURATION)
+                LockSupport.parkNanos(remaining - SPIN_DURATION);
+            else
+                Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+import java.util.Arrays;
+
+/**
+ * An immutable copy of one generation of a <code>Simulation</code>, which
+ * can be handed to another thread and read while the simulation carries on.
+ * The cells are packed 64 to a <code>long</code>, row by row.
+ * <p>
+ * A snapshot published by a <code>SimulationWorker</code> can also list the
+ * cells which differ from the snapshot it published before, so that a
+ * reader which has shown that one only needs to update those cells.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public final class Snapshot
+{
+    // instance fields
+    private final long[] cells;
+    private final int[] changedCells;
+    private final long generation;
+    private final int height;
+    private final int width;
+    private final int wordsPerRow;
+
+    /*
+     * constructor
+     */
+
+    /**
+     * Creates a <code>Snapshot</code> of the current generation of a
+     * <code>Simulation</code>, i.e. of the cells within its width and height.
+     * The <code>Simulation</code> must not change while this runs.
+     *
+     * @param simulation the <code>Simulation</code> to copy
+     */
+    public Snapshot(Simulation simulation)
+    {
+        this(simulation.getCurrentGeneration(), simulation.getWidth(),
+            simulation.getHeight(), copyCells(simulation), null);
+    }
+
+    /*
+     * Creates a Snapshot which takes ownership of cells, packed as by
+     * copyCells(Simulation), and of changedCells (see getChangedCells()).
+     */
+    Snapshot(long generation, int width, int height, long[] cells,
+        int[] changedCells)
+    {
+        this.generation = generation;
+        this.width = width;
+        this.height = height;
+        this.cells = cells;
+        this.changedCells = changedCells;
+        wordsPerRow = (width + Long.SIZE - 1) >>> 6;
+    }
+
+    /*
+     * accessors
+     */
+
+    /*
+     * Returns the cells, packed as by copyCells(Simulation). The array is
+     * shared and must not be modified.
+     */
+    long[] getCells()
+    {
+        return cells;
+    }
+
+    /**
+     * Returns the cells which differ from the previous snapshot published by
+     * the same <code>SimulationWorker</code>, as indices
+     * <code>y * width + x</code>. The array is shared and must not be
+     * modified.
+     *
+     * @return the indices of the changed cells; <code>null</code> if they
+     * are not known, in which case every cell must be treated as changed
+     */
+    public int[] getChangedCells()
+    {
+        return changedCells;
+    }
+
+    /**
+     * Returns the generation this <code>Snapshot</code> is a copy of.
+     *
+     * @return the generation this <code>Snapshot</code> is a copy of
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Returns the height of the grid.
+     *
+     * @return the height of the grid
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Returns the width of the grid.
+     *
+     * @return the width of the grid
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Returns whether a cell is alive or not at the specified coordinate.
+     *
+     * @param x the x-coordinate of the cell that is being checked
+     * @param y the y-coordinate of the cell that is being checked
+     * @return <code>true</code> if the cell is alive, <code>false</code> if
+     * the cell is dead or the coordinate is out of bounds
+     */
+    public boolean isCellAlive(int x, int y)
+    {
+        if (x < 0 || x >= width || y < 0 || y >= height)
+            return false;
+
+        return (cells[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Returns a string representation of this <code>Snapshot</code>.
+     *
+     * @return a string representation of this <code>Snapshot</code>
+     */
+    public String toString()
+    {
+        return
+            getClass().getName()
+            + "["
+            + "generation: " + generation
+            + ", height: " + height
+            + ", width: " + width
+            + "]";
+    }
+
+    /*
+     * methods
+     */
+
+    /*
+     * Packs the cells of a simulation within its width and height 64 to a
+     * long, row by row, in the layout of ChangeSet.
+     */
+    static long[] copyCells(Simulation simulation)
+    {
+        if (simulation instanceof BitPackedGameOfLife)
+            return ((BitPackedGameOfLife)simulation).copyPackedCells();
+        else if (simulation instanceof GameOfLife)
+            return ((GameOfLife)simulation).copyPackedCells();
+
+        int width = simulation.getWidth();
+        int height = simulation.getHeight();
+        int wordsPerRow = (width + Long.SIZE - 1) >>> 6;
+        long[] cells = new long[wordsPerRow * height];
+
+        for (int y = 0; y < height; y++)
+        {
+            int row = y * wordsPerRow;
+            for (int x = 0; x < width; x++)
+                if (simulation.isCellAlive(x, y))
+                    cells[row + (x >>> 6)] |= 1L << x;
+        }
+
+        return cells;
+    }
+
+    /*
+     * Packs one row of a simulation into row, which must hold
+     * (width + 63) / 64 words, so that a whole grid never has to be copied
+     * at once.
+     */
+    static void copyRow(Simulation simulation, int y, long[] row)
+    {
+        if (simulation instanceof BitPackedGameOfLife)
+        {
+            ((BitPackedGameOfLife)simulation).copyPackedRow(y, row);
+            return;
+        }
+        else if (simulation instanceof GameOfLife)
+        {
+            ((GameOfLife)simulation).copyPackedRow(y, row);
+            return;
+        }
+
+        Arrays.fill(row, 0);
+        for (int x = 0; x < simulation.getWidth(); x++)
+            if (simulation.isCellAlive(x, y))
+                row[x >>> 6] |= 1L << x;
+    }
+}
@@ -0,0 +1,619 @@
+import java.util.Arrays;
+
+/**
+ * A simulation of Conway's Game of Life on an unbounded universe which only
+ * stores the alive cells.
+ * <p>
+ * Every generation, each alive cell adds itself to the neighbour counts of
+ * the eight cells around it, so the time and memory spent on a generation
+ * depend on the population rather than on the area the pattern covers. The
+ * width and height only describe the region the simulation was created with
+ * (whose top-left cell is at (0, 0)); cells outside of it keep evolving.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+public class SparseGameOfLife implements Simulation
+{
+    // class fields
+    private static final int ALIVE = 1;
+    private static final int NEIGHBOUR = 2;
+
+    // instance fields
+    private LongIntMap cells;
+    private LongIntMap counts;
+    private long currentGeneration;
+    private int height;
+    private LongIntMap nextCells;
+    private boolean[] nextStates;
+    private Rule rule;
+    private int width;
+
+    /*
+     * constructors
+     */
+
+    /**
+     * Creates an empty <code>SparseGameOfLife</code> whose region has the
+     * specified size.
+     *
+     * @param width the width of the region
+     * @param height the height of the region
+     */
+    public SparseGameOfLife(int width, int height)
+    {
+        this(width, height, Rule.CONWAY);
+    }
+
+    /**
+     * Creates an empty <code>SparseGameOfLife</code> whose region has the
+     * specified size, with the specified ruleset.
+     *
+     * @param width the width of the region
+     * @param height the height of the region
+     * @param rule the ruleset to simulate with; must not give birth to cells
+     * with no alive neighbours, as that would fill the unbounded universe
+     * @throws IllegalArgumentException if the ruleset gives birth to cells
+     * with no alive neighbours
+     */
+    public SparseGameOfLife(int width, int height, Rule rule)
+    {
+        if (rule.isBorn(0))
+            throw new IllegalArgumentException("Unsupported rule: " + rule);
+
+        this.rule = rule;
+        nextStates = rule.getNextStates();
+        currentGeneration = 1;
+        this.width = width;
+        this.height = height;
+        cells = new LongIntMap();
+        counts = new LongIntMap();
+        nextCells = new LongIntMap();
+    }
+
+    /**
+     * Creates a <code>SparseGameOfLife</code> with specified cell
+     * configuration.
+     *
+     * @param cells the configuration of the cells in the first generation;
+     * see <code>GameOfLife(boolean[][], long)</code>
+     * @param currentGeneration the generation which this
+     * <code>SparseGameOfLife</code> is currently on; must be greater than 0
+     */
+    public SparseGameOfLife(boolean[][] cells, long currentGeneration)
+    {
+        this(cells, currentGeneration, Rule.CONWAY);
+    }
+
+    /**
+     * Creates a <code>SparseGameOfLife</code> with specified cell
+     * configuration and ruleset.
+     *
+     * @param cells the configuration of the cells in the first generation;
+     * see <code>GameOfLife(boolean[][], long)</code>
+     * @param currentGeneration the generation which this
+     * <code>SparseGameOfLife</code> is currently on; must be greater than 0
+     * @param rule the ruleset to simulate with; must not give birth to cells
+     * with no alive neighbours
+     * @throws IllegalArgumentException if the ruleset gives birth to cells
+     * with no alive neighbours
+     */
+    public SparseGameOfLife(boolean[][] cells, long currentGeneration,
+        Rule rule)
+    {
+        this(cells[0].length, cells.length, rule);
+
+        for (int y = 1; y < cells.length; y++)
+        {
+            if (cells[y].length != cells[0].length)
+            {
+                cells = GameOfLife.DEFAULT_CELL_CONFIGURATION;
+                width = cells[0].length;
+                height = cells.length;
+                break;
+            }
+        }
+
+        this.currentGeneration = currentGeneration > 0 ? currentGeneration : 1;
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                if (cells[y][x])
+                    this.cells.put(getKey(x, y), ALIVE);
+    }
+
+    /**
+     * Creates a <code>SparseGameOfLife</code> from cells which are packed 64
+     * to a <code>long</code>, row by row, in the layout of
+     * <code>Snapshot</code>. Only the set bits of each word are visited, so
+     * the cost depends on the population rather than the size of the region.
+     *
+     * @param cells the configuration of the cells in the first generation,
+     * <code>(width + 63) / 64</code> words per row
+     * @param width the width of the region; must be greater than 0
+     * @param height the height of the region; must be greater than 0
+     * @param currentGeneration the generation which this
+     * <code>SparseGameOfLife</code> is currently on; must be greater than 0
+     * @param rule the ruleset to simulate with; must not give birth to cells
+     * with no alive neighbours
+     * @throws IllegalArgumentException if the ruleset gives birth to cells
+     * with no alive neighbours
+     */
+    public SparseGameOfLife(long[] cells, int width, int height,
+        long currentGeneration, Rule rule)
+    {
+        this(width, height, rule);
+
+        this.currentGeneration = currentGeneration > 0 ? currentGeneration : 1;
+        int wordsPerRow = (width + Long.SIZE - 1) >>> 6;
+        long lastWordMask = -1L >>> (-width & (Long.SIZE - 1));
+        for (int y = 0; y < height; y++)
+        {
+            for (int i = 0; i < wordsPerRow; i++)
+            {
+                long word = cells[y * wordsPerRow + i];
+                if (i == wordsPerRow - 1)
+                    word &= lastWordMask;
+                while (word != 0)
+                {
+                    this.cells.put(getKey((i << 6)
+                        + Long.numberOfTrailingZeros(word), y), ALIVE);
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    /*
+     * accessors
+     */
+
+    /**
+     * Returns the cells in the region this <code>SparseGameOfLife</code> was
+     * created with.
+     *
+     * @return the cells in the region, as an array of rows
+     */
+    public boolean[][] getCells()
+    {
+        return getCells(0, 0, width, height);
+    }
+
+    /**
+     * Returns the cells in the specified region of the universe.
+     *
+     * @param x the x-coordinate of the top-left cell of the region
+     * @param y the y-coordinate of the top-left cell of the region
+     * @param width the width of the region
+     * @param height the height of the region
+     * @return the cells in the region, as an array of rows
+     */
+    public boolean[][] getCells(int x, int y, int width, int height)
+    {
+        boolean[][] region = new boolean[height][width];
+
+        long[] keys = cells.keys;
+        int[] values = cells.values;
+        for (int i = 0; i < keys.length; i++)
+        {
+            if (values[i] == 0)
+                continue;
+
+            long cellX = (long)getX(keys[i]) - x;
+            long cellY = (long)getY(keys[i]) - y;
+            if (cellX >= 0 && cellX < width && cellY >= 0 && cellY < height)
+                region[(int)cellY][(int)cellX] = true;
+        }
+
+        return region;
+    }
+
+    /**
+     * Returns the generation which this <code>SparseGameOfLife</code> is
+     * currently on.
+     *
+     * @return the generation which this <code>SparseGameOfLife</code> is
+     * currently on
+     */
+    public long getCurrentGeneration()
+    {
+        return currentGeneration;
+    }
+
+    /**
+     * Returns the height of the region this <code>SparseGameOfLife</code> was
+     * created with.
+     *
+     * @return the height of the region
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Returns the number of alive cells in the universe.
+     *
+     * @return the number of alive cells in the universe
+     */
+    public long getPopulation()
+    {
+        return cells.size;
+    }
+
+    /**
+     * Returns the ruleset this <code>SparseGameOfLife</code> simulates with.
+     *
+     * @return the ruleset this <code>SparseGameOfLife</code> simulates with
+     */
+    public Rule getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Returns the width of the region this <code>SparseGameOfLife</code> was
+     * created with.
+     *
+     * @return the width of the region
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Returns whether a cell is alive or not at the specified coordinate.
+     *
+     * @param x the x-coordinate of the cell that is being checked
+     * @param y the y-coordinate of the cell that is being checked
+     * @return <code>true</code> if the cell is alive, <code>false</code> if
+     * the cell is dead
+     */
+    public boolean isCellAlive(int x, int y)
+    {
+        return cells.get(getKey(x, y)) != 0;
+    }
+
+    /**
+     * Returns a string representation of this <code>SparseGameOfLife</code>.
+     *
+     * @return a string representation of this <code>SparseGameOfLife</code>
+     */
+    public String toString()
+    {
+        return
+            getClass().getName()
+            + "["
+            + "currentGeneration: " + currentGeneration
+            + ", height: " + height
+            + ", population: " + cells.size
+            + ", rule: " + rule
+            + ", width: " + width
+            + "]";
+    }
+
+    /*
+     * mutator
+     */
+
+    /**
+     * Sets a cell at the specified coordinate to the specified state.
+     *
+     * @param x the x-coordinate of the cell whose state is being set
+     * @param y the y-coordinate of the cell whose state is being set
+     * @param state <code>true</code> for alive, <code>false</code> for dead
+     * @return <code>true</code>, as every coordinate is within the universe
+     */
+    public boolean setCellState(int x, int y, boolean state)
+    {
+        if (state)
+            cells.put(getKey(x, y), ALIVE);
+        else
+            cells.remove(getKey(x, y));
+
+        return true;
+    }
+
+    /*
+     * methods
+     */
+
+    /**
+     * Returns whether the current generation is stable (i.e.
+     * the next generation will be exactly the same) or not.
+     *
+     * @return <code>true</code> if the current generation is stable,
+     * <code>false</code> if the current generation is not stable
+     */
+    public boolean isSimulationStable()
+    {
+        computeNextGeneration();
+        if (nextCells.size != cells.size)
+            return false;
+
+        long[] keys = nextCells.keys;
+        int[] values = nextCells.values;
+        for (int i = 0; i < keys.length; i++)
+            if (values[i] != 0 && cells.get(keys[i]) == 0)
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Simulates the specified number of generations by applying the ruleset
+     * repeatedly.
+     *
+     * @param generations the number of generations to simulate; nothing is
+     * simulated if it is not greater than 0
+     */
+    public void simulateGenerations(long generations)
+    {
+        for (long i = 0; i < generations; i++)
+            simulateNextGeneration();
+    }
+
+    /**
+     * Simulates the next generation by applying the ruleset.
+     */
+    public void simulateNextGeneration()
+    {
+        StepEvent event = FlightEvents.beginStep();
+        computeNextGeneration();
+
+        LongIntMap previousCells = cells;
+        cells = nextCells;
+        nextCells = previousCells;
+        currentGeneration++;
+        if (event != null && event.shouldCommit())
+        {
+            event.generation = currentGeneration;
+            event.width = width;
+            event.height = height;
+            event.changedCells = -1;
+            event.commit();
+        }
+    }
+
+    /*
+     * Counts the neighbours of every cell next to an alive cell, storing
+     * 2 * neighbours + 1 for alive cells and 2 * neighbours for dead ones,
+     * which is exactly the index into the lookup table of the ruleset, then
+     * keeps the cells which are alive in the next generation.
+     */
+    private void computeNextGeneration()
+    {
+        counts.clear();
+
+        long[] keys = cells.keys;
+        int[] values = cells.values;
+        for (int i = 0; i < keys.length; i++)
+        {
+            if (values[i] == 0)
+                continue;
+
+            int x = getX(keys[i]);
+            int y = getY(keys[i]);
+            counts.add(keys[i], ALIVE);
+            counts.add(getKey(x - 1, y - 1), NEIGHBOUR);
+            counts.add(getKey(x, y - 1), NEIGHBOUR);
+            counts.add(getKey(x + 1, y - 1), NEIGHBOUR);
+            counts.add(getKey(x - 1, y), NEIGHBOUR);
+            counts.add(getKey(x + 1, y), NEIGHBOUR);
+            counts.add(getKey(x - 1, y + 1), NEIGHBOUR);
+            counts.add(getKey(x, y + 1), NEIGHBOUR);
+            counts.add(getKey(x + 1, y + 1), NEIGHBOUR);
+        }
+
+        nextCells.clear();
+
+        keys = counts.keys;
+        values = counts.values;
+        for (int i = 0; i < keys.length; i++)
+            if (values[i] != 0 && nextStates[values[i]])
+                nextCells.put(keys[i], ALIVE);
+    }
+
+    private static long getKey(int x, int y)
+    {
+        return ((long)y << 32) | (x & 0xFFFFFFFFL);
+    }
+
+    private static int getX(long key)
+    {
+        return (int)key;
+    }
+
+    private static int getY(long key)
+    {
+        return (int)(key >> 32);
+    }
+
+    /*
+     * inner class
+     */
+
+    /*
+     * An open-addressing hash map from long to non-zero int; a value of 0
+     * marks an empty slot. Clearing shrinks the map when it was mostly
+     * empty, so that once a pattern dies back, clearing and iterating over
+     * the map cost in proportion to its population again rather than to the
+     * largest it ever was.
+     */
+    private static class LongIntMap
+    {
+        // class fields
+        private static final int INITIAL_CAPACITY = 64;
+
+        // instance fields
+        private long[] keys;
+        private int mask;
+        private int shift;
+        private int size;
+        private int[] values;
+
+        /*
+         * constructor
+         */
+
+        /**
+         * Creates an empty <code>LongIntMap</code>.
+         */
+        public LongIntMap()
+        {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        /*
+         * accessor
+         */
+
+        /**
+         * Returns the value of a key.
+         *
+         * @param key the key whose value is returned
+         * @return the value of the key; 0 if it is not in this map
+         */
+        public int get(long key)
+        {
+            for (int i = getSlot(key); ; i = (i + 1) & mask)
+            {
+                if (values[i] == 0)
+                    return 0;
+                if (keys[i] == key)
+                    return values[i];
+            }
+        }
+
+        /*
+         * mutators
+         */
+
+        /**
+         * Adds an amount to the value of a key, inserting the key if needed.
+         *
+         * @param key the key whose value is increased
+         * @param amount the amount to add; must be greater than 0
+         */
+        public void add(long key, int amount)
+        {
+            int i = getSlot(key);
+            while (values[i] != 0)
+            {
+                if (keys[i] == key)
+                {
+                    values[i] += amount;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+
+            keys[i] = key;
+            values[i] = amount;
+            if (++size > (mask + 1) >>> 1)
+                resize();
+        }
+
+        /**
+         * Removes every key. The capacity is kept unless it is more than
+         * eight times what the number of keys removed needs, in which case
+         * the map shrinks to fit that number again.
+         */
+        public void clear()
+        {
+            int capacity = Math.max(INITIAL_CAPACITY,
+                Integer.highestOneBit(Math.max(1, size)) << 2);
+            if (keys.length > capacity << 1)
+                allocate(capacity);
+            else if (size > 0)
+                Arrays.fill(values, 0);
+            size = 0;
+        }
+
+        /**
+         * Sets the value of a key, inserting the key if needed.
+         *
+         * @param key the key whose value is set
+         * @param value the value; must not be 0
+         */
+        public void put(long key, int value)
+        {
+            int i = getSlot(key);
+            while (values[i] != 0)
+            {
+                if (keys[i] == key)
+                {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+
+            keys[i] = key;
+            values[i] = value;
+            if (++size > (mask + 1) >>> 1)
+                resize();
+        }
+
+        /**
+         * Removes a key, shifting back any key which probed past it.
+         *
+         * @param key the key to remove
+         */
+        public void remove(long key)
+        {
+            int i = getSlot(key);
+            while (values[i] != 0 && keys[i] != key)
+                i = (i + 1) & mask;
+            if (values[i] == 0)
+                return;
+
+            values[i] = 0;
+            size--;
+
+            for (int j = (i + 1) & mask; values[j] != 0; j = (j + 1) & mask)
+            {
+                int slot = getSlot(keys[j]);
+                boolean canMove = i <= j
+                    ? slot <= i || slot > j
+                    : slot <= i && slot > j;
+                if (canMove)
+                {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    values[j] = 0;
+                    i = j;
+                }
+            }
+        }
+
+        /*
+         * methods
+         */
+
+        private void allocate(int capacity)
+        {
+            keys = new long[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+            shift = Long.numberOfLeadingZeros(mask);
+        }
+
+        private int getSlot(long key)
+        {
+            return (int)((key * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+
+        private void resize()
+        {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            allocate(oldKeys.length << 1);
+            size = 0;
+
+            for (int i = 0; i < oldKeys.length; i++)
+                if (oldValues[i] != 0)
+                    put(oldKeys[i], oldValues[i]);
+        }
+    }
+}
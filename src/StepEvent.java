@@ -0,0 +1,46 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for the simulation of one generation, so a
+ * recording of a slow run shows how long each step took and on how busy a
+ * board. Enabled by default in a recording, with no threshold. Begun
+ * through <code>FlightEvents</code>, so it is neither loaded nor allocated
+ * when no recording is running, and its fields are only filled in once
+ * <code>shouldCommit</code> says it will be recorded.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+@Name("GameOfLife.Step")
+@Label("Simulation Step")
+@Category({"Game of Life"})
+@Description("The simulation of one generation")
+public class StepEvent extends Event
+{
+    // instance fields
+    /**
+     * The number of cells which changed in the generation; -1 if the
+     * simulation was not tracking its changes.
+     */
+    @Label("Changed Cells")
+    public long changedCells;
+    /**
+     * The generation simulated.
+     */
+    @Label("Generation")
+    public long generation;
+    /**
+     * The height of the board.
+     */
+    @Label("Height")
+    public int height;
+    /**
+     * The width of the board.
+     */
+    @Label("Width")
+    public int width;
+}
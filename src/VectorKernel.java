@@ -0,0 +1,139 @@
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Computes rows of a <code>GameOfLife</code> a whole vector of cells at a
+ * time, using the <code>jdk.incubator.vector</code> module.
+ * <p>
+ * This class must only be loaded when the module is in the boot layer, since
+ * otherwise it cannot be linked. <code>GameOfLife</code> checks that once and
+ * uses its scalar loop otherwise.
+ *
+ * @author Shazz Amin
+ * @version 1.0 2026-10-17
+ */
+final class VectorKernel
+{
+    // class fields
+    private static final int MAXIMUM_NEIGHBOURS = 8;
+    private static final VectorSpecies<Byte> SPECIES =
+        ByteVector.SPECIES_PREFERRED;
+
+    /*
+     * constructor
+     */
+
+    private VectorKernel()
+    {
+    }
+
+    /*
+     * methods
+     */
+
+    /*
+     * Fills rows startY (inclusive) to endY (exclusive) of nextCells and
+     * returns the change in the hash, exactly like
+     * GameOfLife.computeRows(int, int). The grids use GameOfLife's layout:
+     * rows of stride bytes with a one cell halo, so cell (0, y) is at
+     * (y + 1) * stride + 1. The columns left over after the last whole
+     * vector of a row are computed one by one from the nextStates table.
+     * Changed cells are added to changes unless it is null.
+     */
+    static long computeRows(byte[] cells, byte[] nextCells, int width,
+        int stride, int startY, int endY, Rule rule, byte[] nextStates,
+        ChangeSet changes)
+    {
+        boolean isConway = rule.equals(Rule.CONWAY);
+        int birthMask = rule.getBirthMask();
+        int survivalMask = rule.getSurvivalMask();
+        int vectorWidth = width - width % SPECIES.length();
+        long hashChange = 0;
+
+        for (int y = startY; y < endY; y++)
+        {
+            int row = (y + 1) * stride + 1;
+            int x = 0;
+            for (; x < vectorWidth; x += SPECIES.length())
+            {
+                int index = row + x;
+                ByteVector alive = ByteVector.fromArray(SPECIES, cells, index);
+                ByteVector neighbours =
+                    ByteVector.fromArray(SPECIES, cells, index - stride - 1)
+                    .add(ByteVector.fromArray(SPECIES, cells, index - stride))
+                    .add(ByteVector.fromArray(SPECIES, cells,
+                        index - stride + 1))
+                    .add(ByteVector.fromArray(SPECIES, cells, index - 1))
+                    .add(ByteVector.fromArray(SPECIES, cells, index + 1))
+                    .add(ByteVector.fromArray(SPECIES, cells,
+                        index + stride - 1))
+                    .add(ByteVector.fromArray(SPECIES, cells, index + stride))
+                    .add(ByteVector.fromArray(SPECIES, cells,
+                        index + stride + 1));
+
+                VectorMask<Byte> isNextAlive;
+                if (isConway)
+                {
+                    // alive next with 3 neighbours, or with 2 if alive now
+                    isNextAlive = neighbours.or(alive)
+                        .compare(VectorOperators.EQ, 3);
+                }
+                else
+                {
+                    VectorMask<Byte> isAlive =
+                        alive.compare(VectorOperators.NE, 0);
+                    VectorMask<Byte> isBorn = SPECIES.maskAll(false);
+                    VectorMask<Byte> survives = SPECIES.maskAll(false);
+                    for (int n = 0; n <= MAXIMUM_NEIGHBOURS; n++)
+                    {
+                        if ((birthMask & (1 << n)) != 0)
+                            isBorn = isBorn.or(neighbours.compare(
+                                VectorOperators.EQ, n));
+                        if ((survivalMask & (1 << n)) != 0)
+                            survives = survives.or(neighbours.compare(
+                                VectorOperators.EQ, n));
+                    }
+                    isNextAlive = isAlive.and(survives)
+                        .or(isBorn.andNot(isAlive));
+                }
+
+                ByteVector next = ByteVector.zero(SPECIES)
+                    .blend((byte)1, isNextAlive);
+                next.intoArray(nextCells, index);
+
+                VectorMask<Byte> isChanged =
+                    next.compare(VectorOperators.NE, alive);
+                for (long lanes = isChanged.toLong(); lanes != 0;
+                    lanes &= lanes - 1)
+                {
+                    int lane = Long.numberOfTrailingZeros(lanes);
+                    hashChange ^= CycleDetector.mix(index + lane);
+                    if (changes != null)
+                        changes.add(x + lane, y);
+                }
+            }
+
+            for (; x < width; x++)
+            {
+                int index = row + x;
+                int neighbours =
+                    cells[index - stride - 1] + cells[index - stride]
+                    + cells[index - stride + 1] + cells[index - 1]
+                    + cells[index + 1] + cells[index + stride - 1]
+                    + cells[index + stride] + cells[index + stride + 1];
+                byte next = nextStates[(neighbours << 1) | cells[index]];
+                if (next != cells[index])
+                {
+                    hashChange ^= CycleDetector.mix(index);
+                    if (changes != null)
+                        changes.add(x, y);
+                }
+                nextCells[index] = next;
+            }
+        }
+
+        return hashChange;
+    }
+}